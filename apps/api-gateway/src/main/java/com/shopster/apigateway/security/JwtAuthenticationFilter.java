@@ -0,0 +1,165 @@
+package com.shopster.apigateway.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Authenticates requests at the edge. Access tokens are verified with
+ * {@link JwtVerifier} and the caller's identity is forwarded to the routed
+ * service as X-User-Id, X-User-Email and X-User-Roles. Those headers are always
+ * stripped from the incoming request first, so downstream services can trust
+ * them without calling user-service.
+ * <p>
+ * Paths matching gateway.auth.public-paths are let through without a token.
+ * Paths matching gateway.auth.owner-paths carry a {userId} variable that must
+ * match the token's user unless the caller has the ADMIN role. Paths matching
+ * gateway.auth.admin-paths are only open to ADMIN callers; services that need
+ * them call the owning service directly rather than through the gateway.
+ */
+@Component
+public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
+
+    public static final String USER_ID_HEADER = "X-User-Id";
+    public static final String USER_EMAIL_HEADER = "X-User-Email";
+    public static final String USER_ROLES_HEADER = "X-User-Roles";
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final String ADMIN_ROLE = "ADMIN";
+
+    private final JwtVerifier jwtVerifier;
+    private final List<PathPattern> publicPaths;
+    private final List<PathPattern> ownerPaths;
+    private final List<PathPattern> adminPaths;
+
+    public JwtAuthenticationFilter(JwtVerifier jwtVerifier,
+                                   @Value("${gateway.auth.public-paths:}") List<String> publicPaths,
+                                   @Value("${gateway.auth.owner-paths:}") List<String> ownerPaths,
+                                   @Value("${gateway.auth.admin-paths:}") List<String> adminPaths) {
+        this.jwtVerifier = jwtVerifier;
+        this.publicPaths = parse(publicPaths);
+        this.ownerPaths = parse(ownerPaths);
+        this.adminPaths = parse(adminPaths);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        PathContainer path = request.getPath().pathWithinApplication();
+
+        Optional<VerifiedToken> token = bearerToken(request)
+                .flatMap(jwtVerifier::verify)
+                .filter(VerifiedToken::isAccessToken);
+
+        if (token.isEmpty()) {
+            if (HttpMethod.OPTIONS.equals(request.getMethod()) || matchesAny(publicPaths, path)) {
+                return chain.filter(withIdentity(exchange, null));
+            }
+            return reject(exchange, HttpStatus.UNAUTHORIZED);
+        }
+
+        VerifiedToken verified = token.get();
+        if (!ownsPath(verified, path)) {
+            logger.debug("User {} denied access to {}", verified.getUserId(), path.value());
+            return reject(exchange, HttpStatus.FORBIDDEN);
+        }
+        return chain.filter(withIdentity(exchange, verified));
+    }
+
+    @Override
+    public int getOrder() {
+        return -100;
+    }
+
+    private boolean ownsPath(VerifiedToken token, PathContainer path) {
+        if (token.hasRole(ADMIN_ROLE)) {
+            return true;
+        }
+        if (matchesAny(adminPaths, path)) {
+            return false;
+        }
+        for (PathPattern pattern : ownerPaths) {
+            PathPattern.PathMatchInfo match = pattern.matchAndExtract(path);
+            if (match != null) {
+                String pathUserId = match.getUriVariables().get("userId");
+                return pathUserId == null || pathUserId.equals(String.valueOf(token.getUserId()));
+            }
+        }
+        return true;
+    }
+
+    private static ServerWebExchange withIdentity(ServerWebExchange exchange, VerifiedToken token) {
+        ServerHttpRequest request = exchange.getRequest().mutate()
+                .headers(headers -> {
+                    headers.remove(USER_ID_HEADER);
+                    headers.remove(USER_EMAIL_HEADER);
+                    headers.remove(USER_ROLES_HEADER);
+                    if (token != null) {
+                        headers.set(USER_ID_HEADER, String.valueOf(token.getUserId()));
+                        if (token.getEmail() != null) {
+                            headers.set(USER_EMAIL_HEADER, token.getEmail());
+                        }
+                        if (token.getRoles() != null) {
+                            headers.set(USER_ROLES_HEADER, token.getRoles());
+                        }
+                    }
+                })
+                .build();
+        return exchange.mutate().request(request).build();
+    }
+
+    private static Optional<String> bearerToken(ServerHttpRequest request) {
+        String header = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            return Optional.empty();
+        }
+        return Optional.of(header.substring(BEARER_PREFIX.length()).trim());
+    }
+
+    private static Mono<Void> reject(ServerWebExchange exchange, HttpStatus status) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(status);
+        if (status == HttpStatus.UNAUTHORIZED) {
+            response.getHeaders().set(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+        }
+        return response.setComplete();
+    }
+
+    private static boolean matchesAny(List<PathPattern> patterns, PathContainer path) {
+        for (PathPattern pattern : patterns) {
+            if (pattern.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<PathPattern> parse(List<String> patterns) {
+        List<PathPattern> parsed = new ArrayList<>();
+        for (String pattern : patterns) {
+            if (!pattern.isBlank()) {
+                parsed.add(PathPatternParser.defaultInstance.parse(pattern.trim()));
+            }
+        }
+        return parsed;
+    }
+}
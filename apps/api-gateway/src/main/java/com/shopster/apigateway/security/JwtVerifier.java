@@ -0,0 +1,104 @@
+package com.shopster.apigateway.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verifies tokens issued by user-service with the shared HMAC key. The key and
+ * parser are built once, and verified claims are cached by SHA-256 hash of the
+ * token until the token expires, so a client reusing its access token costs one
+ * hash and one cache lookup per request.
+ */
+@Component
+public class JwtVerifier {
+
+    private final JwtParser parser;
+    private final Cache<String, VerifiedToken> verifiedTokens;
+
+    public JwtVerifier(@Value("${jwt.secret}") String secret,
+                       @Value("${gateway.auth.verification-cache.max-size:10000}") long cacheMaxSize) {
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(secret.getBytes()))
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+                        long millis = Duration.between(Instant.now(), token.getExpiresAt()).toMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, millis));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken token, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(key, token, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken token, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Verify a token and return its claims, or empty if it is malformed, forged or expired.
+     * Failures are not cached so garbage tokens cannot evict valid ones.
+     */
+    public Optional<VerifiedToken> verify(String token) {
+        if (token == null || token.isEmpty()) {
+            return Optional.empty();
+        }
+        String key = tokenHash(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(key);
+        if (cached != null && !cached.isExpired()) {
+            return Optional.of(cached);
+        }
+
+        try {
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            if (claims.getExpiration() == null || claims.get("userId") == null) {
+                return Optional.empty();
+            }
+            VerifiedToken verified = new VerifiedToken(
+                    claims.get("userId", Long.class),
+                    claims.getSubject(),
+                    claims.get("roles", String.class),
+                    claims.get("tokenType", String.class),
+                    claims.getExpiration().toInstant());
+            verifiedTokens.put(key, verified);
+            return Optional.of(verified);
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static String tokenHash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
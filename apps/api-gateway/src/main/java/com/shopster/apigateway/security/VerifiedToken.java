@@ -0,0 +1,66 @@
+package com.shopster.apigateway.security;
+
+import java.time.Instant;
+
+/**
+ * Claims of an access token whose signature and expiry have been verified.
+ */
+public final class VerifiedToken {
+
+    private final Long userId;
+    private final String email;
+    private final String roles;
+    private final String tokenType;
+    private final Instant expiresAt;
+
+    public VerifiedToken(Long userId, String email, String roles, String tokenType, Instant expiresAt) {
+        this.userId = userId;
+        this.email = email;
+        this.roles = roles;
+        this.tokenType = tokenType;
+        this.expiresAt = expiresAt;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    /**
+     * Comma-separated role names
+     */
+    public String getRoles() {
+        return roles;
+    }
+
+    public String getTokenType() {
+        return tokenType;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public boolean isAccessToken() {
+        return "access".equals(tokenType);
+    }
+
+    public boolean hasRole(String role) {
+        if (roles == null) {
+            return false;
+        }
+        for (String candidate : roles.split(",")) {
+            if (candidate.trim().equals(role)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isExpired() {
+        return !expiresAt.isAfter(Instant.now());
+    }
+}
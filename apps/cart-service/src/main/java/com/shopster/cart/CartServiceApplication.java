@@ -3,12 +3,14 @@ package com.shopster.cart;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.data.redis.repository.configuration.EnableRedisRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main application class for Shopster Cart Service
  */
 @SpringBootApplication
 @EnableRedisRepositories
+@EnableScheduling
 public class CartServiceApplication {
     
     public static void main(String[] args) {
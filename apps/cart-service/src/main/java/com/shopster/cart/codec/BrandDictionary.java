@@ -0,0 +1,114 @@
+package com.shopster.cart.codec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns brand names to small integer ids shared by every cart-service instance.
+ * The mapping lives in Redis and is append-only, so ids are cached locally for
+ * the life of the process. Id 0 is reserved for "no brand".
+ *
+ * Cart writes use {@link #idIfKnown}, which never calls Redis: a brand not cached
+ * yet is interned in the background and stored by name until then, so a new brand
+ * does not add a round trip in front of the cart mutation.
+ */
+@Component
+public class BrandDictionary {
+
+    private static final Logger logger = LoggerFactory.getLogger(BrandDictionary.class);
+
+    private static final String IDS_KEY = "cart:{brands}:ids";
+    private static final String NAMES_KEY = "cart:{brands}:names";
+    private static final String SEQUENCE_KEY = "cart:{brands}:seq";
+
+    private static final RedisScript<Long> INTERN_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/brand_intern.lua"), Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final Map<String, Long> idsByName = new ConcurrentHashMap<>();
+    private final Map<Long, String> namesById = new ConcurrentHashMap<>();
+    private final Set<String> interning = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public BrandDictionary(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * Get the cached id for a brand, or -1 if it has none yet; a miss starts
+     * interning the brand in the background
+     */
+    public long idIfKnown(String brand) {
+        if (brand == null || brand.isEmpty()) {
+            return 0;
+        }
+        Long cached = idsByName.get(brand);
+        if (cached != null) {
+            return cached;
+        }
+        if (interning.add(brand)) {
+            CompletableFuture.runAsync(() -> idOf(brand))
+                    .whenComplete((ignored, e) -> {
+                        interning.remove(brand);
+                        if (e != null) {
+                            logger.debug("Could not intern brand {}: {}", brand, e.getMessage());
+                        }
+                    });
+        }
+        return -1;
+    }
+
+    /**
+     * Get the id for a brand, assigning one on first use
+     */
+    public long idOf(String brand) {
+        if (brand == null || brand.isEmpty()) {
+            return 0;
+        }
+        Long cached = idsByName.get(brand);
+        if (cached != null) {
+            return cached;
+        }
+        Long id = redisTemplate.execute(INTERN_SCRIPT, Arrays.asList(IDS_KEY, NAMES_KEY, SEQUENCE_KEY), brand);
+        if (id == null) {
+            throw new IllegalStateException("Failed to intern brand " + brand);
+        }
+        remember(id, brand);
+        return id;
+    }
+
+    /**
+     * Get the brand for an id; unknown ids resolve to an empty brand
+     */
+    public String nameOf(long id) {
+        if (id == 0) {
+            return "";
+        }
+        String cached = namesById.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        Object name = redisTemplate.opsForHash().get(NAMES_KEY, Long.toString(id));
+        if (name == null) {
+            return "";
+        }
+        remember(id, name.toString());
+        return name.toString();
+    }
+
+    private void remember(long id, String brand) {
+        idsByName.put(brand, id);
+        namesById.put(id, brand);
+    }
+}
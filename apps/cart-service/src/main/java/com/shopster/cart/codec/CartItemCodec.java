@@ -0,0 +1,23 @@
+package com.shopster.cart.codec;
+
+/**
+ * Encoding of cart line-item details stored in Redis.
+ * Every registered codec can read values it recognises, whichever codec is
+ * configured for writing, so the write format can change without a migration.
+ */
+public interface CartItemCodec {
+
+    /**
+     * Name used to select this codec for writing (cart.codec.format)
+     */
+    String getFormat();
+
+    byte[] encode(CartItemDetails details);
+
+    CartItemDetails decode(byte[] bytes);
+
+    /**
+     * Whether the value was written by this codec
+     */
+    boolean canDecode(byte[] bytes);
+}
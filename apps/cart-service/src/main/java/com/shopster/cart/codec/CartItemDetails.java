@@ -0,0 +1,54 @@
+package com.shopster.cart.codec;
+
+import java.math.BigDecimal;
+
+/**
+ * Stored details of a cart line item: everything except the product id (the hash
+ * field name) and the quantity (a separate integer field).
+ */
+public class CartItemDetails {
+
+    private final String productName;
+    private final BigDecimal price;
+    private final String imageUrl;
+    private final String brand;
+    private final boolean inStock;
+    private final long addedAt;
+
+    public CartItemDetails(String productName, BigDecimal price, String imageUrl, String brand,
+                           boolean inStock, long addedAt) {
+        this.productName = productName;
+        this.price = price;
+        this.imageUrl = imageUrl;
+        this.brand = brand;
+        this.inStock = inStock;
+        this.addedAt = addedAt;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    public String getBrand() {
+        return brand;
+    }
+
+    public boolean isInStock() {
+        return inStock;
+    }
+
+    /**
+     * Epoch millis when the item was first added; used to keep cart order
+     */
+    public long getAddedAt() {
+        return addedAt;
+    }
+}
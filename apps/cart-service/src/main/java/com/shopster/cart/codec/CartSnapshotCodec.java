@@ -0,0 +1,101 @@
+package com.shopster.cart.codec;
+
+import com.shopster.cart.domain.Cart;
+import com.shopster.cart.domain.CartItem;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Self-contained binary encoding of a whole cart, used where a cart leaves Redis
+ * (the archive). Unlike {@link BinaryCartItemCodec} it does not depend on the
+ * shared brand dictionary: brands are interned in a table inside the snapshot.
+ *
+ * Layout (version 1):
+ * <pre>
+ *   byte     version (0x01)
+ *   varint   brand count, then each brand as a string
+ *   varint   item count, then per item:
+ *     string   product id
+ *     varint   quantity
+ *     varint   flags (bit 0: in stock)
+ *     zigzag   price in cents
+ *     varint   brand index
+ *     string   product name
+ *     string   image URL
+ * </pre>
+ */
+@Component
+public class CartSnapshotCodec {
+
+    private static final byte VERSION_1 = 0x01;
+    private static final int FLAG_IN_STOCK = 1;
+
+    public byte[] encode(Cart cart) {
+        List<String> brands = new ArrayList<>();
+        Map<String, Integer> brandIndex = new HashMap<>();
+        for (CartItem item : cart.getItems()) {
+            String brand = item.getBrand() != null ? item.getBrand() : "";
+            if (!brandIndex.containsKey(brand)) {
+                brandIndex.put(brand, brands.size());
+                brands.add(brand);
+            }
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 * (cart.getItems().size() + 1));
+        out.write(VERSION_1);
+        Varint.writeUnsigned(out, brands.size());
+        for (String brand : brands) {
+            Varint.writeString(out, brand);
+        }
+        Varint.writeUnsigned(out, cart.getItems().size());
+        for (CartItem item : cart.getItems()) {
+            Varint.writeString(out, item.getProductId());
+            Varint.writeUnsigned(out, item.getQuantity());
+            Varint.writeUnsigned(out, item.isInStock() ? FLAG_IN_STOCK : 0);
+            Varint.writeSigned(out, BinaryCartItemCodec.toCents(item.getPrice()));
+            Varint.writeUnsigned(out, brandIndex.get(item.getBrand() != null ? item.getBrand() : ""));
+            Varint.writeString(out, item.getProductName());
+            Varint.writeString(out, item.getImageUrl());
+        }
+        return out.toByteArray();
+    }
+
+    public Cart decode(String userId, byte[] bytes) {
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        byte version = in.get();
+        if (version != VERSION_1) {
+            throw new IllegalArgumentException("Unsupported cart snapshot version " + version);
+        }
+
+        int brandCount = (int) Varint.readUnsigned(in);
+        String[] brands = new String[brandCount];
+        for (int i = 0; i < brandCount; i++) {
+            brands[i] = Varint.readString(in);
+        }
+
+        int itemCount = (int) Varint.readUnsigned(in);
+        List<CartItem> items = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            String productId = Varint.readString(in);
+            int quantity = (int) Varint.readUnsigned(in);
+            long flags = Varint.readUnsigned(in);
+            long cents = Varint.readSigned(in);
+            String brand = brands[(int) Varint.readUnsigned(in)];
+            String productName = Varint.readString(in);
+            String imageUrl = Varint.readString(in);
+            items.add(new CartItem(productId, productName, quantity, BigDecimal.valueOf(cents, 2),
+                    imageUrl, brand, (flags & FLAG_IN_STOCK) != 0));
+        }
+
+        Cart cart = new Cart(userId);
+        cart.setItems(items);
+        return cart;
+    }
+}
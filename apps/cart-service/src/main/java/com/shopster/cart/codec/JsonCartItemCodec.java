@@ -0,0 +1,71 @@
+package com.shopster.cart.codec;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+
+/**
+ * JSON item details, the original per-field format. Kept so values written
+ * before the binary codec stay readable.
+ */
+@Component
+public class JsonCartItemCodec implements CartItemCodec {
+
+    public static final String FORMAT = "json";
+
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public JsonCartItemCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public String getFormat() {
+        return FORMAT;
+    }
+
+    @Override
+    public byte[] encode(CartItemDetails details) {
+        ObjectNode node = objectMapper.createObjectNode()
+                .put("productName", details.getProductName())
+                .put("price", details.getPrice() != null ? details.getPrice().toPlainString() : "0")
+                .put("imageUrl", details.getImageUrl())
+                .put("brand", details.getBrand())
+                .put("inStock", details.isInStock())
+                .put("addedAt", details.getAddedAt());
+        try {
+            return objectMapper.writeValueAsBytes(node);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public CartItemDetails decode(byte[] bytes) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new CartItemDetails(
+                node.path("productName").asText(null),
+                new BigDecimal(node.path("price").asText("0")),
+                node.path("imageUrl").asText(""),
+                node.path("brand").asText(""),
+                node.path("inStock").asBoolean(true),
+                node.path("addedAt").asLong());
+    }
+
+    @Override
+    public boolean canDecode(byte[] bytes) {
+        return bytes.length > 0 && bytes[0] == '{';
+    }
+}
@@ -2,12 +2,15 @@ package com.shopster.cart.controller;
 
 import com.shopster.cart.domain.Cart;
 import com.shopster.cart.dto.AddItemRequest;
+import com.shopster.cart.dto.CartBatchRequest;
 import com.shopster.cart.dto.UpdateItemRequest;
 import com.shopster.cart.service.CartService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/v1/cart")
@@ -40,8 +43,18 @@ public class CartController {
         return cartService.removeItemFromCart(userId, productId);
     }
 
+    @PostMapping("/{userId}/batch")
+    public Cart applyBatch(@PathVariable String userId, @Valid @RequestBody CartBatchRequest batchRequest) {
+        return cartService.applyBatch(userId, batchRequest.getOperations());
+    }
+
     @DeleteMapping("/{userId}")
     public void clearCart(@PathVariable String userId) {
         cartService.clearCart(userId);
     }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
 }
\ No newline at end of file
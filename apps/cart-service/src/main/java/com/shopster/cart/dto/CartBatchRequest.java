@@ -0,0 +1,22 @@
+package com.shopster.cart.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class CartBatchRequest {
+
+    @NotEmpty
+    @Size(max = 100)
+    private List<@Valid CartItemOperationRequest> operations;
+
+    public List<CartItemOperationRequest> getOperations() {
+        return operations;
+    }
+
+    public void setOperations(List<CartItemOperationRequest> operations) {
+        this.operations = operations;
+    }
+}
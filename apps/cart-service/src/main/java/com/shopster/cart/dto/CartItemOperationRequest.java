@@ -0,0 +1,103 @@
+package com.shopster.cart.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * One line-item change in a batch request. ADD needs the item details and a
+ * quantity of at least 1, UPDATE needs a quantity of at least 1, REMOVE needs
+ * only the product id.
+ */
+public class CartItemOperationRequest {
+
+    public enum Op {
+        ADD,
+        UPDATE,
+        REMOVE
+    }
+
+    @NotNull
+    private Op op;
+
+    @NotBlank
+    private String productId;
+
+    @Min(0)
+    private int quantity;
+
+    private String productName;
+
+    @Min(0)
+    private Double price;
+
+    private String imageUrl;
+
+    private String brand;
+
+    private boolean inStock = true;
+
+    public Op getOp() {
+        return op;
+    }
+
+    public void setOp(Op op) {
+        this.op = op;
+    }
+
+    public String getProductId() {
+        return productId;
+    }
+
+    public void setProductId(String productId) {
+        this.productId = productId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public void setProductName(String productName) {
+        this.productName = productName;
+    }
+
+    public Double getPrice() {
+        return price;
+    }
+
+    public void setPrice(Double price) {
+        this.price = price;
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    public void setImageUrl(String imageUrl) {
+        this.imageUrl = imageUrl;
+    }
+
+    public String getBrand() {
+        return brand;
+    }
+
+    public void setBrand(String brand) {
+        this.brand = brand;
+    }
+
+    public boolean isInStock() {
+        return inStock;
+    }
+
+    public void setInStock(boolean inStock) {
+        this.inStock = inStock;
+    }
+}
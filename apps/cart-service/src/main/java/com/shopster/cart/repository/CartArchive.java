@@ -0,0 +1,319 @@
+package com.shopster.cart.repository;
+
+import com.shopster.cart.codec.CartSnapshotCodec;
+import com.shopster.cart.domain.Cart;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+/**
+ * Cold tier for idle carts: an append-only local file of cart snapshots with an
+ * in-memory index of the latest record per user.
+ *
+ * Record layout: int body length, body, int CRC32 of body. The body is the user
+ * id (modified UTF-8) followed by an int payload length and a
+ * {@link CartSnapshotCodec} payload; a payload length of -1 is a tombstone.
+ * A torn record at the tail (crash mid-append) is truncated on startup.
+ * Superseded records are dropped by {@link #compactIfNeeded()}.
+ *
+ * Only correct with a single cart-service instance. The offset index and
+ * compaction assume this process is the file's only writer, so the file must not
+ * be shared, and a cart archived by one instance cannot be restored by another.
+ * Run more than one instance only with cart.archive.enabled=false.
+ */
+@Component
+public class CartArchive {
+
+    private static final Logger logger = LoggerFactory.getLogger(CartArchive.class);
+
+    private static final int TOMBSTONE = -1;
+    private static final int MIN_COMPACTION_DEAD_RECORDS = 1000;
+
+    private final CartSnapshotCodec snapshotCodec;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Path path;
+
+    private final Map<String, Long> offsets = new HashMap<>();
+    private long deadRecords;
+    private RandomAccessFile file;
+
+    @Autowired
+    public CartArchive(CartSnapshotCodec snapshotCodec,
+                       MeterRegistry meterRegistry,
+                       @Value("${cart.archive.enabled:true}") boolean enabled,
+                       @Value("${cart.archive.path:data/cart-archive.log}") String path) {
+        this.snapshotCodec = snapshotCodec;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.path = Paths.get(path);
+    }
+
+    @PostConstruct
+    void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        file = new RandomAccessFile(path.toFile(), "rw");
+        loadIndex();
+        Gauge.builder("cart.archive.carts", this, CartArchive::size)
+                .description("Carts currently held in the archive")
+                .register(meterRegistry);
+        logger.info("Opened cart archive {} with {} carts", path, offsets.size());
+    }
+
+    @PreDestroy
+    synchronized void close() throws IOException {
+        if (file != null) {
+            file.close();
+            file = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public synchronized boolean contains(String userId) {
+        return file != null && offsets.containsKey(userId);
+    }
+
+    public synchronized int size() {
+        return offsets.size();
+    }
+
+    /**
+     * Append a snapshot of the cart, superseding any earlier one for the user.
+     * Call {@link #sync()} before deleting the cart from Redis.
+     */
+    public synchronized void archive(Cart cart) {
+        requireOpen();
+        long offset = append(cart.getUserId(), snapshotCodec.encode(cart));
+        if (offsets.put(cart.getUserId(), offset) != null) {
+            deadRecords++;
+        }
+    }
+
+    /**
+     * Get the archived cart for a user without removing it
+     */
+    public synchronized Optional<Cart> find(String userId) {
+        Long offset = file != null ? offsets.get(userId) : null;
+        if (offset == null) {
+            return Optional.empty();
+        }
+        try {
+            file.seek(offset);
+            Record record = readRecord();
+            if (record == null || record.payload == null) {
+                throw new IOException("Corrupt cart archive record at offset " + offset);
+            }
+            return Optional.of(snapshotCodec.decode(userId, record.payload));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Forget the archived cart for a user, if any
+     */
+    public synchronized void remove(String userId) {
+        if (file == null || !offsets.containsKey(userId)) {
+            return;
+        }
+        append(userId, null);
+        offsets.remove(userId);
+        deadRecords += 2;
+    }
+
+    /**
+     * Flush appended records to disk
+     */
+    public synchronized void sync() {
+        if (file == null) {
+            return;
+        }
+        try {
+            file.getFD().sync();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Rewrite the file with only live records once superseded records dominate
+     */
+    public synchronized void compactIfNeeded() {
+        if (file == null || deadRecords < MIN_COMPACTION_DEAD_RECORDS || deadRecords < offsets.size()) {
+            return;
+        }
+        Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+        try {
+            List<Map.Entry<String, Long>> live = new ArrayList<>(offsets.entrySet());
+            Map<String, Long> newOffsets = new HashMap<>(live.size() * 2);
+            try (RandomAccessFile out = new RandomAccessFile(compacted.toFile(), "rw")) {
+                out.setLength(0);
+                for (Map.Entry<String, Long> entry : live) {
+                    file.seek(entry.getValue());
+                    Record record = readRecord();
+                    if (record == null || record.payload == null) {
+                        continue;
+                    }
+                    newOffsets.put(entry.getKey(), out.getFilePointer());
+                    out.write(encodeRecord(entry.getKey(), record.payload));
+                }
+                out.getFD().sync();
+            }
+            file.close();
+            Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            file = new RandomAccessFile(path.toFile(), "rw");
+            offsets.clear();
+            offsets.putAll(newOffsets);
+            logger.info("Compacted cart archive: dropped {} dead records, {} carts kept", deadRecords, offsets.size());
+            deadRecords = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void requireOpen() {
+        if (file == null) {
+            throw new IllegalStateException("Cart archive is not enabled");
+        }
+    }
+
+    private long append(String userId, byte[] payload) {
+        try {
+            long offset = file.length();
+            file.seek(offset);
+            file.write(encodeRecord(userId, payload));
+            return offset;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void loadIndex() throws IOException {
+        long length = file.length();
+        long position = 0;
+        file.seek(0);
+        while (position < length) {
+            Record record;
+            try {
+                record = readRecord();
+            } catch (EOFException e) {
+                record = null;
+            }
+            if (record == null) {
+                break;
+            }
+            if (record.payload == null) {
+                if (offsets.remove(record.userId) != null) {
+                    deadRecords++;
+                }
+                deadRecords++;
+            } else if (offsets.put(record.userId, position) != null) {
+                deadRecords++;
+            }
+            position = file.getFilePointer();
+        }
+        if (position < length) {
+            logger.warn("Truncating {} bytes of incomplete records from cart archive {}", length - position, path);
+            file.setLength(position);
+        }
+    }
+
+    /**
+     * Read the record at the current file position; null if it is incomplete or corrupt
+     */
+    private Record readRecord() throws IOException {
+        int bodyLength = file.readInt();
+        if (bodyLength < 0 || file.getFilePointer() + bodyLength + 4 > file.length()) {
+            return null;
+        }
+        byte[] body = new byte[bodyLength];
+        file.readFully(body);
+        int checksum = file.readInt();
+        if (checksum != checksum(body)) {
+            return null;
+        }
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+        String userId = in.readUTF();
+        int payloadLength = in.readInt();
+        byte[] payload = null;
+        if (payloadLength != TOMBSTONE) {
+            payload = new byte[payloadLength];
+            in.readFully(payload);
+        }
+        return new Record(userId, payload);
+    }
+
+    private static byte[] encodeRecord(String userId, byte[] payload) {
+        try {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            DataOutputStream bodyOut = new DataOutputStream(body);
+            bodyOut.writeUTF(userId);
+            if (payload != null) {
+                bodyOut.writeInt(payload.length);
+                bodyOut.write(payload);
+            } else {
+                bodyOut.writeInt(TOMBSTONE);
+            }
+            byte[] bodyBytes = body.toByteArray();
+
+            ByteArrayOutputStream record = new ByteArrayOutputStream(bodyBytes.length + 8);
+            DataOutputStream recordOut = new DataOutputStream(record);
+            recordOut.writeInt(bodyBytes.length);
+            recordOut.write(bodyBytes);
+            recordOut.writeInt(checksum(bodyBytes));
+            return record.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int checksum(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+
+    private static final class Record {
+        private final String userId;
+        private final byte[] payload;
+
+        private Record(String userId, byte[] payload) {
+            this.userId = userId;
+            this.payload = payload;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.shopster.cart.repository;
+
+import com.shopster.cart.domain.CartItem;
+
+/**
+ * A single line-item change applied by CartStore
+ */
+public class CartOperation {
+
+    public enum Type {
+        /** Increment quantity, creating the line item if absent */
+        ADD,
+        /** Set quantity of an existing line item */
+        SET,
+        /** Remove a line item */
+        REMOVE,
+        /** Insert a line item with its quantity only if absent */
+        PUT_IF_ABSENT
+    }
+
+    private final Type type;
+    private final String productId;
+    private final int quantity;
+    private final CartItem item;
+
+    private CartOperation(Type type, String productId, int quantity, CartItem item) {
+        this.type = type;
+        this.productId = productId;
+        this.quantity = quantity;
+        this.item = item;
+    }
+
+    public static CartOperation add(CartItem item) {
+        return new CartOperation(Type.ADD, item.getProductId(), item.getQuantity(), item);
+    }
+
+    public static CartOperation setQuantity(String productId, int quantity) {
+        return new CartOperation(Type.SET, productId, quantity, null);
+    }
+
+    public static CartOperation remove(String productId) {
+        return new CartOperation(Type.REMOVE, productId, 0, null);
+    }
+
+    public static CartOperation putIfAbsent(CartItem item) {
+        return new CartOperation(Type.PUT_IF_ABSENT, item.getProductId(), item.getQuantity(), item);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getProductId() {
+        return productId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    /**
+     * Item details for ADD and PUT_IF_ABSENT; null for other operations
+     */
+    public CartItem getItem() {
+        return item;
+    }
+}
@@ -4,6 +4,11 @@ import com.shopster.cart.domain.Cart;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
+/**
+ * Spring Data access to carts in the original {@code @RedisHash} layout.
+ * Only used by CartStore to read and migrate carts written before the per-item
+ * hash layout.
+ */
 @Repository
 public interface CartRepository extends CrudRepository<Cart, String> {
 }
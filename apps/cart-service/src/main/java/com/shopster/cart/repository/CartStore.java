@@ -0,0 +1,367 @@
+package com.shopster.cart.repository;
+
+import com.shopster.cart.codec.CartItemCodec;
+import com.shopster.cart.codec.CartItemDetails;
+import com.shopster.cart.domain.Cart;
+import com.shopster.cart.domain.CartItem;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Repository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Redis cart storage with one hash per cart and one field per line item.
+ * Field {@code <productId>} holds the quantity as a Redis integer so it can be
+ * changed with HINCRBY; field {@code <productId>:info} holds the item details,
+ * encoded by the configured {@link CartItemCodec}.
+ * Every read and mutation is a single EVALSHA of cart_mutate.lua that applies
+ * the change and returns the resulting cart in the same round-trip. Script
+ * arguments and results go through the template's raw byte serializer.
+ *
+ * Every call refreshes the cart's idle TTL (cart.idle-ttl). An archived cart is
+ * restored from the {@link CartArchive} on its first read or write.
+ * Carts still stored in the old {@code @RedisHash} layout are migrated the first
+ * time they are read or written, while cart.legacy-read.enabled is on. A write then
+ * asks the script to report a missing hash instead of creating one; only in that
+ * case is the legacy entry looked up, so writes to existing carts stay a single
+ * round-trip.
+ */
+@Repository
+public class CartStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(CartStore.class);
+
+    private static final String KEY_PREFIX = "cart:";
+    private static final String INFO_SUFFIX = ":info";
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> MUTATE_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/cart_mutate.lua"), List.class);
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> IDLE_PEEK_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/cart_idle.lua"), List.class);
+
+    private static final RedisScript<Long> IDLE_EVICT_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/cart_idle.lua"), Long.class);
+
+    private static final byte[] NO_INFO = new byte[0];
+    private static final byte[] CREATE_MISSING = {'0'};
+    private static final byte[] REPORT_MISSING = {'1'};
+
+    private final RedisTemplate<String, byte[]> cartRedisTemplate;
+    private final CartRepository legacyRepository;
+    private final CartArchive cartArchive;
+    private final List<CartItemCodec> codecs;
+    private final CartItemCodec writeCodec;
+    private final long idleTtlMillis;
+    private final boolean legacyReadEnabled;
+    private final Counter restoredCounter;
+
+    @Autowired
+    public CartStore(RedisTemplate<String, byte[]> cartRedisTemplate,
+                     CartRepository legacyRepository,
+                     CartArchive cartArchive,
+                     List<CartItemCodec> codecs,
+                     MeterRegistry meterRegistry,
+                     @Value("${cart.codec.format:binary}") String format,
+                     @Value("${cart.idle-ttl:30d}") Duration idleTtl,
+                     @Value("${cart.legacy-read.enabled:true}") boolean legacyReadEnabled) {
+        this.cartRedisTemplate = cartRedisTemplate;
+        this.legacyRepository = legacyRepository;
+        this.cartArchive = cartArchive;
+        this.codecs = codecs;
+        this.writeCodec = codecs.stream()
+                .filter(codec -> codec.getFormat().equals(format))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Unknown cart codec format: " + format));
+        this.idleTtlMillis = idleTtl.toMillis();
+        this.legacyReadEnabled = legacyReadEnabled;
+        this.restoredCounter = Counter.builder("cart.archive.restored")
+                .description("Carts restored from the archive on first access")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Get a cart; an unknown user gets an empty cart
+     */
+    public Cart find(String userId) {
+        Cart cart = execute(userId, Collections.emptyList(), false).orElseThrow();
+        if (!cart.getItems().isEmpty()) {
+            return cart;
+        }
+        if (cartArchive.contains(userId)) {
+            return restoreArchived(userId, Collections.emptyList());
+        }
+        if (legacyReadEnabled) {
+            return migrateLegacy(userId, Collections.emptyList()).orElse(cart);
+        }
+        return cart;
+    }
+
+    /**
+     * Apply operations in order as one atomic script call and return the resulting cart
+     */
+    public Cart apply(String userId, List<CartOperation> operations) {
+        if (operations.isEmpty()) {
+            return find(userId);
+        }
+        // A write must not start a new hash over an archived cart or one still in the legacy layout
+        if (cartArchive.contains(userId)) {
+            return restoreArchived(userId, operations);
+        }
+        if (!legacyReadEnabled) {
+            return execute(userId, operations);
+        }
+        Optional<Cart> cart = execute(userId, operations, true);
+        if (cart.isPresent()) {
+            return cart.get();
+        }
+        return migrateLegacy(userId, operations).orElseGet(() -> execute(userId, operations));
+    }
+
+    public Cart addItem(String userId, CartItem item) {
+        return apply(userId, Collections.singletonList(CartOperation.add(item)));
+    }
+
+    public Cart setQuantity(String userId, String productId, int quantity) {
+        return apply(userId, Collections.singletonList(CartOperation.setQuantity(productId, quantity)));
+    }
+
+    public Cart removeItem(String userId, String productId) {
+        return apply(userId, Collections.singletonList(CartOperation.remove(productId)));
+    }
+
+    public void delete(String userId) {
+        cartRedisTemplate.delete(key(userId));
+        cartArchive.remove(userId);
+        if (legacyReadEnabled) {
+            legacyRepository.deleteById(userId);
+        }
+    }
+
+    /**
+     * Get the cart if it has been idle for at least {@code idleFor}; carts that
+     * predate idle TTLs get one as a side effect
+     */
+    @SuppressWarnings("unchecked")
+    public Optional<Cart> findIfIdle(String userId, Duration idleFor) {
+        List<Object> result = cartRedisTemplate.execute(IDLE_PEEK_SCRIPT,
+                Collections.singletonList(key(userId)), idleArgs("peek", idleFor));
+        if (result == null || result.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(toCart(userId, toFields(result)));
+    }
+
+    /**
+     * Delete the cart only if it is still idle for at least {@code idleFor}
+     */
+    public boolean evictIfIdle(String userId, Duration idleFor) {
+        Long deleted = cartRedisTemplate.execute(IDLE_EVICT_SCRIPT,
+                Collections.singletonList(key(userId)), idleArgs("evict", idleFor));
+        return deleted != null && deleted > 0;
+    }
+
+    /**
+     * Visit the user id of every cart in Redis, scanning {@code batchSize} keys per call
+     */
+    public void forEachUserId(int batchSize, Consumer<String> action) {
+        ScanOptions options = ScanOptions.scanOptions().match(KEY_PREFIX + "{*}").count(batchSize).build();
+        try (Cursor<String> keys = cartRedisTemplate.scan(options)) {
+            while (keys.hasNext()) {
+                String key = keys.next();
+                action.accept(key.substring(KEY_PREFIX.length() + 1, key.length() - 1));
+            }
+        }
+    }
+
+    public Duration getIdleTtl() {
+        return Duration.ofMillis(idleTtlMillis);
+    }
+
+    private Cart execute(String userId, List<CartOperation> operations) {
+        return execute(userId, operations, false).orElseThrow();
+    }
+
+    /**
+     * Run the operations; empty if {@code reportMissing} is set and the cart has no
+     * hash yet, in which case nothing was written
+     */
+    @SuppressWarnings("unchecked")
+    private Optional<Cart> execute(String userId, List<CartOperation> operations, boolean reportMissing) {
+        // Items added together keep their relative order
+        long addedAt = System.currentTimeMillis();
+        Object[] args = new Object[2 + operations.size() * 4];
+        int i = 0;
+        args[i++] = utf8(Long.toString(idleTtlMillis));
+        args[i++] = reportMissing ? REPORT_MISSING : CREATE_MISSING;
+        for (CartOperation operation : operations) {
+            args[i++] = utf8(opCode(operation.getType()));
+            args[i++] = utf8(operation.getProductId());
+            args[i++] = utf8(Integer.toString(operation.getQuantity()));
+            args[i++] = operation.getItem() != null ? encode(operation.getItem(), addedAt++) : NO_INFO;
+        }
+
+        List<Object> result = cartRedisTemplate.execute(MUTATE_SCRIPT,
+                Collections.singletonList(key(userId)), args);
+        if (result != null && result.size() % 2 == 1) {
+            return Optional.empty();
+        }
+        return Optional.of(toCart(userId, result != null ? toFields(result) : Collections.emptyMap()));
+    }
+
+    private Object[] idleArgs(String mode, Duration idleFor) {
+        long maxRemainingTtl = idleTtlMillis - idleFor.toMillis();
+        return new Object[] {
+                utf8(mode), utf8(Long.toString(maxRemainingTtl)), utf8(Long.toString(idleTtlMillis))
+        };
+    }
+
+    private Map<String, byte[]> toFields(List<Object> flat) {
+        Map<String, byte[]> fields = new HashMap<>(flat.size());
+        for (int j = 0; j + 1 < flat.size(); j += 2) {
+            fields.put(new String((byte[]) flat.get(j), StandardCharsets.UTF_8), (byte[]) flat.get(j + 1));
+        }
+        return fields;
+    }
+
+    /**
+     * Move an archived cart back into Redis, followed by {@code then} in the same
+     * script call. The archive record is dropped only after the write, so a failure
+     * leaves it restorable.
+     */
+    private Cart restoreArchived(String userId, List<CartOperation> then) {
+        Optional<Cart> archived = cartArchive.find(userId);
+        if (archived.isEmpty()) {
+            return then.isEmpty() ? new Cart(userId) : execute(userId, then);
+        }
+        List<CartOperation> operations = new ArrayList<>();
+        for (CartItem item : archived.get().getItems()) {
+            operations.add(CartOperation.putIfAbsent(item));
+        }
+        int restoredItems = operations.size();
+        operations.addAll(then);
+        Cart restored = operations.isEmpty() ? new Cart(userId) : execute(userId, operations);
+        cartArchive.remove(userId);
+        restoredCounter.increment();
+        logger.debug("Restored archived cart for user {} ({} items)", userId, restoredItems);
+        return restored;
+    }
+
+    /**
+     * Copy a cart from the old {@code @RedisHash} layout into the per-item hash,
+     * followed by {@code then} in the same script call, and drop the old entry.
+     * PUT_IF_ABSENT keeps concurrent migrations idempotent.
+     */
+    private Optional<Cart> migrateLegacy(String userId, List<CartOperation> then) {
+        Optional<Cart> legacy = legacyRepository.findById(userId);
+        if (legacy.isEmpty()) {
+            return Optional.empty();
+        }
+        List<CartOperation> operations = new ArrayList<>();
+        for (CartItem item : legacy.get().getItems()) {
+            if (item != null && item.getProductId() != null && item.getQuantity() > 0) {
+                operations.add(CartOperation.putIfAbsent(item));
+            }
+        }
+        int migratedItems = operations.size();
+        operations.addAll(then);
+        Cart migrated = operations.isEmpty() ? new Cart(userId) : execute(userId, operations);
+        legacyRepository.deleteById(userId);
+        logger.info("Migrated cart for user {} from legacy layout ({} items)", userId, migratedItems);
+        return Optional.of(migrated);
+    }
+
+    /**
+     * Rebuild the cart from hash fields, ordering items by when they were first added
+     */
+    private Cart toCart(String userId, Map<String, byte[]> fields) {
+        Map<CartItem, Long> addedAt = new LinkedHashMap<>();
+        for (Map.Entry<String, byte[]> field : fields.entrySet()) {
+            String name = field.getKey();
+            if (name.endsWith(INFO_SUFFIX)) {
+                continue;
+            }
+            byte[] info = fields.get(name + INFO_SUFFIX);
+            if (info == null) {
+                logger.warn("Cart {} has a quantity but no details for product {}", userId, name);
+                continue;
+            }
+            CartItemDetails details = decode(info);
+            CartItem item = new CartItem(
+                    name,
+                    details.getProductName(),
+                    Integer.parseInt(new String(field.getValue(), StandardCharsets.UTF_8)),
+                    details.getPrice(),
+                    details.getImageUrl(),
+                    details.getBrand(),
+                    details.isInStock());
+            addedAt.put(item, details.getAddedAt());
+        }
+
+        List<CartItem> items = new ArrayList<>(addedAt.keySet());
+        items.sort(Comparator.comparingLong((CartItem item) -> addedAt.get(item))
+                .thenComparing(CartItem::getProductId));
+
+        Cart cart = new Cart(userId);
+        cart.setItems(items);
+        return cart;
+    }
+
+    private byte[] encode(CartItem item, long addedAt) {
+        return writeCodec.encode(new CartItemDetails(item.getProductName(), item.getPrice(),
+                item.getImageUrl(), item.getBrand(), item.isInStock(), addedAt));
+    }
+
+    private CartItemDetails decode(byte[] info) {
+        for (CartItemCodec codec : codecs) {
+            if (codec.canDecode(info)) {
+                return codec.decode(info);
+            }
+        }
+        throw new IllegalStateException("No cart codec can read stored item details");
+    }
+
+    private static String opCode(CartOperation.Type type) {
+        switch (type) {
+            case ADD:
+                return "add";
+            case SET:
+                return "set";
+            case PUT_IF_ABSENT:
+                return "put";
+            default:
+                return "del";
+        }
+    }
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    static String key(String userId) {
+        // Braces make the user id the cluster hash tag
+        return KEY_PREFIX + "{" + userId + "}";
+    }
+}
@@ -0,0 +1,108 @@
+package com.shopster.cart.service;
+
+import com.shopster.cart.domain.Cart;
+import com.shopster.cart.repository.CartArchive;
+import com.shopster.cart.repository.CartStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Moves carts that have been idle longer than cart.archive.idle-threshold from
+ * Redis to the {@link CartArchive}. Carts are archived and synced to disk before
+ * they are deleted, and only deleted if still idle, so a cart touched mid-sweep
+ * stays in Redis and its archive copy is discarded.
+ */
+@Component
+public class CartArchiveSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(CartArchiveSweeper.class);
+
+    private final CartStore cartStore;
+    private final CartArchive cartArchive;
+    private final Duration idleThreshold;
+    private final int batchSize;
+    private final Counter archivedCounter;
+
+    @Autowired
+    public CartArchiveSweeper(CartStore cartStore,
+                              CartArchive cartArchive,
+                              MeterRegistry meterRegistry,
+                              @Value("${cart.archive.idle-threshold:7d}") Duration idleThreshold,
+                              @Value("${cart.archive.batch-size:500}") int batchSize) {
+        if (idleThreshold.compareTo(cartStore.getIdleTtl()) >= 0) {
+            throw new IllegalStateException("cart.archive.idle-threshold must be shorter than cart.idle-ttl");
+        }
+        this.cartStore = cartStore;
+        this.cartArchive = cartArchive;
+        this.idleThreshold = idleThreshold;
+        this.batchSize = batchSize;
+        this.archivedCounter = Counter.builder("cart.archive.archived")
+                .description("Idle carts moved from Redis to the archive")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${cart.archive.sweep-interval-ms:600000}",
+            fixedDelayString = "${cart.archive.sweep-interval-ms:600000}")
+    public void sweep() {
+        if (!cartArchive.isEnabled()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        List<String> batch = new ArrayList<>(batchSize);
+        int[] archived = {0};
+        try {
+            cartStore.forEachUserId(batchSize, userId -> {
+                batch.add(userId);
+                if (batch.size() >= batchSize) {
+                    archived[0] += archiveIdle(batch);
+                    batch.clear();
+                }
+            });
+            archived[0] += archiveIdle(batch);
+            cartArchive.compactIfNeeded();
+        } catch (RuntimeException e) {
+            logger.warn("Cart archive sweep failed after archiving {} carts: {}", archived[0], e.getMessage());
+            return;
+        }
+        if (archived[0] > 0) {
+            logger.info("Archived {} idle carts in {} ms", archived[0], System.currentTimeMillis() - start);
+        }
+    }
+
+    private int archiveIdle(List<String> userIds) {
+        List<Cart> idle = new ArrayList<>();
+        for (String userId : userIds) {
+            Optional<Cart> cart = cartStore.findIfIdle(userId, idleThreshold);
+            if (cart.isPresent() && !cart.get().getItems().isEmpty()) {
+                cartArchive.archive(cart.get());
+                idle.add(cart.get());
+            }
+        }
+        if (idle.isEmpty()) {
+            return 0;
+        }
+        cartArchive.sync();
+
+        int evicted = 0;
+        for (Cart cart : idle) {
+            if (cartStore.evictIfIdle(cart.getUserId(), idleThreshold)) {
+                evicted++;
+            } else {
+                cartArchive.remove(cart.getUserId());
+            }
+        }
+        archivedCounter.increment(evicted);
+        return evicted;
+    }
+}
@@ -3,92 +3,103 @@ package com.shopster.cart.service;
 import com.shopster.cart.domain.Cart;
 import com.shopster.cart.domain.CartItem;
 import com.shopster.cart.dto.AddItemRequest;
-import com.shopster.cart.repository.CartRepository;
+import com.shopster.cart.dto.CartItemOperationRequest;
+import com.shopster.cart.repository.CartOperation;
+import com.shopster.cart.repository.CartStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.List;
 
 @Service
 public class CartService {
 
-    private final CartRepository cartRepository;
+    private final CartStore cartStore;
 
     @Autowired
-    public CartService(CartRepository cartRepository) {
-        this.cartRepository = cartRepository;
+    public CartService(CartStore cartStore) {
+        this.cartStore = cartStore;
     }
 
     public Cart getCart(String userId) {
-        return cartRepository.findById(userId).orElse(new Cart(userId));
+        return cartStore.find(userId);
     }
 
     private static final Logger logger = LoggerFactory.getLogger(CartService.class);
 
     public Cart addItemToCart(String userId, AddItemRequest addItemRequest) {
-        Cart cart = getCart(userId);
-        Optional<CartItem> existingItem = cart.getItems().stream()
-                .filter(item -> item.getProductId().equals(addItemRequest.getProductId()))
-                .findFirst();
+        logger.debug("Adding to cart: productId: {}, productName: {}, quantity: {}, price: {}, imageUrl: {}, brand: {}, inStock: {}",
+                addItemRequest.getProductId(),
+                addItemRequest.getProductName(),
+                addItemRequest.getQuantity(),
+                addItemRequest.getPrice(),
+                addItemRequest.getImageUrl(),
+                addItemRequest.getBrand(),
+                addItemRequest.isInStock());
 
-        if (existingItem.isPresent()) {
-            logger.debug("Updating existing item quantity for product ID: {}", addItemRequest.getProductId());
-            existingItem.get().setQuantity(existingItem.get().getQuantity() + addItemRequest.getQuantity());
-        } else {
-            logger.debug("Creating new cart item with productId: {}, productName: {}, quantity: {}, price: {}, imageUrl: {}, brand: {}, inStock: {}",
-                    addItemRequest.getProductId(),
-                    addItemRequest.getProductName(),
-                    addItemRequest.getQuantity(),
-                    addItemRequest.getPrice(),
-                    addItemRequest.getImageUrl(),
-                    addItemRequest.getBrand(),
-                    addItemRequest.isInStock());
-            
-            CartItem newItem = new CartItem(
-                    addItemRequest.getProductId(),
-                    addItemRequest.getProductName(),
-                    addItemRequest.getQuantity(),
-                    BigDecimal.valueOf(addItemRequest.getPrice()),
-                    addItemRequest.getImageUrl(),
-                    addItemRequest.getBrand(),
-                    addItemRequest.isInStock()
-            );
-            
-            logger.debug("Created CartItem: productId={}, productName={}, quantity={}, price={}, imageUrl={}, brand={}, inStock={}",
-                    newItem.getProductId(),
-                    newItem.getProductName(),
-                    newItem.getQuantity(),
-                    newItem.getPrice(),
-                    newItem.getImageUrl(),
-                    newItem.getBrand(),
-                    newItem.isInStock());
-            
-            cart.getItems().add(newItem);
-        }
+        CartItem newItem = new CartItem(
+                addItemRequest.getProductId(),
+                addItemRequest.getProductName(),
+                addItemRequest.getQuantity(),
+                BigDecimal.valueOf(addItemRequest.getPrice()),
+                addItemRequest.getImageUrl(),
+                addItemRequest.getBrand(),
+                addItemRequest.isInStock()
+        );
 
-        return cartRepository.save(cart);
+        return cartStore.addItem(userId, newItem);
     }
 
     public Cart updateItemInCart(String userId, String productId, int quantity) {
-        Cart cart = getCart(userId);
-        cart.getItems().stream()
-                .filter(item -> item.getProductId().equals(productId))
-                .findFirst()
-                .ifPresent(item -> item.setQuantity(quantity));
-
-        return cartRepository.save(cart);
+        return cartStore.setQuantity(userId, productId, quantity);
     }
 
     public Cart removeItemFromCart(String userId, String productId) {
-        Cart cart = getCart(userId);
-        cart.getItems().removeIf(item -> item.getProductId().equals(productId));
-        return cartRepository.save(cart);
+        return cartStore.removeItem(userId, productId);
+    }
+
+    /**
+     * Apply a list of add/update/remove operations in order, atomically, in one Redis call
+     */
+    public Cart applyBatch(String userId, List<CartItemOperationRequest> requests) {
+        List<CartOperation> operations = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            operations.add(toOperation(i, requests.get(i)));
+        }
+        logger.debug("Applying {} cart operations for user {}", operations.size(), userId);
+        return cartStore.apply(userId, operations);
+    }
+
+    private CartOperation toOperation(int index, CartItemOperationRequest request) {
+        switch (request.getOp()) {
+            case ADD:
+                if (request.getQuantity() < 1 || request.getProductName() == null || request.getPrice() == null) {
+                    throw new IllegalArgumentException("Operation " + index
+                            + ": ADD requires productName, price and a quantity of at least 1");
+                }
+                return CartOperation.add(new CartItem(
+                        request.getProductId(),
+                        request.getProductName(),
+                        request.getQuantity(),
+                        BigDecimal.valueOf(request.getPrice()),
+                        request.getImageUrl() != null ? request.getImageUrl() : "",
+                        request.getBrand() != null ? request.getBrand() : "",
+                        request.isInStock()));
+            case UPDATE:
+                if (request.getQuantity() < 1) {
+                    throw new IllegalArgumentException("Operation " + index + ": UPDATE requires a quantity of at least 1");
+                }
+                return CartOperation.setQuantity(request.getProductId(), request.getQuantity());
+            default:
+                return CartOperation.remove(request.getProductId());
+        }
     }
 
     public void clearCart(String userId) {
-        cartRepository.deleteById(userId);
+        cartStore.delete(userId);
     }
 }
@@ -0,0 +1,16 @@
+-- Return the id for a brand name, assigning the next id if it is new.
+--
+-- KEYS[1]  hash name -> id
+-- KEYS[2]  hash id -> name
+-- KEYS[3]  id sequence
+-- ARGV[1]  brand name
+
+local id = redis.call('HGET', KEYS[1], ARGV[1])
+if id then
+    return tonumber(id)
+end
+
+id = redis.call('INCR', KEYS[3])
+redis.call('HSET', KEYS[1], ARGV[1], id)
+redis.call('HSET', KEYS[2], id, ARGV[1])
+return id
@@ -0,0 +1,34 @@
+-- Idle-cart handling for the archive sweeper.
+--
+-- Carts have their TTL reset to the idle TTL on every access, so a remaining
+-- TTL at or below ARGV[2] means the cart has been idle past the archive threshold.
+--
+-- KEYS[1]  cart hash
+-- ARGV[1]  mode: 'peek' returns the hash if idle; 'evict' deletes it if still idle
+-- ARGV[2]  maximum remaining TTL in milliseconds for a cart to count as idle
+-- ARGV[3]  idle TTL in milliseconds, applied to carts that have no expiry yet
+--
+-- peek returns the flat field/value list (empty if not idle); evict returns 1 if deleted.
+
+local key = KEYS[1]
+local pttl = redis.call('PTTL', key)
+
+if pttl == -1 then
+    -- Written before idle TTLs existed: start the clock now
+    redis.call('PEXPIRE', key, ARGV[3])
+    pttl = tonumber(ARGV[3])
+end
+
+local idle = pttl >= 0 and pttl <= tonumber(ARGV[2])
+
+if ARGV[1] == 'evict' then
+    if idle then
+        return redis.call('DEL', key)
+    end
+    return 0
+end
+
+if idle then
+    return redis.call('HGETALL', key)
+end
+return {}
@@ -0,0 +1,58 @@
+-- Apply cart line-item operations atomically and return the resulting cart.
+--
+-- KEYS[1]  cart hash: field <productId> holds the quantity,
+--          field <productId>:info holds the encoded item details
+-- ARGV[1]  idle TTL in milliseconds, refreshed on every call (0 = no expiry)
+-- ARGV[2]  '1' to leave a missing hash alone and return {'missing'} instead of
+--          creating it, so the caller can first migrate a legacy cart
+-- ARGV[3..] groups of four: op, productId, quantity, item details
+--   add  increment quantity (HINCRBY), storing details if the item is new
+--   set  set quantity if the item is already in the cart
+--   del  remove the item
+--   put  insert the item only if absent (restores and migrations; idempotent)
+--
+-- With no operations the script is a read that also refreshes the TTL.
+-- Returns the full hash as a flat field/value list (HGETALL), which always has
+-- an even length; the single-element {'missing'} reply cannot be mistaken for it.
+
+local key = KEYS[1]
+local ttl = tonumber(ARGV[1])
+
+-- Validate everything first so a bad operation leaves the cart untouched
+for i = 3, #ARGV, 4 do
+    local op = ARGV[i]
+    if op ~= 'add' and op ~= 'set' and op ~= 'del' and op ~= 'put' then
+        return redis.error_reply('unknown cart operation: ' .. tostring(op))
+    end
+end
+
+if ARGV[2] == '1' and #ARGV > 2 and redis.call('EXISTS', key) == 0 then
+    return {'missing'}
+end
+
+for i = 3, #ARGV, 4 do
+    local op = ARGV[i]
+    local productId = ARGV[i + 1]
+    local infoField = productId .. ':info'
+
+    if op == 'add' then
+        redis.call('HINCRBY', key, productId, ARGV[i + 2])
+        redis.call('HSETNX', key, infoField, ARGV[i + 3])
+    elseif op == 'set' then
+        if redis.call('HEXISTS', key, productId) == 1 then
+            redis.call('HSET', key, productId, ARGV[i + 2])
+        end
+    elseif op == 'put' then
+        if redis.call('HSETNX', key, productId, ARGV[i + 2]) == 1 then
+            redis.call('HSET', key, infoField, ARGV[i + 3])
+        end
+    else
+        redis.call('HDEL', key, productId, infoField)
+    end
+end
+
+if ttl > 0 then
+    redis.call('PEXPIRE', key, ttl)
+end
+
+return redis.call('HGETALL', key)
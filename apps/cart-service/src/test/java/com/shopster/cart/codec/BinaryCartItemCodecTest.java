@@ -0,0 +1,83 @@
+package com.shopster.cart.codec;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BinaryCartItemCodecTest {
+
+    @Mock
+    private BrandDictionary brandDictionary;
+
+    @InjectMocks
+    private BinaryCartItemCodec codec;
+
+    @Test
+    void roundTrip_withInternedBrand() {
+        when(brandDictionary.idIfKnown("Acme")).thenReturn(7L);
+        when(brandDictionary.nameOf(7L)).thenReturn("Acme");
+        long addedAt = 1_760_000_000_123L;
+
+        CartItemDetails decoded = codec.decode(codec.encode(new CartItemDetails("Trail Shoe",
+                new BigDecimal("89.99"), "https://images.shopster.dev/p1.jpg", "Acme", true, addedAt)));
+
+        assertEquals("Trail Shoe", decoded.getProductName());
+        assertEquals(new BigDecimal("89.99"), decoded.getPrice());
+        assertEquals("https://images.shopster.dev/p1.jpg", decoded.getImageUrl());
+        assertEquals("Acme", decoded.getBrand());
+        assertTrue(decoded.isInStock());
+        assertEquals(addedAt, decoded.getAddedAt());
+    }
+
+    @Test
+    void roundTrip_brandWithoutCachedIdIsStoredByName() {
+        when(brandDictionary.idIfKnown("Newco")).thenReturn(-1L);
+
+        CartItemDetails decoded = codec.decode(codec.encode(new CartItemDetails("Mug",
+                new BigDecimal("12.50"), null, "Newco", false, 1L)));
+
+        assertEquals("Newco", decoded.getBrand());
+        assertEquals("", decoded.getImageUrl());
+        assertFalse(decoded.isInStock());
+        verify(brandDictionary, never()).nameOf(anyLong());
+    }
+
+    @Test
+    void roundTrip_negativePriceAndNoBrand() {
+        when(brandDictionary.idIfKnown(null)).thenReturn(0L);
+        when(brandDictionary.nameOf(0L)).thenReturn("");
+
+        CartItemDetails decoded = codec.decode(codec.encode(new CartItemDetails("Store credit",
+                new BigDecimal("-5.5"), "", null, true, 0L)));
+
+        assertEquals(new BigDecimal("-5.50"), decoded.getPrice());
+        assertEquals("", decoded.getBrand());
+    }
+
+    @Test
+    void canDecode_tellsBinaryFromJson() {
+        when(brandDictionary.idIfKnown("Acme")).thenReturn(1L);
+        byte[] binary = codec.encode(new CartItemDetails("Mug", BigDecimal.ONE, "", "Acme", true, 1L));
+
+        assertTrue(codec.canDecode(binary));
+        assertFalse(codec.canDecode("{\"productName\":\"Mug\"}".getBytes(StandardCharsets.UTF_8)));
+        assertFalse(codec.canDecode(new byte[0]));
+    }
+
+    @Test
+    void decode_rejectsUnknownVersion() {
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(new byte[] {0x02, 0x00}));
+    }
+}
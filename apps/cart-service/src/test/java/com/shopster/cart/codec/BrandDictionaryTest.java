@@ -0,0 +1,74 @@
+package com.shopster.cart.codec;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BrandDictionaryTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    private BrandDictionary dictionary;
+
+    @BeforeEach
+    void setUp() {
+        dictionary = new BrandDictionary(redisTemplate);
+    }
+
+    @Test
+    void nameOf_resolvesUnknownIdToEmptyBrand() {
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.get("cart:{brands}:names", "42")).thenReturn(null);
+
+        assertEquals("", dictionary.nameOf(42));
+        assertEquals("", dictionary.nameOf(0));
+    }
+
+    @Test
+    void nameOf_cachesResolvedNames() {
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.get("cart:{brands}:names", "3")).thenReturn("Acme");
+
+        assertEquals("Acme", dictionary.nameOf(3));
+        assertEquals("Acme", dictionary.nameOf(3));
+        assertEquals(3, dictionary.idIfKnown("Acme"));
+        verify(hashOperations, times(1)).get("cart:{brands}:names", "3");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void idIfKnown_usesIdOnceInterned() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), eq("Acme"))).thenReturn(5L);
+
+        assertEquals(5, dictionary.idOf("Acme"));
+        assertEquals(5, dictionary.idIfKnown("Acme"));
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class), anyList(), eq("Acme"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void idIfKnown_neverCallsRedisForEmptyBrand() {
+        assertEquals(0, dictionary.idIfKnown(null));
+        assertEquals(0, dictionary.idIfKnown(""));
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), any());
+    }
+}
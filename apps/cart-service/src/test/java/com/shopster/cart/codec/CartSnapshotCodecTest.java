@@ -0,0 +1,74 @@
+package com.shopster.cart.codec;
+
+import com.shopster.cart.domain.Cart;
+import com.shopster.cart.domain.CartItem;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CartSnapshotCodecTest {
+
+    private final CartSnapshotCodec codec = new CartSnapshotCodec();
+
+    @Test
+    void roundTrip_keepsEveryItemInOrder() {
+        Cart cart = new Cart("user-1");
+        cart.setItems(List.of(
+                new CartItem("p1", "Trail Shoe", 2, new BigDecimal("89.99"), "https://img/p1.jpg", "Acme", true),
+                new CartItem("p2", "Sock", 100_000, new BigDecimal("4.5"), "", "Acme", false),
+                new CartItem("p3", "Store credit", 1, new BigDecimal("-10.00"), null, null, true)));
+
+        Cart decoded = codec.decode("user-1", codec.encode(cart));
+
+        assertEquals("user-1", decoded.getUserId());
+        assertEquals(3, decoded.getItems().size());
+        CartItem shoe = decoded.getItems().get(0);
+        assertEquals("p1", shoe.getProductId());
+        assertEquals("Trail Shoe", shoe.getProductName());
+        assertEquals(2, shoe.getQuantity());
+        assertEquals(new BigDecimal("89.99"), shoe.getPrice());
+        assertEquals("https://img/p1.jpg", shoe.getImageUrl());
+        assertEquals("Acme", shoe.getBrand());
+        assertTrue(shoe.isInStock());
+
+        CartItem sock = decoded.getItems().get(1);
+        assertEquals(100_000, sock.getQuantity());
+        assertEquals(new BigDecimal("4.50"), sock.getPrice());
+        assertEquals("Acme", sock.getBrand());
+        assertFalse(sock.isInStock());
+
+        CartItem credit = decoded.getItems().get(2);
+        assertEquals(new BigDecimal("-10.00"), credit.getPrice());
+        assertEquals("", credit.getBrand());
+        assertEquals("", credit.getImageUrl());
+    }
+
+    @Test
+    void roundTrip_emptyCart() {
+        Cart decoded = codec.decode("user-1", codec.encode(new Cart("user-1")));
+
+        assertTrue(decoded.getItems().isEmpty());
+    }
+
+    @Test
+    void encode_storesEachBrandOnce() {
+        Cart one = new Cart("user-1");
+        one.setItems(List.of(new CartItem("p1", "A", 1, BigDecimal.ONE, "", "A very long brand name", true)));
+        Cart two = new Cart("user-1");
+        two.setItems(List.of(
+                new CartItem("p1", "A", 1, BigDecimal.ONE, "", "A very long brand name", true),
+                new CartItem("p2", "A", 1, BigDecimal.ONE, "", "A very long brand name", true)));
+
+        int perItem = codec.encode(two).length - codec.encode(one).length;
+
+        assertTrue(perItem < "A very long brand name".length(), "brand repeated per item");
+    }
+
+    @Test
+    void decode_rejectsUnknownVersion() {
+        assertThrows(IllegalArgumentException.class, () -> codec.decode("user-1", new byte[] {0x07}));
+    }
+}
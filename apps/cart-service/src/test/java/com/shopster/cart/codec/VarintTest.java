@@ -0,0 +1,71 @@
+package com.shopster.cart.codec;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VarintTest {
+
+    @Test
+    void unsigned_roundTripsAcrossByteBoundaries() {
+        long[] values = {0, 1, 127, 128, 16383, 16384, Integer.MAX_VALUE, Long.MAX_VALUE, -1L};
+        for (long value : values) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            Varint.writeUnsigned(out, value);
+            assertEquals(value, Varint.readUnsigned(ByteBuffer.wrap(out.toByteArray())), "value " + value);
+        }
+    }
+
+    @Test
+    void unsigned_usesOneByteBelow128AndTenForNegative() {
+        ByteArrayOutputStream small = new ByteArrayOutputStream();
+        Varint.writeUnsigned(small, 127);
+        assertEquals(1, small.size());
+
+        ByteArrayOutputStream negative = new ByteArrayOutputStream();
+        Varint.writeUnsigned(negative, -1L);
+        assertEquals(10, negative.size());
+    }
+
+    @Test
+    void signed_roundTripsNegativeAndExtremeValues() {
+        long[] values = {0, 1, -1, 63, -64, 64, -65, -2499, Long.MAX_VALUE, Long.MIN_VALUE};
+        for (long value : values) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            Varint.writeSigned(out, value);
+            assertEquals(value, Varint.readSigned(ByteBuffer.wrap(out.toByteArray())), "value " + value);
+        }
+    }
+
+    @Test
+    void signed_keepsSmallNegativeValuesShort() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Varint.writeSigned(out, -64);
+        assertEquals(1, out.size());
+    }
+
+    @Test
+    void string_roundTripsUtf8AndReadsNullAsEmpty() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Varint.writeString(out, "Crème brûlée 🍮");
+        Varint.writeString(out, null);
+        Varint.writeString(out, "after");
+
+        ByteBuffer in = ByteBuffer.wrap(out.toByteArray());
+        assertEquals("Crème brûlée 🍮", Varint.readString(in));
+        assertEquals("", Varint.readString(in));
+        assertEquals("after", Varint.readString(in));
+        assertFalse(in.hasRemaining());
+    }
+
+    @Test
+    void readUnsigned_rejectsOverlongEncoding() {
+        byte[] overlong = new byte[11];
+        Arrays.fill(overlong, (byte) 0x80);
+        assertThrows(IllegalArgumentException.class, () -> Varint.readUnsigned(ByteBuffer.wrap(overlong)));
+    }
+}
@@ -0,0 +1,171 @@
+package com.shopster.cart.repository;
+
+import com.shopster.cart.codec.CartSnapshotCodec;
+import com.shopster.cart.domain.Cart;
+import com.shopster.cart.domain.CartItem;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CartArchiveTest {
+
+    @TempDir
+    Path directory;
+
+    private Path path;
+    private CartArchive archive;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        path = directory.resolve("cart-archive.log");
+        archive = open();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        archive.close();
+    }
+
+    private CartArchive open() throws IOException {
+        CartArchive opened = new CartArchive(new CartSnapshotCodec(), new SimpleMeterRegistry(), true, path.toString());
+        opened.open();
+        return opened;
+    }
+
+    private CartArchive reopen() throws IOException {
+        archive.close();
+        archive = open();
+        return archive;
+    }
+
+    private static Cart cart(String userId, String productId, int quantity) {
+        Cart cart = new Cart(userId);
+        cart.setItems(List.of(new CartItem(productId, "Mug", quantity, new BigDecimal("9.99"), "", "Acme", true)));
+        return cart;
+    }
+
+    @Test
+    void archive_findReturnsLatestSnapshot() {
+        archive.archive(cart("u1", "p1", 1));
+        archive.archive(cart("u1", "p1", 5));
+
+        assertTrue(archive.contains("u1"));
+        assertEquals(5, archive.find("u1").orElseThrow().getItems().get(0).getQuantity());
+        assertEquals(1, archive.size());
+    }
+
+    @Test
+    void remove_forgetsCart() {
+        archive.archive(cart("u1", "p1", 1));
+
+        archive.remove("u1");
+
+        assertFalse(archive.contains("u1"));
+        assertTrue(archive.find("u1").isEmpty());
+    }
+
+    @Test
+    void open_rebuildsIndexFromFile() throws IOException {
+        archive.archive(cart("u1", "p1", 1));
+        archive.archive(cart("u2", "p2", 2));
+        archive.archive(cart("u2", "p2", 3));
+        archive.remove("u1");
+        archive.sync();
+
+        reopen();
+
+        assertFalse(archive.contains("u1"));
+        assertEquals(3, archive.find("u2").orElseThrow().getItems().get(0).getQuantity());
+        assertEquals(1, archive.size());
+    }
+
+    @Test
+    void open_truncatesTornRecordAtTail() throws IOException {
+        archive.archive(cart("u1", "p1", 1));
+        archive.sync();
+        long validLength = Files.size(path);
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(validLength);
+            file.writeInt(500);
+            file.write(new byte[] {1, 2, 3});
+        }
+
+        reopen();
+
+        assertEquals(validLength, Files.size(path));
+        assertEquals(1, archive.find("u1").orElseThrow().getItems().get(0).getQuantity());
+        archive.archive(cart("u2", "p2", 2));
+        assertEquals(2, reopen().find("u2").orElseThrow().getItems().get(0).getQuantity());
+    }
+
+    @Test
+    void open_dropsTailRecordWithBadChecksum() throws IOException {
+        archive.archive(cart("u1", "p1", 1));
+        archive.sync();
+        long firstRecordEnd = Files.size(path);
+        archive.archive(cart("u2", "p2", 2));
+        archive.sync();
+        flipByte(firstRecordEnd + 6);
+
+        reopen();
+
+        assertTrue(archive.contains("u1"));
+        assertFalse(archive.contains("u2"));
+        assertEquals(firstRecordEnd, Files.size(path));
+    }
+
+    @Test
+    void find_failsOnRecordCorruptedAfterOpen() throws IOException {
+        archive.archive(cart("u1", "p1", 1));
+        archive.sync();
+        flipByte(6);
+
+        assertThrows(UncheckedIOException.class, () -> archive.find("u1"));
+    }
+
+    @Test
+    void compactIfNeeded_keepsOnlyLiveRecords() throws IOException {
+        for (int i = 1; i <= 1001; i++) {
+            archive.archive(cart("u1", "p1", i));
+        }
+        archive.archive(cart("u2", "p2", 2));
+        long before = Files.size(path);
+
+        archive.compactIfNeeded();
+
+        assertTrue(Files.size(path) < before);
+        assertEquals(1001, archive.find("u1").orElseThrow().getItems().get(0).getQuantity());
+        assertEquals(1001, reopen().find("u1").orElseThrow().getItems().get(0).getQuantity());
+        assertEquals(2, archive.find("u2").orElseThrow().getItems().get(0).getQuantity());
+    }
+
+    @Test
+    void archive_failsWhenDisabled() {
+        CartArchive disabled = new CartArchive(new CartSnapshotCodec(), new SimpleMeterRegistry(), false,
+                directory.resolve("unused.log").toString());
+
+        assertFalse(disabled.contains("u1"));
+        assertThrows(IllegalStateException.class, () -> disabled.archive(cart("u1", "p1", 1)));
+    }
+
+    private void flipByte(long position) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(position);
+            int value = file.read();
+            file.seek(position);
+            file.write(value ^ 0xFF);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.shopster.cart.repository;
+
+import com.shopster.cart.domain.Cart;
+import com.shopster.cart.domain.CartItem;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs CartStore and cart_mutate.lua against a real Redis
+ */
+@SpringBootTest(properties = "cart.archive.path=target/cart-store-test/cart-archive.log")
+@Testcontainers
+public class CartStoreTest {
+
+    @Container
+    private static final GenericContainer<?> redis =
+            new GenericContainer<>(DockerImageName.parse("redis:7-alpine")).withExposedPorts(6379);
+
+    @DynamicPropertySource
+    static void redisProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.redis.host", redis::getHost);
+        registry.add("spring.data.redis.port", () -> redis.getMappedPort(6379));
+    }
+
+    @Autowired
+    private CartStore cartStore;
+
+    @Autowired
+    private CartRepository legacyRepository;
+
+    @Autowired
+    private CartArchive cartArchive;
+
+    @Autowired
+    private RedisTemplate<String, byte[]> cartRedisTemplate;
+
+    private String userId;
+
+    @BeforeEach
+    void setUp() {
+        userId = "user-" + UUID.randomUUID();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cartStore.delete(userId);
+    }
+
+    private static CartItem item(String productId, String name, int quantity) {
+        return new CartItem(productId, name, quantity, new BigDecimal("19.99"),
+                "https://images.shopster.dev/" + productId + ".jpg", "Acme", true);
+    }
+
+    private static CartItem line(Cart cart, String productId) {
+        return cart.getItems().stream()
+                .filter(item -> item.getProductId().equals(productId))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No line for " + productId));
+    }
+
+    @Test
+    void addItem_incrementsQuantityAndKeepsFirstDetails() {
+        cartStore.addItem(userId, item("p1", "Original name", 1));
+        Cart cart = cartStore.addItem(userId, item("p1", "Renamed", 2));
+
+        assertEquals(1, cart.getItems().size());
+        assertEquals(3, line(cart, "p1").getQuantity());
+        assertEquals("Original name", line(cart, "p1").getProductName());
+        assertEquals(new BigDecimal("19.99"), line(cart, "p1").getPrice());
+        assertEquals("Acme", line(cart, "p1").getBrand());
+    }
+
+    @Test
+    void setQuantity_onlyChangesItemsAlreadyInCart() {
+        cartStore.addItem(userId, item("p1", "Mug", 1));
+
+        cartStore.setQuantity(userId, "p1", 4);
+        Cart cart = cartStore.setQuantity(userId, "p2", 9);
+
+        assertEquals(1, cart.getItems().size());
+        assertEquals(4, line(cart, "p1").getQuantity());
+    }
+
+    @Test
+    void removeItem_dropsQuantityAndDetails() {
+        cartStore.addItem(userId, item("p1", "Mug", 1));
+
+        Cart cart = cartStore.removeItem(userId, "p1");
+
+        assertTrue(cart.getItems().isEmpty());
+        assertFalse(Boolean.TRUE.equals(cartRedisTemplate.hasKey(CartStore.key(userId))));
+    }
+
+    @Test
+    void apply_putIfAbsentLeavesExistingItemAlone() {
+        cartStore.addItem(userId, item("p1", "Mug", 2));
+
+        Cart cart = cartStore.apply(userId, List.of(
+                CartOperation.putIfAbsent(item("p1", "Other mug", 7)),
+                CartOperation.putIfAbsent(item("p2", "Plate", 3))));
+
+        assertEquals(2, line(cart, "p1").getQuantity());
+        assertEquals("Mug", line(cart, "p1").getProductName());
+        assertEquals(3, line(cart, "p2").getQuantity());
+    }
+
+    @Test
+    void apply_keepsItemsInTheOrderTheyWereAdded() {
+        cartStore.apply(userId, List.of(
+                CartOperation.add(item("p3", "Cup", 1)),
+                CartOperation.add(item("p1", "Mug", 1))));
+        Cart cart = cartStore.addItem(userId, item("p2", "Plate", 1));
+
+        assertEquals(List.of("p3", "p1", "p2"), cart.getItems().stream().map(CartItem::getProductId).toList());
+    }
+
+    @Test
+    void apply_refreshesIdleTtl() {
+        cartStore.addItem(userId, item("p1", "Mug", 1));
+
+        Long ttl = cartRedisTemplate.getExpire(CartStore.key(userId));
+
+        assertNotNull(ttl);
+        assertTrue(ttl > 0, "cart key has no expiry");
+    }
+
+    @Test
+    void addItem_migratesLegacyCartInTheSameWrite() {
+        Cart legacy = new Cart(userId);
+        legacy.setItems(List.of(item("p1", "Mug", 2), item("p2", "Plate", 1)));
+        legacyRepository.save(legacy);
+
+        Cart cart = cartStore.addItem(userId, item("p1", "Mug", 1));
+
+        assertEquals(2, cart.getItems().size());
+        assertEquals(3, line(cart, "p1").getQuantity());
+        assertEquals(1, line(cart, "p2").getQuantity());
+        assertTrue(legacyRepository.findById(userId).isEmpty());
+    }
+
+    @Test
+    void find_migratesLegacyCart() {
+        Cart legacy = new Cart(userId);
+        legacy.setItems(List.of(item("p1", "Mug", 2)));
+        legacyRepository.save(legacy);
+
+        Cart cart = cartStore.find(userId);
+
+        assertEquals(2, line(cart, "p1").getQuantity());
+        assertTrue(legacyRepository.findById(userId).isEmpty());
+        assertEquals(2, line(cartStore.find(userId), "p1").getQuantity());
+    }
+
+    @Test
+    void addItem_createsCartWhenThereIsNothingToMigrate() {
+        Cart cart = cartStore.addItem(userId, item("p1", "Mug", 1));
+
+        assertEquals(1, line(cart, "p1").getQuantity());
+        assertEquals(1, line(cartStore.find(userId), "p1").getQuantity());
+    }
+
+    @Test
+    void addItem_restoresArchivedCartInTheSameWrite() {
+        Cart archived = new Cart(userId);
+        archived.setItems(List.of(item("p1", "Mug", 2), item("p2", "Plate", 1)));
+        cartArchive.archive(archived);
+
+        Cart cart = cartStore.addItem(userId, item("p1", "Mug", 1));
+
+        assertEquals(2, cart.getItems().size());
+        assertEquals(3, line(cart, "p1").getQuantity());
+        assertEquals(1, line(cart, "p2").getQuantity());
+        assertFalse(cartArchive.contains(userId));
+    }
+
+    @Test
+    void removeItem_onArchivedCartKeepsTheOtherItems() {
+        Cart archived = new Cart(userId);
+        archived.setItems(List.of(item("p1", "Mug", 2), item("p2", "Plate", 1)));
+        cartArchive.archive(archived);
+
+        Cart cart = cartStore.removeItem(userId, "p1");
+
+        assertEquals(List.of("p2"), cart.getItems().stream().map(CartItem::getProductId).toList());
+        assertFalse(cartArchive.contains(userId));
+    }
+
+    @Test
+    void find_restoresArchivedCart() {
+        Cart archived = new Cart(userId);
+        archived.setItems(List.of(item("p1", "Mug", 2)));
+        cartArchive.archive(archived);
+
+        Cart cart = cartStore.find(userId);
+
+        assertEquals(2, line(cart, "p1").getQuantity());
+        assertFalse(cartArchive.contains(userId));
+        assertEquals(2, line(cartStore.find(userId), "p1").getQuantity());
+    }
+}
@@ -2,6 +2,7 @@ package com.shopster.membership.config;
 
 import com.shopster.membership.entity.MembershipPlan;
 import com.shopster.membership.repository.MembershipPlanRepository;
+import com.shopster.membership.service.PlanCatalog;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Profile;
@@ -20,6 +21,9 @@ public class DataSeeder implements CommandLineRunner {
     @Autowired
     private MembershipPlanRepository planRepository;
 
+    @Autowired
+    private PlanCatalog planCatalog;
+
     @Override
     public void run(String... args) throws Exception {
         if (planRepository.count() == 0) {
@@ -88,6 +92,7 @@ public class DataSeeder implements CommandLineRunner {
         planRepository.save(trialPlan);
         planRepository.save(monthlyPlan);
         planRepository.save(annualPlan);
+        planCatalog.refresh();
 
         System.out.println("Successfully seeded Shopster+ membership plans:");
         System.out.println("- Free Trial: $0.00/week (7 days)");
@@ -1,38 +1,78 @@
 package com.shopster.membership.config;
 
+import com.zaxxer.hikari.HikariDataSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import javax.sql.DataSource;
 import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
 
+/**
+ * Holds startup until the database accepts connections, so Flyway and JPA don't
+ * fail when the service starts before Postgres (e.g. under docker-compose).
+ *
+ * Each attempt borrows a connection from the Hikari pool and returns it, so a
+ * successful attempt leaves the pool started. Failed attempts back off
+ * exponentially with full jitter: the wait is random between zero and
+ * min(max-backoff, initial-backoff * 2^attempt). Replicas restarting together
+ * therefore don't retry in lockstep.
+ */
 @Component
-public class DatabaseConnectionProvider {
+public class DatabaseConnectionProvider implements BeanPostProcessor {
 
     private static final Logger logger = LoggerFactory.getLogger(DatabaseConnectionProvider.class);
 
-    @Value("${spring.datasource.url}")
-    private String dbUrl;
+    @Value("${membership.datasource.startup.max-attempts:10}")
+    private int maxAttempts;
 
-    @Value("${spring.datasource.username}")
-    private String dbUsername;
+    @Value("${membership.datasource.startup.initial-backoff-ms:500}")
+    private long initialBackoffMillis;
 
-    @Value("${spring.datasource.password}")
-    private String dbPassword;
+    @Value("${membership.datasource.startup.max-backoff-ms:30000}")
+    private long maxBackoffMillis;
 
-    public Connection getConnectionWithRetry(int maxRetries, long retryDelayMillis) throws SQLException, InterruptedException {
-        for (int i = 0; i < maxRetries; i++) {
-            try {
-                logger.info("Attempting to connect to database (attempt {}/{})", i + 1, maxRetries);
-                return DriverManager.getConnection(dbUrl, dbUsername, dbPassword);
-            } catch (SQLException e) {
-                logger.warn("Failed to connect to database: {}. Retrying in {} ms...", e.getMessage(), retryDelayMillis);
-                Thread.sleep(retryDelayMillis);
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource dataSource) {
+            awaitConnection(dataSource);
+        }
+        return bean;
+    }
+
+    /**
+     * Borrow and return a pooled connection, retrying with backoff until one is available
+     */
+    public void awaitConnection(DataSource dataSource) {
+        for (int attempt = 1; ; attempt++) {
+            try (Connection connection = dataSource.getConnection()) {
+                if (attempt > 1) {
+                    logger.info("Connected to database after {} attempts", attempt);
+                }
+                return;
+            } catch (Exception e) {
+                if (attempt >= maxAttempts) {
+                    throw new IllegalStateException(
+                            "Failed to connect to database after " + attempt + " attempts", e);
+                }
+                long delay = backoff(attempt);
+                logger.warn("Failed to connect to database (attempt {}/{}): {}. Retrying in {} ms...",
+                        attempt, maxAttempts, e.getMessage(), delay);
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for database", interrupted);
+                }
             }
         }
-        throw new SQLException("Failed to connect to database after " + maxRetries + " retries.");
+    }
+
+    private long backoff(int attempt) {
+        long cap = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(cap + 1);
     }
 }
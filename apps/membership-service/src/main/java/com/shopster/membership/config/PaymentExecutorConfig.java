@@ -0,0 +1,21 @@
+package com.shopster.membership.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Executor for calls to the payment provider. Payment calls spend nearly all
+ * their time waiting on the provider, so each one gets its own virtual thread
+ * instead of holding a request thread or a pooled platform thread.
+ */
+@Configuration
+public class PaymentExecutorConfig {
+
+    @Bean(name = "paymentExecutor", destroyMethod = "close")
+    public ExecutorService paymentExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+}
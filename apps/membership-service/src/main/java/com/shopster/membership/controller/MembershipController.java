@@ -2,25 +2,38 @@ package com.shopster.membership.controller;
 
 import com.shopster.membership.dto.CreateSubscriptionRequest;
 import com.shopster.membership.dto.MembershipPlanDto;
+import com.shopster.membership.dto.MembershipStatusBatchRequest;
 import com.shopster.membership.entity.MembershipSubscription;
 import com.shopster.membership.service.MembershipService;
+import com.shopster.membership.service.PlanCatalog;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import jakarta.validation.Valid;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
- * REST controller for Shopster+ membership operations
+ * REST controller for Shopster+ membership operations.
+ * Writes act for the caller identified by the X-User-Id header the API gateway
+ * sets from the verified token; callers with the ADMIN role may act for anyone.
  */
 @RestController
 @RequestMapping("/api/membership")
 @CrossOrigin(origins = "http://localhost:3000")
 public class MembershipController {
 
+    private static final String USER_ID_HEADER = "X-User-Id";
+    private static final String USER_ROLES_HEADER = "X-User-Roles";
+
+    private static final String ADMIN_ROLE = "ADMIN";
+
     @Autowired
     private MembershipService membershipService;
 
@@ -28,10 +41,15 @@ public class MembershipController {
      * Get all available Shopster+ plans
      */
     @GetMapping("/plans")
-    public ResponseEntity<ApiResponse<List<MembershipPlanDto>>> getShopsterPlusPlans() {
+    public ResponseEntity<ApiResponse<List<MembershipPlanDto>>> getShopsterPlusPlans(WebRequest webRequest) {
         try {
-            List<MembershipPlanDto> plans = membershipService.getActiveShopsterPlusPlans();
-            return ResponseEntity.ok(ApiResponse.success("Shopster+ plans retrieved successfully", plans));
+            PlanCatalog.Snapshot catalog = membershipService.getPlanCatalog();
+            if (webRequest.checkNotModified(catalog.etag())) {
+                return null;
+            }
+            return ResponseEntity.ok()
+                    .eTag(catalog.etag())
+                    .body(ApiResponse.success("Shopster+ plans retrieved successfully", catalog.activePaidPlans()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(ApiResponse.error("Failed to retrieve plans: " + e.getMessage()));
@@ -42,15 +60,21 @@ public class MembershipController {
      * Get plan by code
      */
     @GetMapping("/plans/{planCode}")
-    public ResponseEntity<ApiResponse<MembershipPlanDto>> getPlanByCode(@PathVariable String planCode) {
+    public ResponseEntity<ApiResponse<MembershipPlanDto>> getPlanByCode(@PathVariable String planCode,
+                                                                        WebRequest webRequest) {
         try {
-            Optional<MembershipPlanDto> plan = membershipService.getPlanByCode(planCode);
-            if (plan.isPresent()) {
-                return ResponseEntity.ok(ApiResponse.success("Plan found", plan.get()));
-            } else {
+            PlanCatalog.Snapshot catalog = membershipService.getPlanCatalog();
+            MembershipPlanDto plan = catalog.plansByCode().get(planCode);
+            if (plan == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body(ApiResponse.error("Plan not found: " + planCode));
             }
+            if (webRequest.checkNotModified(catalog.etag())) {
+                return null;
+            }
+            return ResponseEntity.ok()
+                    .eTag(catalog.etag())
+                    .body(ApiResponse.success("Plan found", plan));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(ApiResponse.error("Failed to retrieve plan: " + e.getMessage()));
@@ -61,19 +85,38 @@ public class MembershipController {
      * Create a new Shopster+ subscription
      */
     @PostMapping("/subscriptions")
-    public ResponseEntity<ApiResponse<MembershipSubscription>> createSubscription(
-            @Valid @RequestBody CreateSubscriptionRequest request) {
+    public CompletableFuture<ResponseEntity<ApiResponse<MembershipSubscription>>> createSubscription(
+            @Valid @RequestBody CreateSubscriptionRequest request,
+            @RequestHeader(value = USER_ID_HEADER, required = false) Long callerId,
+            @RequestHeader(value = USER_ROLES_HEADER, required = false) String callerRoles) {
+        if (callerId == null) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(ApiResponse.error("Authentication required")));
+        }
+        if (!isAdmin(callerRoles) && !callerId.equals(request.getUserId())) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(ApiResponse.error("Cannot create a subscription for another user")));
+        }
+        CompletableFuture<MembershipSubscription> subscription;
         try {
-            MembershipSubscription subscription = membershipService.createSubscription(request);
-            return ResponseEntity.status(HttpStatus.CREATED)
-                    .body(ApiResponse.success("Subscription created successfully", subscription));
-        } catch (RuntimeException e) {
+            subscription = membershipService.createSubscription(request);
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(subscriptionNotCreated(e));
+        }
+        return subscription
+                .thenApply(created -> ResponseEntity.status(HttpStatus.CREATED)
+                        .body(ApiResponse.success("Subscription created successfully", created)))
+                .exceptionally(this::subscriptionNotCreated);
+    }
+
+    private ResponseEntity<ApiResponse<MembershipSubscription>> subscriptionNotCreated(Throwable error) {
+        Throwable e = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (e instanceof RuntimeException) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(ApiResponse.error("Failed to create subscription: " + e.getMessage()));
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(ApiResponse.error("Internal server error: " + e.getMessage()));
         }
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(ApiResponse.error("Internal server error: " + e.getMessage()));
     }
 
     /**
@@ -117,9 +160,15 @@ public class MembershipController {
     @PutMapping("/subscriptions/{subscriptionId}/cancel")
     public ResponseEntity<ApiResponse<Void>> cancelSubscription(
             @PathVariable Long subscriptionId,
-            @RequestParam(required = false) String reason) {
+            @RequestParam(required = false) String reason,
+            @RequestHeader(value = USER_ID_HEADER, required = false) Long callerId,
+            @RequestHeader(value = USER_ROLES_HEADER, required = false) String callerRoles) {
+        if (callerId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(ApiResponse.error("Authentication required"));
+        }
         try {
-            membershipService.cancelSubscription(subscriptionId, reason);
+            membershipService.cancelSubscription(subscriptionId, isAdmin(callerRoles) ? null : callerId, reason);
             return ResponseEntity.ok(ApiResponse.success("Subscription cancelled successfully", null));
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -144,6 +193,33 @@ public class MembershipController {
         }
     }
 
+    /**
+     * Check Shopster+ membership for several users at once
+     */
+    @PostMapping("/status/batch")
+    public ResponseEntity<ApiResponse<Map<Long, Boolean>>> areShopsterPlusMembers(
+            @Valid @RequestBody MembershipStatusBatchRequest request) {
+        try {
+            Map<Long, Boolean> members = membershipService.areShopsterPlusMembers(request.getUserIds());
+            return ResponseEntity.ok(ApiResponse.success("Membership statuses retrieved", members));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to check membership statuses: " + e.getMessage()));
+        }
+    }
+
+    private static boolean isAdmin(String roles) {
+        if (roles == null) {
+            return false;
+        }
+        for (String role : roles.split(",")) {
+            if (role.trim().equals(ADMIN_ROLE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Generic API response wrapper
      */
@@ -0,0 +1,30 @@
+package com.shopster.membership.dto;
+
+import jakarta.validation.constraints.*;
+import java.util.List;
+
+/**
+ * Request DTO for checking Shopster+ membership of several users at once
+ */
+public class MembershipStatusBatchRequest {
+
+    @NotEmpty(message = "User IDs are required")
+    @Size(max = 500, message = "At most 500 user IDs per request")
+    private List<@NotNull Long> userIds;
+
+    // Constructors
+    public MembershipStatusBatchRequest() {}
+
+    public MembershipStatusBatchRequest(List<Long> userIds) {
+        this.userIds = userIds;
+    }
+
+    // Getters and setters
+    public List<Long> getUserIds() {
+        return userIds;
+    }
+
+    public void setUserIds(List<Long> userIds) {
+        this.userIds = userIds;
+    }
+}
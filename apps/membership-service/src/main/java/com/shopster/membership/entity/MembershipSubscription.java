@@ -13,7 +13,11 @@ import java.time.LocalDateTime;
  * Shopster+ membership subscription entity
  */
 @Entity
-@Table(name = "membership_subscriptions")
+@Table(name = "membership_subscriptions", indexes = {
+        @Index(name = "idx_subscriptions_user_status", columnList = "user_id, status"),
+        @Index(name = "idx_subscriptions_status_next_billing", columnList = "status, next_billing_date"),
+        @Index(name = "idx_subscriptions_billing_claim", columnList = "billing_claimed_by")
+})
 @EntityListeners(AuditingEntityListener.class)
 public class MembershipSubscription {
 
@@ -77,6 +81,12 @@ public class MembershipSubscription {
     @Size(max = 500, message = "Cancellation reason must not exceed 500 characters")
     private String cancellationReason;
 
+    @Column(name = "billing_claimed_by", length = 36)
+    private String billingClaimedBy;
+
+    @Column(name = "billing_claimed_until")
+    private LocalDateTime billingClaimedUntil;
+
     @CreatedDate
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -224,6 +234,22 @@ public class MembershipSubscription {
         this.cancellationReason = cancellationReason;
     }
 
+    public String getBillingClaimedBy() {
+        return billingClaimedBy;
+    }
+
+    public void setBillingClaimedBy(String billingClaimedBy) {
+        this.billingClaimedBy = billingClaimedBy;
+    }
+
+    public LocalDateTime getBillingClaimedUntil() {
+        return billingClaimedUntil;
+    }
+
+    public void setBillingClaimedUntil(LocalDateTime billingClaimedUntil) {
+        this.billingClaimedUntil = billingClaimedUntil;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
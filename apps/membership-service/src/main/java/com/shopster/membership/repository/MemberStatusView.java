@@ -0,0 +1,19 @@
+package com.shopster.membership.repository;
+
+import com.shopster.membership.entity.MembershipSubscription;
+
+import java.time.LocalDateTime;
+
+/**
+ * Columns needed to decide whether a user is a member and until when
+ */
+public interface MemberStatusView {
+
+    Long getUserId();
+
+    MembershipSubscription.SubscriptionStatus getStatus();
+
+    LocalDateTime getTrialEndDate();
+
+    LocalDateTime getNextBillingDate();
+}
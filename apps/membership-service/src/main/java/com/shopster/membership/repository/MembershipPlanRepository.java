@@ -3,6 +3,7 @@ package com.shopster.membership.repository;
 import com.shopster.membership.entity.MembershipPlan;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -16,6 +17,12 @@ public interface MembershipPlanRepository extends JpaRepository<MembershipPlan,
 
     Optional<MembershipPlan> findByPlanCode(String planCode);
 
+    /**
+     * Plan with its features loaded, for subscriptions returned outside the transaction
+     */
+    @Query("SELECT p FROM MembershipPlan p LEFT JOIN FETCH p.features WHERE p.planCode = :planCode")
+    Optional<MembershipPlan> findWithFeaturesByPlanCode(@Param("planCode") String planCode);
+
     List<MembershipPlan> findByActiveOrderByDisplayOrderAsc(Boolean active);
 
     @Query("SELECT p FROM MembershipPlan p WHERE p.active = true AND p.planType != 'TRIAL' ORDER BY p.displayOrder ASC")
@@ -29,4 +36,7 @@ public interface MembershipPlanRepository extends JpaRepository<MembershipPlan,
     List<MembershipPlan> findByBillingCycleAndActiveOrderByDisplayOrderAsc(MembershipPlan.BillingCycle billingCycle, Boolean active);
 
     boolean existsByPlanCode(String planCode);
+
+    @Query("SELECT DISTINCT p FROM MembershipPlan p LEFT JOIN FETCH p.features ORDER BY p.displayOrder ASC, p.id ASC")
+    List<MembershipPlan> findAllWithFeatures();
 }
\ No newline at end of file
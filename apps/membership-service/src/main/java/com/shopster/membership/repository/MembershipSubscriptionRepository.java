@@ -2,11 +2,13 @@ package com.shopster.membership.repository;
 
 import com.shopster.membership.entity.MembershipSubscription;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,16 +22,96 @@ public interface MembershipSubscriptionRepository extends JpaRepository<Membersh
 
     List<MembershipSubscription> findByUserIdOrderByCreatedAtDesc(Long userId);
 
-    @Query("SELECT s FROM MembershipSubscription s WHERE s.userId = :userId AND s.status IN ('ACTIVE', 'TRIALING')")
+    /**
+     * Active or trialing subscription with its plan and the plan's features loaded
+     */
+    @Query("SELECT s FROM MembershipSubscription s JOIN FETCH s.plan p LEFT JOIN FETCH p.features " +
+           "WHERE s.userId = :userId AND s.status IN ('ACTIVE', 'TRIALING')")
     Optional<MembershipSubscription> findActiveSubscriptionByUserId(@Param("userId") Long userId);
 
+    /**
+     * ACTIVE and TRIALING subscriptions of the given users, read through the (user_id, status) index
+     */
+    @Query("SELECT s.userId AS userId, s.status AS status, s.trialEndDate AS trialEndDate, " +
+           "s.nextBillingDate AS nextBillingDate FROM MembershipSubscription s " +
+           "WHERE s.userId IN :userIds AND s.status IN ('ACTIVE', 'TRIALING')")
+    List<MemberStatusView> findMemberStatuses(@Param("userIds") Collection<Long> userIds);
+
     List<MembershipSubscription> findByStatus(MembershipSubscription.SubscriptionStatus status);
 
-    @Query("SELECT s FROM MembershipSubscription s WHERE s.nextBillingDate <= :date AND s.status = 'ACTIVE' AND s.autoRenew = true")
-    List<MembershipSubscription> findSubscriptionsReadyForBilling(@Param("date") LocalDateTime date);
+    /**
+     * Claim up to limit ACTIVE auto-renewing subscriptions due on or before date for one billing
+     * chunk. Rows claimed by another run whose claim has not expired, or locked by one that is
+     * claiming right now, are skipped, so concurrent runs never claim the same subscription.
+     */
+    @Modifying
+    @Query(value = "UPDATE membership_subscriptions SET billing_claimed_by = :claim, billing_claimed_until = :claimedUntil " +
+           "WHERE id IN (SELECT id FROM membership_subscriptions " +
+           "WHERE status = 'ACTIVE' AND auto_renew = TRUE AND next_billing_date <= :date " +
+           "AND (billing_claimed_until IS NULL OR billing_claimed_until < :now) " +
+           "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED)", nativeQuery = true)
+    int claimSubscriptionsReadyForBilling(@Param("claim") String claim,
+                                          @Param("date") LocalDateTime date,
+                                          @Param("now") LocalDateTime now,
+                                          @Param("claimedUntil") LocalDateTime claimedUntil,
+                                          @Param("limit") int limit);
+
+    /**
+     * Claim up to limit trials that ended on or before date, skipping rows another run holds
+     */
+    @Modifying
+    @Query(value = "UPDATE membership_subscriptions SET billing_claimed_by = :claim, billing_claimed_until = :claimedUntil " +
+           "WHERE id IN (SELECT id FROM membership_subscriptions " +
+           "WHERE status = 'TRIALING' AND trial_end_date <= :date " +
+           "AND (billing_claimed_until IS NULL OR billing_claimed_until < :now) " +
+           "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED)", nativeQuery = true)
+    int claimExpiredTrials(@Param("claim") String claim,
+                           @Param("date") LocalDateTime date,
+                           @Param("now") LocalDateTime now,
+                           @Param("claimedUntil") LocalDateTime claimedUntil,
+                           @Param("limit") int limit);
+
+    /**
+     * Subscriptions holding the given billing claim, with their plans loaded
+     */
+    @Query("SELECT s FROM MembershipSubscription s JOIN FETCH s.plan WHERE s.billingClaimedBy = :claim ORDER BY s.id")
+    List<MembershipSubscription> findClaimedForBilling(@Param("claim") String claim);
+
+    /**
+     * Record a paid billing period and release the claim. Only applies while the subscription
+     * still holds the claim and is in expectedStatus for the period starting at periodStart,
+     * so a period is never recorded twice.
+     */
+    @Modifying
+    @Query("UPDATE MembershipSubscription s SET s.status = :status, s.lastBillingDate = :billedAt, " +
+           "s.nextBillingDate = :nextBillingDate, " +
+           "s.subscriptionStartDate = COALESCE(s.subscriptionStartDate, :billedAt), s.updatedAt = :billedAt, " +
+           "s.billingClaimedBy = NULL, s.billingClaimedUntil = NULL " +
+           "WHERE s.id = :id AND s.billingClaimedBy = :claim " +
+           "AND s.status = :expectedStatus AND s.nextBillingDate = :periodStart")
+    int recordBillingPeriod(@Param("id") Long id,
+                            @Param("claim") String claim,
+                            @Param("periodStart") LocalDateTime periodStart,
+                            @Param("expectedStatus") MembershipSubscription.SubscriptionStatus expectedStatus,
+                            @Param("status") MembershipSubscription.SubscriptionStatus status,
+                            @Param("billedAt") LocalDateTime billedAt,
+                            @Param("nextBillingDate") LocalDateTime nextBillingDate);
 
-    @Query("SELECT s FROM MembershipSubscription s WHERE s.trialEndDate <= :date AND s.status = 'TRIALING'")
-    List<MembershipSubscription> findExpiredTrials(@Param("date") LocalDateTime date);
+    /**
+     * Move a claimed subscription out of billing for the period starting at periodStart, e.g.
+     * after a failed charge, and release the claim
+     */
+    @Modifying
+    @Query("UPDATE MembershipSubscription s SET s.status = :status, s.updatedAt = :now, " +
+           "s.billingClaimedBy = NULL, s.billingClaimedUntil = NULL " +
+           "WHERE s.id = :id AND s.billingClaimedBy = :claim " +
+           "AND s.status = :expectedStatus AND s.nextBillingDate = :periodStart")
+    int endBillingPeriod(@Param("id") Long id,
+                         @Param("claim") String claim,
+                         @Param("periodStart") LocalDateTime periodStart,
+                         @Param("expectedStatus") MembershipSubscription.SubscriptionStatus expectedStatus,
+                         @Param("status") MembershipSubscription.SubscriptionStatus status,
+                         @Param("now") LocalDateTime now);
 
     @Query("SELECT COUNT(s) FROM MembershipSubscription s WHERE s.status IN ('ACTIVE', 'TRIALING')")
     Long countActiveSubscriptions();
@@ -39,6 +121,52 @@ public interface MembershipSubscriptionRepository extends JpaRepository<Membersh
 
     boolean existsByUserIdAndStatus(Long userId, MembershipSubscription.SubscriptionStatus status);
 
-    @Query("SELECT s FROM MembershipSubscription s WHERE s.userId = :userId AND s.status IN ('ACTIVE', 'TRIALING', 'CANCELLED')")
+    /**
+     * Subscription history with each plan and its features loaded
+     */
+    @Query("SELECT s FROM MembershipSubscription s JOIN FETCH s.plan p LEFT JOIN FETCH p.features " +
+           "WHERE s.userId = :userId AND s.status IN ('ACTIVE', 'TRIALING', 'CANCELLED')")
     List<MembershipSubscription> findUserSubscriptionHistory(@Param("userId") Long userId);
+
+    boolean existsByUserIdAndStatusIn(Long userId, Collection<MembershipSubscription.SubscriptionStatus> statuses);
+
+    /**
+     * Activate a subscription whose first payment went through. Only applies while the
+     * subscription is still PENDING; returns 0 if it was cancelled in the meantime.
+     */
+    @Modifying
+    @Query("UPDATE MembershipSubscription s SET s.status = :active, s.subscriptionStartDate = :now, " +
+           "s.lastBillingDate = :now, s.nextBillingDate = :nextBillingDate, s.updatedAt = :now " +
+           "WHERE s.id = :id AND s.status = :pending")
+    int activatePending(@Param("id") Long id,
+                        @Param("now") LocalDateTime now,
+                        @Param("nextBillingDate") LocalDateTime nextBillingDate,
+                        @Param("active") MembershipSubscription.SubscriptionStatus active,
+                        @Param("pending") MembershipSubscription.SubscriptionStatus pending);
+
+    /**
+     * Cancel a subscription whose first payment failed, if it is still PENDING
+     */
+    @Modifying
+    @Query("UPDATE MembershipSubscription s SET s.status = :cancelled, s.cancellationDate = :now, " +
+           "s.cancellationReason = :reason, s.autoRenew = false, s.updatedAt = :now " +
+           "WHERE s.id = :id AND s.status = :pending")
+    int cancelPending(@Param("id") Long id,
+                      @Param("now") LocalDateTime now,
+                      @Param("reason") String reason,
+                      @Param("cancelled") MembershipSubscription.SubscriptionStatus cancelled,
+                      @Param("pending") MembershipSubscription.SubscriptionStatus pending);
+
+    /**
+     * Cancel PENDING subscriptions created before the cutoff whose payment never completed
+     */
+    @Modifying
+    @Query("UPDATE MembershipSubscription s SET s.status = :cancelled, s.cancellationDate = :now, " +
+           "s.cancellationReason = :reason, s.autoRenew = false, s.updatedAt = :now " +
+           "WHERE s.status = :pending AND s.createdAt < :cutoff")
+    int cancelPendingCreatedBefore(@Param("cutoff") LocalDateTime cutoff,
+                                   @Param("now") LocalDateTime now,
+                                   @Param("reason") String reason,
+                                   @Param("cancelled") MembershipSubscription.SubscriptionStatus cancelled,
+                                   @Param("pending") MembershipSubscription.SubscriptionStatus pending);
 }
\ No newline at end of file
@@ -6,14 +6,25 @@ import com.shopster.membership.entity.MembershipPlan;
 import com.shopster.membership.entity.MembershipSubscription;
 import com.shopster.membership.repository.MembershipPlanRepository;
 import com.shopster.membership.repository.MembershipSubscriptionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 
 /**
  * Service for managing Shopster+ memberships
@@ -22,6 +33,13 @@ import java.util.stream.Collectors;
 @Transactional
 public class MembershipService {
 
+    private static final Logger logger = LoggerFactory.getLogger(MembershipService.class);
+
+    private static final List<MembershipSubscription.SubscriptionStatus> OPEN_STATUSES = List.of(
+            MembershipSubscription.SubscriptionStatus.PENDING,
+            MembershipSubscription.SubscriptionStatus.TRIALING,
+            MembershipSubscription.SubscriptionStatus.ACTIVE);
+
     @Autowired
     private MembershipPlanRepository planRepository;
 
@@ -31,39 +49,99 @@ public class MembershipService {
     @Autowired
     private PaymentStubService paymentService;
 
+    @Autowired
+    private PlanCatalog planCatalog;
+
+    @Autowired
+    private MembershipStatusCache statusCache;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    @Qualifier("paymentExecutor")
+    private ExecutorService paymentExecutor;
+
+    @Value("${membership.payment.pending-timeout:15m}")
+    private Duration pendingTimeout;
+
     /**
      * Get all active membership plans
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<MembershipPlanDto> getActiveShopsterPlusPlans() {
-        List<MembershipPlan> plans = planRepository.findActivePaidPlans();
-        return plans.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return planCatalog.current().activePaidPlans();
     }
 
     /**
      * Get membership plan by code
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Optional<MembershipPlanDto> getPlanByCode(String planCode) {
-        return planRepository.findByPlanCode(planCode)
-                .map(this::convertToDto);
+        return Optional.ofNullable(planCatalog.current().plansByCode().get(planCode));
+    }
+
+    /**
+     * Get the current plan catalog, for callers that need its version
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public PlanCatalog.Snapshot getPlanCatalog() {
+        return planCatalog.current();
+    }
+
+    /**
+     * Create a new Shopster+ subscription.
+     *
+     * Trial plans are created and returned in one transaction. Paid plans are saved as
+     * PENDING, charged on a virtual thread with no transaction or connection held, and then
+     * activated (or cancelled if the charge fails) in a second short transaction. The
+     * returned future completes once that second transaction has committed. If the
+     * subscription was cancelled while the charge was in flight, e.g. by the stale-pending
+     * sweep, the charge is refunded.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CompletableFuture<MembershipSubscription> createSubscription(CreateSubscriptionRequest request) {
+        MembershipSubscription subscription = transactionTemplate.execute(status -> openSubscription(request));
+        statusCache.evict(request.getUserId());
+        if (subscription.getStatus() != MembershipSubscription.SubscriptionStatus.PENDING) {
+            return CompletableFuture.completedFuture(subscription);
+        }
+
+        String description = "Shopster+ " + subscription.getPlan().getName() + " subscription";
+        return CompletableFuture
+                .supplyAsync(() -> paymentService.processPayment(
+                        request.getPaymentMethodId(),
+                        request.getPaymentMethodType(),
+                        subscription.getAmount(),
+                        description), paymentExecutor)
+                .handle((paymentResult, error) -> {
+                    MembershipSubscription confirmed = transactionTemplate.execute(
+                            status -> confirmSubscription(subscription, paymentResult, error));
+                    if (error == null && paymentResult.isSuccess()
+                            && confirmed.getStatus() != MembershipSubscription.SubscriptionStatus.ACTIVE) {
+                        refundUnactivatedPayment(confirmed, paymentResult);
+                    }
+                    return confirmed;
+                })
+                .thenApply(confirmed -> {
+                    statusCache.evict(confirmed.getUserId());
+                    if (confirmed.getStatus() != MembershipSubscription.SubscriptionStatus.ACTIVE) {
+                        throw new RuntimeException(confirmed.getCancellationReason());
+                    }
+                    return confirmed;
+                });
     }
 
     /**
-     * Create a new Shopster+ subscription
+     * Validate the request and insert the subscription, TRIALING for trial plans and PENDING otherwise
      */
-    public MembershipSubscription createSubscription(CreateSubscriptionRequest request) {
-        // Find the plan
-        MembershipPlan plan = planRepository.findByPlanCode(request.getPlanCode())
+    private MembershipSubscription openSubscription(CreateSubscriptionRequest request) {
+        // Find the plan, with everything the response serializes once the transaction has ended
+        MembershipPlan plan = planRepository.findWithFeaturesByPlanCode(request.getPlanCode())
                 .orElseThrow(() -> new RuntimeException("Plan not found: " + request.getPlanCode()));
 
-        // Check if user already has an active subscription
-        Optional<MembershipSubscription> existingSubscription = 
-            subscriptionRepository.findActiveSubscriptionByUserId(request.getUserId());
-        
-        if (existingSubscription.isPresent()) {
+        // Check if user already has an active subscription or one awaiting payment
+        if (subscriptionRepository.existsByUserIdAndStatusIn(request.getUserId(), OPEN_STATUSES)) {
             throw new RuntimeException("User already has an active subscription");
         }
 
@@ -81,40 +159,102 @@ public class MembershipService {
         subscription.setPaymentMethodType(request.getPaymentMethodType());
         subscription.setAutoRenew(request.getAutoRenew());
 
-        // Set up trial or immediate billing
-        LocalDateTime now = LocalDateTime.now();
-        
         if (plan.hasFreeTrial()) {
             // Start free trial
+            LocalDateTime now = LocalDateTime.now();
             subscription.setStatus(MembershipSubscription.SubscriptionStatus.TRIALING);
             subscription.setTrialStartDate(now);
             subscription.setTrialEndDate(now.plusDays(plan.getTrialDays()));
-            
+
             // First billing date is after trial ends
             subscription.setNextBillingDate(subscription.getTrialEndDate());
         } else {
-            // Process immediate payment
-            PaymentStubService.PaymentResult paymentResult = paymentService.processPayment(
-                request.getPaymentMethodId(),
-                request.getPaymentMethodType(),
-                plan.getPrice(),
-                "Shopster+ " + plan.getName() + " subscription"
-            );
-
-            if (!paymentResult.isSuccess()) {
-                throw new RuntimeException("Payment failed: " + paymentResult.getErrorMessage());
+            // Activated by confirmSubscription once the first payment goes through
+            subscription.setStatus(MembershipSubscription.SubscriptionStatus.PENDING);
+        }
+
+        return subscriptionRepository.save(subscription);
+    }
+
+    /**
+     * Record the outcome of the first payment on a PENDING subscription. Any status
+     * other than ACTIVE on the returned subscription means the signup failed.
+     */
+    private MembershipSubscription confirmSubscription(MembershipSubscription subscription,
+                                                       PaymentStubService.PaymentResult paymentResult,
+                                                       Throwable error) {
+        LocalDateTime now = LocalDateTime.now();
+
+        if (error == null && paymentResult.isSuccess()) {
+            LocalDateTime nextBillingDate = calculateNextBillingDate(now, subscription.getPlan().getBillingCycle());
+            int updated = subscriptionRepository.activatePending(subscription.getId(), now, nextBillingDate,
+                    MembershipSubscription.SubscriptionStatus.ACTIVE, MembershipSubscription.SubscriptionStatus.PENDING);
+            if (updated == 0) {
+                logger.warn("Subscription {} was no longer pending when payment {} completed",
+                        subscription.getId(), paymentResult.getTransactionId());
+                subscription.setStatus(MembershipSubscription.SubscriptionStatus.CANCELLED);
+                subscription.setCancellationReason("Subscription was cancelled before payment completed");
+                return subscription;
             }
 
-            // Activate subscription immediately
             subscription.setStatus(MembershipSubscription.SubscriptionStatus.ACTIVE);
             subscription.setSubscriptionStartDate(now);
             subscription.setLastBillingDate(now);
-            
-            // Set next billing date based on plan cycle
-            subscription.setNextBillingDate(calculateNextBillingDate(now, plan.getBillingCycle()));
+            subscription.setNextBillingDate(nextBillingDate);
+            subscription.setUpdatedAt(now);
+            return subscription;
         }
 
-        return subscriptionRepository.save(subscription);
+        Throwable cause = error != null && error.getCause() != null ? error.getCause() : error;
+        String reason = "Payment failed: " + (cause != null ? cause.getMessage() : paymentResult.getErrorMessage());
+        subscriptionRepository.cancelPending(subscription.getId(), now, reason,
+                MembershipSubscription.SubscriptionStatus.CANCELLED, MembershipSubscription.SubscriptionStatus.PENDING);
+
+        subscription.setStatus(MembershipSubscription.SubscriptionStatus.CANCELLED);
+        subscription.setCancellationDate(now);
+        subscription.setCancellationReason(reason);
+        subscription.setAutoRenew(false);
+        return subscription;
+    }
+
+    /**
+     * Refund a charge whose subscription could not be activated. A refund that fails is
+     * logged with the transaction id so the payment can be reconciled by hand.
+     */
+    private void refundUnactivatedPayment(MembershipSubscription subscription,
+                                          PaymentStubService.PaymentResult paymentResult) {
+        String transactionId = paymentResult.getTransactionId();
+        boolean refunded;
+        try {
+            refunded = paymentService.refundPayment(transactionId, subscription.getAmount(),
+                    "Subscription " + subscription.getId() + " was cancelled before payment completed");
+        } catch (RuntimeException e) {
+            logger.error("Refund of payment {} for subscription {} failed: {}",
+                    transactionId, subscription.getId(), e.getMessage());
+            refunded = false;
+        }
+        if (refunded) {
+            logger.info("Refunded payment {} for cancelled subscription {}", transactionId, subscription.getId());
+            subscription.setCancellationReason(subscription.getCancellationReason() + "; the payment was refunded");
+        } else {
+            logger.error("Payment {} of {} for cancelled subscription {} was not refunded and needs reconciliation",
+                    transactionId, subscription.getAmount(), subscription.getId());
+        }
+    }
+
+    /**
+     * Cancel PENDING subscriptions whose payment never completed, e.g. because the
+     * instance stopped between the two transactions
+     */
+    @Scheduled(fixedDelayString = "${membership.payment.pending-sweep-interval-ms:60000}")
+    public void cancelStalePendingSubscriptions() {
+        LocalDateTime now = LocalDateTime.now();
+        int cancelled = subscriptionRepository.cancelPendingCreatedBefore(now.minus(pendingTimeout), now,
+                "Payment not confirmed", MembershipSubscription.SubscriptionStatus.CANCELLED,
+                MembershipSubscription.SubscriptionStatus.PENDING);
+        if (cancelled > 0) {
+            logger.warn("Cancelled {} subscriptions left pending for more than {}", cancelled, pendingTimeout);
+        }
     }
 
     /**
@@ -134,10 +274,12 @@ public class MembershipService {
     }
 
     /**
-     * Cancel a subscription
+     * Cancel a subscription. When ownerId is given, only that user's subscription can be
+     * cancelled; anyone else's is reported as not found.
      */
-    public void cancelSubscription(Long subscriptionId, String reason) {
+    public void cancelSubscription(Long subscriptionId, Long ownerId, String reason) {
         MembershipSubscription subscription = subscriptionRepository.findById(subscriptionId)
+                .filter(found -> ownerId == null || ownerId.equals(found.getUserId()))
                 .orElseThrow(() -> new RuntimeException("Subscription not found"));
 
         subscription.setStatus(MembershipSubscription.SubscriptionStatus.CANCELLED);
@@ -149,42 +291,23 @@ public class MembershipService {
         paymentService.cancelRecurringPayment(subscription.getPaymentMethodId());
 
         subscriptionRepository.save(subscription);
+        statusCache.evict(subscription.getUserId());
     }
 
     /**
      * Check if user has active Shopster+ membership
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public boolean isShopsterPlusMember(Long userId) {
-        return subscriptionRepository.findActiveSubscriptionByUserId(userId).isPresent();
+        return statusCache.isMember(userId);
     }
 
     /**
-     * Convert entity to DTO
+     * Check Shopster+ membership for several users at once
      */
-    private MembershipPlanDto convertToDto(MembershipPlan plan) {
-        MembershipPlanDto dto = new MembershipPlanDto();
-        dto.setId(plan.getId());
-        dto.setPlanCode(plan.getPlanCode());
-        dto.setName(plan.getName());
-        dto.setDescription(plan.getDescription());
-        dto.setPrice(plan.getPrice());
-        dto.setBillingCycle(plan.getBillingCycle());
-        dto.setTrialDays(plan.getTrialDays());
-        dto.setActive(plan.getActive());
-        dto.setPlanType(plan.getPlanType());
-        dto.setDisplayOrder(plan.getDisplayOrder());
-        dto.setFeatures(plan.getFeatures());
-
-        // Set formatted fields for frontend display
-        dto.setFormattedPrice(String.format("$%.2f", plan.getPrice()));
-        dto.setBillingCycleDisplay(plan.getBillingCycle().getDisplayName());
-        
-        if (plan.hasFreeTrial()) {
-            dto.setTrialDescription(plan.getTrialDays() + "-day free trial");
-        }
-
-        return dto;
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Map<Long, Boolean> areShopsterPlusMembers(Collection<Long> userIds) {
+        return statusCache.areMembers(userIds);
     }
 
     /**
@@ -0,0 +1,150 @@
+package com.shopster.membership.service;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.shopster.membership.entity.MembershipSubscription;
+import com.shopster.membership.repository.MemberStatusView;
+import com.shopster.membership.repository.MembershipSubscriptionRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-user membership status, cached so status checks from product pages and
+ * checkout don't each run a query.
+ *
+ * An entry holds the user's member status and the time it stops being
+ * reliable: the trial end for TRIALING, or the next billing date for ACTIVE,
+ * when the billing job may change it. Entries expire at that time or after
+ * membership.status-cache.ttl, whichever comes first. This instance drops an
+ * entry as soon as its own transaction that changed the subscription commits.
+ * The TTL bounds how stale an entry can be after a change on another instance.
+ */
+@Component
+public class MembershipStatusCache {
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private static final CachedStatus NOT_A_MEMBER = new CachedStatus(null, Long.MAX_VALUE);
+
+    @Autowired
+    private MembershipSubscriptionRepository subscriptionRepository;
+
+    @Value("${membership.status-cache.ttl:60s}")
+    private Duration ttl;
+
+    @Value("${membership.status-cache.max-size:100000}")
+    private long maxSize;
+
+    private LoadingCache<Long, CachedStatus> cache;
+
+    @PostConstruct
+    void init() {
+        long ttlNanos = ttl.toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<Long, CachedStatus>() {
+                    @Override
+                    public long expireAfterCreate(Long userId, CachedStatus status, long currentTime) {
+                        long remaining = TimeUnit.MILLISECONDS.toNanos(status.validUntil() - System.currentTimeMillis());
+                        // Already past its window, e.g. a renewal the billing job hasn't reached yet
+                        return remaining > 0 ? Math.min(ttlNanos, remaining) : ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Long userId, CachedStatus status, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(userId, status, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Long userId, CachedStatus status, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build(new CacheLoader<>() {
+                    @Override
+                    public CachedStatus load(Long userId) {
+                        return loadAll(Set.of(userId)).get(userId);
+                    }
+
+                    @Override
+                    public Map<Long, CachedStatus> loadAll(Set<? extends Long> userIds) {
+                        return MembershipStatusCache.this.loadAll(userIds);
+                    }
+                });
+    }
+
+    /**
+     * Check if user has an ACTIVE or TRIALING subscription
+     */
+    public boolean isMember(Long userId) {
+        return cache.get(userId).isMember();
+    }
+
+    /**
+     * Member status of each user, loading every missing entry with one query
+     */
+    public Map<Long, Boolean> areMembers(Collection<Long> userIds) {
+        Map<Long, Boolean> members = new HashMap<>();
+        cache.getAll(userIds).forEach((userId, status) -> members.put(userId, status.isMember()));
+        return members;
+    }
+
+    /**
+     * Drop the user's entry, after the current transaction commits if there is one
+     */
+    public void evict(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.invalidate(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.invalidate(userId);
+            }
+        });
+    }
+
+    private Map<Long, CachedStatus> loadAll(Collection<? extends Long> userIds) {
+        Map<Long, CachedStatus> statuses = new HashMap<>();
+        for (MemberStatusView view : subscriptionRepository.findMemberStatuses(Set.copyOf(userIds))) {
+            LocalDateTime until = view.getStatus() == MembershipSubscription.SubscriptionStatus.TRIALING
+                    ? view.getTrialEndDate()
+                    : view.getNextBillingDate();
+            long validUntil = until != null ? until.atZone(ZONE).toInstant().toEpochMilli() : Long.MAX_VALUE;
+            statuses.merge(view.getUserId(), new CachedStatus(view.getStatus(), validUntil),
+                    (a, b) -> a.validUntil() >= b.validUntil() ? a : b);
+        }
+        for (Long userId : userIds) {
+            statuses.putIfAbsent(userId, NOT_A_MEMBER);
+        }
+        return statuses;
+    }
+
+    /**
+     * Compact cache entry: the member status (null for non-members) and epoch millis it holds until
+     */
+    private record CachedStatus(MembershipSubscription.SubscriptionStatus status, long validUntil) {
+
+        boolean isMember() {
+            return status != null;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.shopster.membership.service;
 
 import com.shopster.membership.entity.MembershipSubscription;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -15,6 +16,9 @@ import java.util.UUID;
 @Service
 public class PaymentStubService {
 
+    @Value("${membership.payment.stub-latency-ms:500}")
+    private long stubLatencyMillis;
+
     /**
      * Processes a payment for a membership subscription
      * This is a stub implementation that always succeeds
@@ -25,7 +29,7 @@ public class PaymentStubService {
                                       String description) {
         // Simulate payment processing delay
         try {
-            Thread.sleep(500);
+            Thread.sleep(stubLatencyMillis);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
         }
@@ -37,6 +41,21 @@ public class PaymentStubService {
         return PaymentResult.success(transactionId, amount, paymentMethodType);
     }
 
+    /**
+     * Processes a payment that may be retried, e.g. a renewal charge re-run after a restart.
+     * A real provider returns the original result for a repeated idempotency key instead of
+     * charging again; the stub only records the key.
+     */
+    public PaymentResult processPayment(String idempotencyKey,
+                                        String paymentMethodId,
+                                        MembershipSubscription.PaymentMethodType paymentMethodType,
+                                        BigDecimal amount,
+                                        String description) {
+        PaymentResult result = processPayment(paymentMethodId, paymentMethodType, amount, description);
+        result.getMetadata().put("idempotencyKey", idempotencyKey);
+        return result;
+    }
+
     /**
      * Validates a payment method
      * This is a stub implementation that always validates successfully
@@ -47,6 +66,14 @@ public class PaymentStubService {
         return paymentMethodId != null && !paymentMethodId.trim().isEmpty();
     }
 
+    /**
+     * Refunds a completed payment in full
+     * This is a stub implementation that always succeeds
+     */
+    public boolean refundPayment(String transactionId, BigDecimal amount, String reason) {
+        return transactionId != null && !transactionId.isEmpty();
+    }
+
     /**
      * Cancels a recurring payment
      * This is a stub implementation that always succeeds
@@ -0,0 +1,144 @@
+package com.shopster.membership.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shopster.membership.dto.MembershipPlanDto;
+import com.shopster.membership.entity.MembershipPlan;
+import com.shopster.membership.repository.MembershipPlanRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory catalog of membership plans, served without touching the database.
+ *
+ * The catalog is an immutable snapshot of every plan, with the DTOs and their
+ * display fields built once. It is reloaded every
+ * membership.plan-catalog.refresh-interval-ms, and explicitly after plans are
+ * seeded. A reload replaces the snapshot in a single write, so readers see
+ * either the old catalog or the new one. The snapshot's version is a hash of
+ * its content. Every instance therefore derives the same version, and it
+ * doubles as the ETag.
+ */
+@Component
+public class PlanCatalog {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlanCatalog.class);
+
+    @Autowired
+    private MembershipPlanRepository planRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * Get the current catalog, loading it on first use
+     */
+    public Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    current = refresh();
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Reload plans from the database, replacing the catalog if anything changed
+     */
+    @Scheduled(initialDelayString = "${membership.plan-catalog.refresh-interval-ms:60000}",
+            fixedDelayString = "${membership.plan-catalog.refresh-interval-ms:60000}")
+    public synchronized Snapshot refresh() {
+        List<MembershipPlan> plans = planRepository.findAllWithFeatures();
+
+        Map<String, MembershipPlanDto> byCode = new LinkedHashMap<>();
+        for (MembershipPlan plan : plans) {
+            byCode.put(plan.getPlanCode(), convertToDto(plan));
+        }
+        List<MembershipPlanDto> activePaidPlans = byCode.values().stream()
+                .filter(plan -> plan.getActive() && plan.getPlanType() != MembershipPlan.PlanType.TRIAL)
+                .toList();
+
+        String version = version(byCode.values());
+        Snapshot current = snapshot;
+        if (current != null && current.version().equals(version)) {
+            return current;
+        }
+
+        Snapshot loaded = new Snapshot(version, activePaidPlans, Map.copyOf(byCode));
+        snapshot = loaded;
+        logger.info("Loaded plan catalog {} with {} plans", version, byCode.size());
+        return loaded;
+    }
+
+    private String version(Iterable<MembershipPlanDto> plans) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (MembershipPlanDto plan : plans) {
+                digest.update(objectMapper.writeValueAsBytes(plan));
+            }
+            return HexFormat.of().formatHex(digest.digest(), 0, 8);
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Failed to compute plan catalog version", e);
+        }
+    }
+
+    /**
+     * Convert entity to DTO
+     */
+    private MembershipPlanDto convertToDto(MembershipPlan plan) {
+        MembershipPlanDto dto = new MembershipPlanDto();
+        dto.setId(plan.getId());
+        dto.setPlanCode(plan.getPlanCode());
+        dto.setName(plan.getName());
+        dto.setDescription(plan.getDescription());
+        dto.setPrice(plan.getPrice());
+        dto.setBillingCycle(plan.getBillingCycle());
+        dto.setTrialDays(plan.getTrialDays());
+        dto.setActive(plan.getActive());
+        dto.setPlanType(plan.getPlanType());
+        dto.setDisplayOrder(plan.getDisplayOrder());
+        dto.setFeatures(plan.getFeatures() == null ? List.of() : List.copyOf(plan.getFeatures()));
+
+        // Set formatted fields for frontend display
+        dto.setFormattedPrice(String.format("$%.2f", plan.getPrice()));
+        dto.setBillingCycleDisplay(plan.getBillingCycle().getDisplayName());
+
+        if (plan.hasFreeTrial()) {
+            dto.setTrialDescription(plan.getTrialDays() + "-day free trial");
+        }
+
+        return dto;
+    }
+
+    /**
+     * One immutable version of the catalog. The DTOs are shared by every request and must not be modified.
+     *
+     * @param version         content hash, also used as the ETag
+     * @param activePaidPlans active non-trial plans in display order
+     * @param plansByCode     every plan, active or not
+     */
+    public record Snapshot(String version,
+                           List<MembershipPlanDto> activePaidPlans,
+                           Map<String, MembershipPlanDto> plansByCode) {
+
+        public String etag() {
+            return "\"" + version + "\"";
+        }
+    }
+}
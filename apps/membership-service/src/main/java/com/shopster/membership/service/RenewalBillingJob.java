@@ -0,0 +1,225 @@
+package com.shopster.membership.service;
+
+import com.shopster.membership.entity.MembershipPlan;
+import com.shopster.membership.entity.MembershipSubscription;
+import com.shopster.membership.repository.MembershipSubscriptionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Charges subscription renewals and converts ended trials.
+ *
+ * Due subscriptions are claimed in chunks, so memory stays bounded no matter how many
+ * renew at once. Each chunk is charged concurrently on virtual threads, limited by
+ * membership.billing.max-concurrent-charges. Its state changes are then committed in
+ * one short transaction, and no transaction is open while charging.
+ *
+ * Replicas run the same schedule and share the work through per-row claims. A short
+ * transaction claims the next chunk with SELECT ... FOR UPDATE SKIP LOCKED, stamping it
+ * with a fresh claim id and an expiry of membership.billing.claim-ttl. Only claimed rows
+ * are charged, and a state change only applies while the row still holds that claim and
+ * is still at the billed period, releasing the claim as it commits. Two runs therefore
+ * never charge the same subscription for the same period.
+ *
+ * If a run dies between charging and committing, its rows stay claimed until the claim
+ * expires and are then charged again. Keep claim-ttl well above the time one chunk takes.
+ * Each charge carries an idempotency key built from the subscription id and its next
+ * billing date, so a provider that honours the key turns that retry into a no-op.
+ */
+@Component
+public class RenewalBillingJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(RenewalBillingJob.class);
+
+    @Autowired
+    private MembershipSubscriptionRepository subscriptionRepository;
+
+    @Autowired
+    private PaymentStubService paymentService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    @Qualifier("paymentExecutor")
+    private ExecutorService paymentExecutor;
+
+    @Autowired
+    private MembershipStatusCache statusCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${membership.billing.enabled:true}")
+    private boolean enabled;
+
+    @Value("${membership.billing.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${membership.billing.max-concurrent-charges:32}")
+    private int maxConcurrentCharges;
+
+    @Value("${membership.billing.claim-ttl:30m}")
+    private Duration claimTtl;
+
+    @Scheduled(cron = "${membership.billing.cron:0 */15 * * * *}")
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+        Timer.builder("membership.billing.run")
+                .description("Duration of renewal billing runs")
+                .register(meterRegistry)
+                .record(() -> billDueSubscriptions(LocalDateTime.now()));
+    }
+
+    /**
+     * Convert trials that ended and renew subscriptions due on or before the cutoff
+     */
+    public void billDueSubscriptions(LocalDateTime cutoff) {
+        int trials = processAll(cutoff, subscriptionRepository::claimExpiredTrials,
+                MembershipSubscription.SubscriptionStatus.TRIALING);
+        int renewals = processAll(cutoff, subscriptionRepository::claimSubscriptionsReadyForBilling,
+                MembershipSubscription.SubscriptionStatus.ACTIVE);
+        if (trials > 0 || renewals > 0) {
+            logger.info("Billing run processed {} ended trials and {} renewals", trials, renewals);
+        }
+    }
+
+    private int processAll(LocalDateTime cutoff,
+                           ChunkClaim claimChunk,
+                           MembershipSubscription.SubscriptionStatus expectedStatus) {
+        int processed = 0;
+        while (true) {
+            String claim = UUID.randomUUID().toString();
+            List<MembershipSubscription> subscriptions = transactionTemplate.execute(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                claimChunk.claim(claim, cutoff, now, now.plus(claimTtl), chunkSize);
+                return subscriptionRepository.findClaimedForBilling(claim);
+            });
+            if (subscriptions.isEmpty()) {
+                return processed;
+            }
+
+            List<Charge> charges = charge(subscriptions);
+            int applied = transactionTemplate.execute(status -> apply(charges, claim, expectedStatus));
+            processed += applied;
+            if (applied < charges.size()) {
+                logger.debug("{} subscriptions changed while being billed and were left as they were",
+                        charges.size() - applied);
+            }
+
+            if (subscriptions.size() < chunkSize) {
+                return processed;
+            }
+        }
+    }
+
+    /**
+     * Charge every subscription in the chunk, with at most maxConcurrentCharges in flight
+     */
+    private List<Charge> charge(List<MembershipSubscription> subscriptions) {
+        Semaphore permits = new Semaphore(maxConcurrentCharges);
+        List<CompletableFuture<Charge>> pending = new ArrayList<>(subscriptions.size());
+        for (MembershipSubscription subscription : subscriptions) {
+            if (!subscription.getAutoRenew()
+                    || subscription.getPlan().getPlanType() == MembershipPlan.PlanType.TRIAL) {
+                // Only trials get here: without auto-renew or on a trial-only plan they end instead of converting
+                pending.add(CompletableFuture.completedFuture(new Charge(subscription, null)));
+                continue;
+            }
+            permits.acquireUninterruptibly();
+            pending.add(CompletableFuture
+                    .supplyAsync(() -> {
+                        try {
+                            return new Charge(subscription, paymentService.processPayment(
+                                    idempotencyKey(subscription),
+                                    subscription.getPaymentMethodId(),
+                                    subscription.getPaymentMethodType(),
+                                    subscription.getAmount(),
+                                    "Shopster+ " + subscription.getPlan().getName() + " renewal"));
+                        } finally {
+                            permits.release();
+                        }
+                    }, paymentExecutor)
+                    .exceptionally(e -> new Charge(subscription,
+                            PaymentStubService.PaymentResult.failure(e.getMessage()))));
+        }
+        return pending.stream().map(CompletableFuture::join).toList();
+    }
+
+    /**
+     * Record the outcome of each charge; returns how many subscriptions changed
+     */
+    private int apply(List<Charge> charges, String claim, MembershipSubscription.SubscriptionStatus expectedStatus) {
+        LocalDateTime now = LocalDateTime.now();
+        int applied = 0;
+        for (Charge charge : charges) {
+            MembershipSubscription subscription = charge.subscription();
+            LocalDateTime periodStart = subscription.getNextBillingDate();
+
+            if (charge.result() == null) {
+                applied += subscriptionRepository.endBillingPeriod(subscription.getId(), claim, periodStart,
+                        expectedStatus, MembershipSubscription.SubscriptionStatus.EXPIRED, now);
+                count("expired");
+            } else if (charge.result().isSuccess()) {
+                LocalDateTime nextBillingDate = nextBillingDate(periodStart, subscription.getPlan().getBillingCycle());
+                applied += subscriptionRepository.recordBillingPeriod(subscription.getId(), claim, periodStart,
+                        expectedStatus, MembershipSubscription.SubscriptionStatus.ACTIVE, now, nextBillingDate);
+                count("charged");
+            } else {
+                logger.warn("Charge for subscription {} failed: {}",
+                        subscription.getId(), charge.result().getErrorMessage());
+                applied += subscriptionRepository.endBillingPeriod(subscription.getId(), claim, periodStart,
+                        expectedStatus, MembershipSubscription.SubscriptionStatus.SUSPENDED, now);
+                count("failed");
+            }
+            statusCache.evict(subscription.getUserId());
+        }
+        return applied;
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("membership.billing.subscriptions", "outcome", outcome).increment();
+    }
+
+    private static String idempotencyKey(MembershipSubscription subscription) {
+        return "subscription-" + subscription.getId() + "-" + subscription.getNextBillingDate();
+    }
+
+    /**
+     * Next period starts one cycle after the current one, so billing dates don't drift with run time
+     */
+    private static LocalDateTime nextBillingDate(LocalDateTime periodStart, MembershipPlan.BillingCycle cycle) {
+        return switch (cycle) {
+            case WEEKLY -> periodStart.plusWeeks(1);
+            case MONTHLY -> periodStart.plusMonths(1);
+            case ANNUALLY -> periodStart.plusYears(1);
+        };
+    }
+
+    private record Charge(MembershipSubscription subscription, PaymentStubService.PaymentResult result) {
+    }
+
+    @FunctionalInterface
+    private interface ChunkClaim {
+        int claim(String claim, LocalDateTime date, LocalDateTime now, LocalDateTime claimedUntil, int limit);
+    }
+}
@@ -0,0 +1,48 @@
+-- Create membership_plans table
+CREATE TABLE membership_plans (
+    id BIGSERIAL PRIMARY KEY,
+    plan_code VARCHAR(50) NOT NULL UNIQUE,
+    name VARCHAR(100) NOT NULL,
+    description VARCHAR(500),
+    price NUMERIC(10, 2) NOT NULL,
+    billing_cycle VARCHAR(20) NOT NULL,
+    trial_days INTEGER NOT NULL DEFAULT 0,
+    active BOOLEAN NOT NULL DEFAULT TRUE,
+    plan_type VARCHAR(20) NOT NULL,
+    display_order INTEGER DEFAULT 0,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Create membership_plan_features table
+CREATE TABLE membership_plan_features (
+    plan_id BIGINT NOT NULL,
+    feature VARCHAR(255),
+    FOREIGN KEY (plan_id) REFERENCES membership_plans(id) ON DELETE CASCADE
+);
+
+-- Create membership_subscriptions table
+CREATE TABLE membership_subscriptions (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    plan_id BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    trial_start_date TIMESTAMP,
+    trial_end_date TIMESTAMP,
+    subscription_start_date TIMESTAMP,
+    subscription_end_date TIMESTAMP,
+    next_billing_date TIMESTAMP,
+    last_billing_date TIMESTAMP,
+    amount NUMERIC(10, 2) NOT NULL,
+    payment_method_id VARCHAR(100),
+    payment_method_type VARCHAR(20),
+    auto_renew BOOLEAN NOT NULL DEFAULT TRUE,
+    cancellation_date TIMESTAMP,
+    cancellation_reason VARCHAR(500),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (plan_id) REFERENCES membership_plans(id)
+);
+
+CREATE INDEX idx_plan_features_plan_id ON membership_plan_features(plan_id);
+CREATE INDEX idx_subscriptions_plan_id ON membership_subscriptions(plan_id);
@@ -0,0 +1,5 @@
+-- Membership status lookups by user: WHERE user_id = ? / IN (...) AND status IN ('ACTIVE', 'TRIALING')
+CREATE INDEX IF NOT EXISTS idx_subscriptions_user_status ON membership_subscriptions(user_id, status);
+
+-- Renewal billing scans: WHERE status = 'ACTIVE' AND next_billing_date <= ?
+CREATE INDEX IF NOT EXISTS idx_subscriptions_status_next_billing ON membership_subscriptions(status, next_billing_date);
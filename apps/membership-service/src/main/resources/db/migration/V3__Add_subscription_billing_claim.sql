@@ -0,0 +1,6 @@
+-- Renewal billing claims due rows before charging them, so replicas never charge the same period twice
+ALTER TABLE membership_subscriptions ADD COLUMN billing_claimed_by VARCHAR(36);
+ALTER TABLE membership_subscriptions ADD COLUMN billing_claimed_until TIMESTAMP;
+
+-- Reading back a claimed chunk: WHERE billing_claimed_by = ?
+CREATE INDEX IF NOT EXISTS idx_subscriptions_billing_claim ON membership_subscriptions(billing_claimed_by);
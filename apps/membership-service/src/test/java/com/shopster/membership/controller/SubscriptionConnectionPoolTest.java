@@ -0,0 +1,113 @@
+package com.shopster.membership.controller;
+
+import com.shopster.membership.entity.MembershipPlan;
+import com.shopster.membership.entity.MembershipSubscription;
+import com.shopster.membership.repository.MembershipPlanRepository;
+import com.shopster.membership.repository.MembershipSubscriptionRepository;
+import com.shopster.membership.service.PaymentStubService;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Asserts that a paid signup holds no pooled connection while its first payment
+ * is in flight, and that the response still carries the subscription's plan.
+ */
+@SpringBootTest(properties = "membership.billing.enabled=false")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class SubscriptionConnectionPoolTest {
+
+    private static final String PLAN_CODE = "POOL_TEST_MONTHLY";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MembershipPlanRepository planRepository;
+
+    @Autowired
+    private MembershipSubscriptionRepository subscriptionRepository;
+
+    @MockBean
+    private PaymentStubService paymentService;
+
+    @BeforeEach
+    void setUp() {
+        MembershipPlan plan = new MembershipPlan(PLAN_CODE, "Pool Test Monthly", "Paid plan without a trial",
+                new BigDecimal("9.99"), MembershipPlan.BillingCycle.MONTHLY, 0, MembershipPlan.PlanType.STANDARD);
+        plan.setFeatures(List.of("Free shipping"));
+        planRepository.save(plan);
+    }
+
+    @AfterEach
+    void tearDown() {
+        subscriptionRepository.deleteAll();
+        planRepository.deleteAll();
+    }
+
+    @Test
+    void createSubscription_holdsNoConnectionWhilePaymentIsInFlight() throws Exception {
+        CountDownLatch charging = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(paymentService.validatePaymentMethod(anyString(), any())).thenReturn(true);
+        when(paymentService.processPayment(anyString(), any(MembershipSubscription.PaymentMethodType.class),
+                any(BigDecimal.class), anyString())).thenAnswer(invocation -> {
+            charging.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return PaymentStubService.PaymentResult.success("txn_test",
+                    invocation.getArgument(2), invocation.getArgument(1));
+        });
+
+        MvcResult pending;
+        try {
+            pending = mockMvc.perform(post("/api/membership/subscriptions")
+                            .header("X-User-Id", "42")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"userId\":42,\"planCode\":\"" + PLAN_CODE + "\","
+                                    + "\"paymentMethodId\":\"card_test\",\"paymentMethodType\":\"CREDIT_CARD\"}"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            assertTrue(charging.await(10, TimeUnit.SECONDS), "Signup never reached the payment call");
+            int active = ((HikariDataSource) dataSource).getHikariPoolMXBean().getActiveConnections();
+            assertEquals(0, active, "Connections checked out while the payment is in flight");
+        } finally {
+            release.countDown();
+        }
+
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.data.status").value("ACTIVE"))
+                .andExpect(jsonPath("$.data.plan.features[0]").value("Free shipping"));
+    }
+}
@@ -0,0 +1,114 @@
+package com.shopster.membership.service;
+
+import com.shopster.membership.dto.CreateSubscriptionRequest;
+import com.shopster.membership.entity.MembershipPlan;
+import com.shopster.membership.entity.MembershipSubscription;
+import com.shopster.membership.repository.MembershipPlanRepository;
+import com.shopster.membership.repository.MembershipSubscriptionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * A paid signup whose subscription is cancelled by the stale-pending sweep while
+ * its first payment is in flight must not keep the customer's money.
+ */
+@SpringBootTest(properties = {
+        "membership.billing.enabled=false",
+        "membership.payment.pending-timeout=0s",
+        "membership.payment.pending-sweep-interval-ms=3600000"
+})
+@ActiveProfiles("test")
+public class PendingSubscriptionRaceTest {
+
+    private static final String PLAN_CODE = "RACE_TEST_MONTHLY";
+    private static final Long USER_ID = 42L;
+
+    @Autowired
+    private MembershipService membershipService;
+
+    @Autowired
+    private MembershipPlanRepository planRepository;
+
+    @Autowired
+    private MembershipSubscriptionRepository subscriptionRepository;
+
+    @MockBean
+    private PaymentStubService paymentService;
+
+    private CountDownLatch charging;
+    private CountDownLatch release;
+
+    @BeforeEach
+    void setUp() {
+        planRepository.save(new MembershipPlan(PLAN_CODE, "Race Test Monthly", "Paid plan without a trial",
+                new BigDecimal("9.99"), MembershipPlan.BillingCycle.MONTHLY, 0, MembershipPlan.PlanType.STANDARD));
+
+        charging = new CountDownLatch(1);
+        release = new CountDownLatch(1);
+        when(paymentService.validatePaymentMethod(anyString(), any())).thenReturn(true);
+        when(paymentService.processPayment(anyString(), any(MembershipSubscription.PaymentMethodType.class),
+                any(BigDecimal.class), anyString())).thenAnswer(invocation -> {
+            charging.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return PaymentStubService.PaymentResult.success("txn_race",
+                    invocation.getArgument(2), invocation.getArgument(1));
+        });
+        when(paymentService.refundPayment(anyString(), any(BigDecimal.class), anyString())).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        subscriptionRepository.deleteAll();
+        planRepository.deleteAll();
+    }
+
+    private CompletableFuture<MembershipSubscription> signUp() {
+        return membershipService.createSubscription(new CreateSubscriptionRequest(USER_ID, PLAN_CODE,
+                "card_test", MembershipSubscription.PaymentMethodType.CREDIT_CARD));
+    }
+
+    @Test
+    void createSubscription_refundsPaymentWhenSweepCancelledTheSignup() throws Exception {
+        CompletableFuture<MembershipSubscription> signup = signUp();
+        assertTrue(charging.await(10, TimeUnit.SECONDS), "Signup never reached the payment call");
+
+        membershipService.cancelStalePendingSubscriptions();
+        release.countDown();
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> signup.get(10, TimeUnit.SECONDS));
+        assertTrue(failure.getCause().getMessage().contains("refunded"), failure.getCause().getMessage());
+        verify(paymentService).refundPayment(eq("txn_race"), eq(new BigDecimal("9.99")), anyString());
+        assertEquals(MembershipSubscription.SubscriptionStatus.CANCELLED,
+                subscriptionRepository.findByUserId(USER_ID).orElseThrow().getStatus());
+    }
+
+    @Test
+    void createSubscription_keepsPaymentWhenActivated() throws Exception {
+        CompletableFuture<MembershipSubscription> signup = signUp();
+        assertTrue(charging.await(10, TimeUnit.SECONDS), "Signup never reached the payment call");
+        release.countDown();
+
+        assertEquals(MembershipSubscription.SubscriptionStatus.ACTIVE, signup.get(10, TimeUnit.SECONDS).getStatus());
+        verify(paymentService, never()).refundPayment(anyString(), any(BigDecimal.class), anyString());
+    }
+}
@@ -0,0 +1,66 @@
+package com.shopster.product.cache;
+
+import com.shopster.product.config.CacheConfig;
+import com.shopster.product.event.ProductChangeEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Evicts cached product reads on product change events.
+ * The by-id entry is evicted precisely; the homepage rails are cleared only when
+ * the change touches a field a rail reads or filters on, because a single flag
+ * or status change can move a product into or out of any of them.
+ */
+@Component
+public class ProductCacheInvalidationListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductCacheInvalidationListener.class);
+
+    private static final Set<String> RAIL_FIELDS = new LinkedHashSet<>(ProductChangeEvent.LISTING_FIELDS);
+
+    static {
+        RAIL_FIELDS.add("recommended");
+    }
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @EventListener
+    public void onProductChanged(ProductChangeEvent event) {
+        if (event.getType() == ProductChangeEvent.Type.RELOAD || event.getProductId() == null) {
+            clear(CacheConfig.PRODUCT_BY_ID);
+            clearRails();
+            return;
+        }
+
+        logger.debug("Evicting cached reads for product ID: {}", event.getProductId());
+        Cache byId = cacheManager.getCache(CacheConfig.PRODUCT_BY_ID);
+        if (byId != null) {
+            byId.evict(event.getProductId());
+        }
+        if (event.touches(RAIL_FIELDS)) {
+            clearRails();
+        }
+    }
+
+    private void clearRails() {
+        clear(CacheConfig.FEATURED_PRODUCTS);
+        clear(CacheConfig.TRENDING_PRODUCTS);
+        clear(CacheConfig.RECOMMENDED_PRODUCTS);
+    }
+
+    private void clear(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+}
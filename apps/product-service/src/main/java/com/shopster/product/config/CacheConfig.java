@@ -0,0 +1,54 @@
+package com.shopster.product.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Arrays;
+
+/**
+ * Cache configuration for product reads.
+ * Each cache gets its own Caffeine spec so the by-id cache can be sized for the
+ * catalog while the homepage rails stay small. All specs should keep recordStats
+ * so hit/miss counters are published as cache.gets metrics.
+ */
+@Configuration
+public class CacheConfig {
+
+    public static final String PRODUCT_BY_ID = "productById";
+    public static final String FEATURED_PRODUCTS = "featuredProducts";
+    public static final String TRENDING_PRODUCTS = "trendingProducts";
+    public static final String RECOMMENDED_PRODUCTS = "recommendedProducts";
+
+    @Value("${product.cache.product-by-id.spec:maximumSize=10000,expireAfterWrite=10m,recordStats}")
+    private String productByIdSpec;
+
+    @Value("${product.cache.featured.spec:maximumSize=50,expireAfterWrite=5m,recordStats}")
+    private String featuredSpec;
+
+    @Value("${product.cache.trending.spec:maximumSize=50,expireAfterWrite=5m,recordStats}")
+    private String trendingSpec;
+
+    @Value("${product.cache.recommended.spec:maximumSize=50,expireAfterWrite=5m,recordStats}")
+    private String recommendedSpec;
+
+    @Bean
+    public CacheManager cacheManager() {
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(Arrays.asList(
+                buildCache(PRODUCT_BY_ID, productByIdSpec),
+                buildCache(FEATURED_PRODUCTS, featuredSpec),
+                buildCache(TRENDING_PRODUCTS, trendingSpec),
+                buildCache(RECOMMENDED_PRODUCTS, recommendedSpec)
+        ));
+        return cacheManager;
+    }
+
+    private CaffeineCache buildCache(String name, String spec) {
+        return new CaffeineCache(name, Caffeine.from(spec).build());
+    }
+}
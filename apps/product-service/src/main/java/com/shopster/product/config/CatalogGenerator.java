@@ -0,0 +1,159 @@
+package com.shopster.product.config;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.InsertManyOptions;
+import com.shopster.product.document.Inventory;
+import com.shopster.product.document.Product;
+import com.shopster.product.document.ProductImage;
+import com.shopster.product.document.Rating;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Generates a synthetic catalog of product.loadtest.catalog-size products for load tests.
+ *
+ * Products are built from a fixed vocabulary with a seeded Random, so the same
+ * size and seed always produce the same catalog. An existing catalog of the
+ * requested size is kept; any other catalog is replaced. Documents are inserted
+ * in bulk, bypassing save events. The search index, caches and random pool pick
+ * them up when they load at startup. Runs after ProductIndexInitializer, so the
+ * inserts are indexed as they go and queries use the same plans as in production.
+ */
+@Component
+@Profile("loadtest")
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class CatalogGenerator implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogGenerator.class);
+
+    private static final String[] CATEGORIES = {
+            "Electronics", "Home & Kitchen", "Sports & Outdoors", "Clothing", "Books", "Beauty", "Toys", "Grocery"
+    };
+
+    private static final String[][] NOUNS = {
+            {"Headphones", "Laptop", "Smartphone", "Tablet", "Smartwatch", "Speaker", "Camera", "Monitor"},
+            {"Blender", "Coffee Maker", "Cookware Set", "Knife Block", "Air Fryer", "Toaster", "Kettle", "Mixer"},
+            {"Yoga Mat", "Running Shoes", "Tent", "Backpack", "Water Bottle", "Bike Helmet", "Dumbbells", "Jacket"},
+            {"T-Shirt", "Jeans", "Hoodie", "Sneakers", "Dress", "Sweater", "Cap", "Socks"},
+            {"Novel", "Cookbook", "Biography", "Atlas", "Guide", "Anthology", "Workbook", "Journal"},
+            {"Moisturizer", "Shampoo", "Serum", "Lipstick", "Sunscreen", "Perfume", "Cleanser", "Conditioner"},
+            {"Puzzle", "Building Set", "Board Game", "Plush Toy", "Race Car", "Doll", "Drone", "Robot Kit"},
+            {"Coffee Beans", "Green Tea", "Olive Oil", "Granola", "Pasta", "Honey", "Dark Chocolate", "Almonds"}
+    };
+
+    private static final String[] ADJECTIVES = {
+            "Wireless", "Premium", "Classic", "Ultra", "Compact", "Pro", "Eco", "Smart",
+            "Portable", "Deluxe", "Essential", "Organic", "Lightweight", "Vintage", "Advanced", "Everyday"
+    };
+
+    private static final String[] BRANDS = {
+            "Apex", "Northwind", "Lumen", "Verde", "Solstice", "Kestrel", "Orbit", "Harbor",
+            "Juniper", "Atlas", "Nimbus", "Cobalt", "Meridian", "Pinnacle", "Willow", "Summit"
+    };
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${product.loadtest.catalog-size:10000}")
+    private int catalogSize;
+
+    @Value("${product.loadtest.seed:42}")
+    private long seed;
+
+    @Override
+    public void run(String... args) {
+        MongoCollection<Document> collection = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Product.class));
+        long existing = mongoTemplate.count(new Query(), Product.class);
+        if (existing == catalogSize) {
+            logger.info("Keeping existing catalog of {} products", existing);
+            return;
+        }
+        if (existing > 0) {
+            // deleteMany rather than drop, so the indexes stay
+            collection.deleteMany(new Document());
+        }
+
+        long start = System.currentTimeMillis();
+        Random random = new Random(seed);
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<Document> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < catalogSize; i++) {
+            Document document = new Document();
+            mongoTemplate.getConverter().write(generate(i, random, createdAt), document);
+            batch.add(document);
+            if (batch.size() == BATCH_SIZE) {
+                collection.insertMany(batch, new InsertManyOptions().ordered(false));
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            collection.insertMany(batch, new InsertManyOptions().ordered(false));
+        }
+        logger.info("Generated catalog of {} products (seed {}) in {} ms",
+                catalogSize, seed, System.currentTimeMillis() - start);
+    }
+
+    private Product generate(int i, Random random, LocalDateTime createdAt) {
+        int category = random.nextInt(CATEGORIES.length);
+        String noun = NOUNS[category][random.nextInt(NOUNS[category].length)];
+        String adjective = ADJECTIVES[random.nextInt(ADJECTIVES.length)];
+        String brand = BRANDS[random.nextInt(BRANDS.length)];
+        String name = brand + " " + adjective + " " + noun + " " + (100 + i % 900);
+
+        Product product = new Product();
+        product.setName(name);
+        product.setBrand(brand);
+        product.setCategory(CATEGORIES[category]);
+        product.setSku(String.format("LT-%08d", i));
+        product.setDescription(adjective + " " + noun.toLowerCase() + " by " + brand
+                + ", built for everyday use and backed by a two-year warranty");
+        Set<String> tags = new LinkedHashSet<>(Arrays.asList(
+                noun.toLowerCase(), adjective.toLowerCase(), brand.toLowerCase(), CATEGORIES[category].toLowerCase()));
+        product.setTags(tags);
+
+        BigDecimal price = BigDecimal.valueOf(5 + random.nextInt(2000) + random.nextInt(100) / 100.0)
+                .setScale(2, RoundingMode.HALF_UP);
+        product.setPrice(price);
+        if (random.nextInt(4) == 0) {
+            product.setSalePrice(price.multiply(BigDecimal.valueOf(0.85)).setScale(2, RoundingMode.HALF_UP));
+        }
+
+        product.setFeatured(random.nextInt(10) == 0);
+        product.setTrending(random.nextInt(15) == 0);
+        product.setRecommended(random.nextInt(8) == 0);
+
+        ProductImage image = new ProductImage("https://via.placeholder.com/400x400?text=" + name.replace(" ", "+"),
+                name + " product image", true);
+        product.setImages(new ArrayList<>(List.of(image)));
+
+        int quantity = random.nextInt(20) == 0 ? 0 : 1 + random.nextInt(200);
+        product.setInventory(new Inventory(quantity, quantity > 0));
+        product.setRating(new Rating(BigDecimal.valueOf(30 + random.nextInt(21), 1), random.nextInt(5000)));
+
+        product.setCreatedAt(createdAt.plusMinutes(i));
+        product.setUpdatedAt(createdAt.plusMinutes(i));
+        return product;
+    }
+}
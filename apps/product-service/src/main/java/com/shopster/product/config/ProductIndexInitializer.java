@@ -0,0 +1,55 @@
+package com.shopster.product.config;
+
+import com.shopster.product.document.Product;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the indexes declared on Product at startup, in every profile.
+ *
+ * Spring Data does not create annotated indexes unless auto-index-creation is
+ * enabled, and init-mongo.js only covers the dev database. Runs before the
+ * seeders and ProductIndexVerifier. An index that conflicts with an existing
+ * one (same keys, different name or options) is logged and left as it is; the
+ * verifier reports the query shapes that end up without an index.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ProductIndexInitializer implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductIndexInitializer.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public void run(String... args) {
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext()
+                .getRequiredPersistentEntity(Product.class);
+        MongoPersistentEntityIndexResolver resolver =
+                new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+        IndexOperations indexOps = mongoTemplate.indexOps(Product.class);
+
+        int created = 0;
+        for (IndexDefinition index : resolver.resolveIndexFor(entity.getTypeInformation())) {
+            try {
+                indexOps.ensureIndex(index);
+                created++;
+            } catch (DataAccessException e) {
+                logger.warn("Could not create product index {}: {}", index.getIndexKeys(), e.getMessage());
+            }
+        }
+        logger.info("Ensured {} product indexes", created);
+    }
+}
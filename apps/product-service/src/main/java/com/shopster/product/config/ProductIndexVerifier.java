@@ -0,0 +1,161 @@
+package com.shopster.product.config;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs explain() on every ProductRepository query shape at startup and reports
+ * any that fall back to a collection scan.
+ * Mode is controlled by product.index-verification.mode: fail (default), warn or off.
+ */
+@Component
+public class ProductIndexVerifier implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductIndexVerifier.class);
+
+    private static final String COLLECTION = "products";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${product.index-verification.mode:fail}")
+    private String mode;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if ("off".equalsIgnoreCase(mode)) {
+            return;
+        }
+
+        List<String> failures = new ArrayList<>();
+        for (Map.Entry<String, Document[]> shape : queryShapes().entrySet()) {
+            String name = shape.getKey();
+            Document filter = shape.getValue()[0];
+            Document sort = shape.getValue()[1];
+            try {
+                if (usesCollectionScan(explain(filter, sort))) {
+                    failures.add(name);
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Could not explain query shape {}: {}", name, e.getMessage());
+                failures.add(name);
+            }
+        }
+
+        if (failures.isEmpty()) {
+            logger.info("Index verification passed for {} product query shapes", queryShapes().size());
+            return;
+        }
+
+        String message = "Product queries without a supporting index (COLLSCAN): " + failures;
+        if ("fail".equalsIgnoreCase(mode)) {
+            throw new IllegalStateException(message);
+        }
+        logger.warn(message);
+    }
+
+    /**
+     * Filter and sort for each ProductRepository / ProductService query, using
+     * stored field names and representative values. Unfiltered scans such as
+     * findAll and the distinct lookups are intentionally not listed.
+     */
+    private Map<String, Document[]> queryShapes() {
+        Map<String, Document[]> shapes = new LinkedHashMap<>();
+        shapes.put("findBySku", shape(new Document("sku", "SKU"), null));
+        shapes.put("findByCategoryAndStatusAndVisibility",
+                shape(active().append("category", "Electronics"), null));
+        shapes.put("findByBrandAndStatusAndVisibility",
+                shape(active().append("brand", "Apple"), null));
+        shapes.put("findFeaturedProducts", shape(active().append("featured", true), null));
+        shapes.put("findTrendingProducts", shape(active().append("trending", true), null));
+        shapes.put("findRecommendedProducts", shape(active().append("recommended", true), null));
+        shapes.put("searchByText",
+                shape(active().append("$text", new Document("$search", "phone")), null));
+        shapes.put("findByPriceRange", shape(active().append("$or", Arrays.asList(
+                new Document("sale_price", new Document("$gte", "0").append("$lte", "100")),
+                new Document("$and", Arrays.asList(
+                        new Document("sale_price", null),
+                        new Document("price", new Document("$gte", "0").append("$lte", "100"))))
+        )), null));
+        shapes.put("findProductsWithDiscount", shape(active()
+                .append("sale_price", new Document("$ne", null).append("$lt", "$price")), null));
+        shapes.put("findByTagsIn",
+                shape(active().append("tags", new Document("$in", Arrays.asList("sale"))), null));
+        shapes.put("findInStockProducts", shape(active()
+                .append("inventory.inStock", true)
+                .append("inventory.quantity", new Document("$gt", 0)), null));
+        shapes.put("findLowStockProducts", shape(new Document("inventory.inStock", true)
+                .append("$expr", new Document("$lte",
+                        Arrays.asList("$inventory.quantity", "$inventory.lowStockThreshold"))), null));
+        shapes.put("searchProducts", shape(active()
+                .append("category", new Document("$in", Arrays.asList("Electronics")))
+                .append("name", new Document("$regex", "phone").append("$options", "i")), null));
+        shapes.put("countByStatusAndVisibility", shape(active(), null));
+        shapes.put("cursor:all(name)", shape(new Document(), new Document("name", 1).append("_id", 1)));
+        shapes.put("cursor:all(price)", shape(new Document(), new Document("price", 1).append("_id", 1)));
+        shapes.put("cursor:category(name)", shape(active().append("category", "Electronics"),
+                new Document("name", 1).append("_id", 1)));
+        shapes.put("cursor:category(price)", shape(active().append("category", "Electronics"),
+                new Document("price", 1).append("_id", 1)));
+        return shapes;
+    }
+
+    private Document active() {
+        return new Document("status", "ACTIVE").append("visibility", "PUBLIC");
+    }
+
+    private Document[] shape(Document filter, Document sort) {
+        return new Document[] { filter, sort };
+    }
+
+    private Document explain(Document filter, Document sort) {
+        Document find = new Document("find", COLLECTION).append("filter", filter);
+        if (sort != null) {
+            find.append("sort", sort);
+        }
+        return mongoTemplate.getDb().runCommand(
+                new Document("explain", find).append("verbosity", "queryPlanner"));
+    }
+
+    /**
+     * Walk the winning plan (classic or slot-based layout) looking for a COLLSCAN stage
+     */
+    private boolean usesCollectionScan(Document explainResult) {
+        Document queryPlanner = explainResult.get("queryPlanner", Document.class);
+        return queryPlanner != null && containsCollectionScan(queryPlanner.get("winningPlan"));
+    }
+
+    private boolean containsCollectionScan(Object node) {
+        if (node instanceof Document) {
+            Document document = (Document) node;
+            if ("COLLSCAN".equals(document.get("stage"))) {
+                return true;
+            }
+            for (Object child : document.values()) {
+                if (containsCollectionScan(child)) {
+                    return true;
+                }
+            }
+        } else if (node instanceof List) {
+            for (Object child : (List<?>) node) {
+                if (containsCollectionScan(child)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
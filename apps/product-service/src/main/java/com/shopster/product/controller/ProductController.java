@@ -1,5 +1,6 @@
 package com.shopster.product.controller;
 
+import com.shopster.product.dto.CursorPage;
 import com.shopster.product.dto.ProductSummaryDto;
 import com.shopster.product.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,6 +14,7 @@ import org.springframework.web.bind.annotation.*;
 
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
@@ -97,20 +99,54 @@ public class ProductController {
         return ResponseEntity.ok(products);
     }
 
+    /**
+     * Get all products with keyset pagination.
+     * Selected when a cursor parameter is present; pass an empty cursor for the first slice.
+     */
+    @GetMapping(params = "cursor")
+    public ResponseEntity<CursorPage<ProductSummaryDto>> getAllProductsByCursor(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size,
+            @RequestParam(defaultValue = "name") String sortBy,
+            @RequestParam(defaultValue = "ASC") String sortDir) {
+        
+        try {
+            CursorPage<ProductSummaryDto> products = productService.getAllProductsByCursor(
+                    cursor, size, sortBy, toDirection(sortDir));
+            return ResponseEntity.ok(products);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     /**
      * Search products by text
      */
     @GetMapping("/search")
     public ResponseEntity<Page<ProductSummaryDto>> searchProducts(
             @RequestParam String q,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
             @RequestParam(defaultValue = "0") @Min(0) int page,
             @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size) {
         
         Pageable pageable = PageRequest.of(page, size);
-        Page<ProductSummaryDto> products = productService.searchProducts(q, pageable);
+        Page<ProductSummaryDto> products = productService.searchProducts(q, category, minPrice, maxPrice, pageable);
         return ResponseEntity.ok(products);
     }
 
+    /**
+     * Autocomplete search terms by prefix
+     */
+    @GetMapping("/search/suggest")
+    public ResponseEntity<List<String>> suggestSearchTerms(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(50) int limit) {
+        List<String> suggestions = productService.suggestSearchTerms(prefix, limit);
+        return ResponseEntity.ok(suggestions);
+    }
+
     /**
      * Get products by category
      */
@@ -124,4 +160,29 @@ public class ProductController {
         Page<ProductSummaryDto> products = productService.getProductsByCategory(category, pageable);
         return ResponseEntity.ok(products);
     }
+
+    /**
+     * Get products by category with keyset pagination.
+     * Selected when a cursor parameter is present; pass an empty cursor for the first slice.
+     */
+    @GetMapping(value = "/category/{category}", params = "cursor")
+    public ResponseEntity<CursorPage<ProductSummaryDto>> getProductsByCategoryByCursor(
+            @PathVariable String category,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size,
+            @RequestParam(defaultValue = "name") String sortBy,
+            @RequestParam(defaultValue = "ASC") String sortDir) {
+        
+        try {
+            CursorPage<ProductSummaryDto> products = productService.getProductsByCategoryByCursor(
+                    category, cursor, size, sortBy, toDirection(sortDir));
+            return ResponseEntity.ok(products);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    private Sort.Direction toDirection(String sortDir) {
+        return sortDir.equalsIgnoreCase("DESC") ? Sort.Direction.DESC : Sort.Direction.ASC;
+    }
 }
\ No newline at end of file
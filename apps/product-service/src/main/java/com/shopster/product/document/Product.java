@@ -5,6 +5,8 @@ import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.index.TextIndexed;
 
@@ -20,6 +22,23 @@ import java.util.Set;
  * Stored in MongoDB for flexible schema and search capabilities.
  */
 @Document(collection = "products")
+@CompoundIndexes({
+    // Equality filters of the ProductRepository queries (see ProductIndexVerifier)
+    @CompoundIndex(def = "{'featured': 1, 'status': 1, 'visibility': 1}"),
+    @CompoundIndex(def = "{'trending': 1, 'status': 1, 'visibility': 1}"),
+    @CompoundIndex(def = "{'recommended': 1, 'status': 1, 'visibility': 1}"),
+    @CompoundIndex(def = "{'brand': 1, 'status': 1, 'visibility': 1}"),
+    @CompoundIndex(def = "{'tags': 1, 'status': 1, 'visibility': 1}"),
+    @CompoundIndex(def = "{'inventory.inStock': 1, 'status': 1, 'visibility': 1, 'inventory.quantity': 1}"),
+    @CompoundIndex(def = "{'status': 1, 'visibility': 1, 'price': 1}"),
+    // Keyset pagination: sort key plus _id tiebreaker, for the listing and category filters
+    @CompoundIndex(name = "name_id", def = "{'name': 1, '_id': 1}"),
+    @CompoundIndex(name = "price_id", def = "{'price': 1, '_id': 1}"),
+    @CompoundIndex(name = "category_status_visibility_name_id",
+                   def = "{'category': 1, 'status': 1, 'visibility': 1, 'name': 1, '_id': 1}"),
+    @CompoundIndex(name = "category_status_visibility_price_id",
+                   def = "{'category': 1, 'status': 1, 'visibility': 1, 'price': 1, '_id': 1}")
+})
 public class Product {
 
     @Id
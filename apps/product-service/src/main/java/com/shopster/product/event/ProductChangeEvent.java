@@ -0,0 +1,154 @@
+package com.shopster.product.event;
+
+import com.shopster.product.document.Product;
+import com.shopster.product.repository.ProductRepository;
+import org.bson.Document;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * A change to the products collection, published as a Spring application event.
+ * Changed fields use stored (MongoDB) field names with array positions removed,
+ * e.g. "sale_price" or "images.url". A null set means the changed fields are not
+ * known (inserts, replacements, saves) and every field should be treated as changed.
+ */
+public class ProductChangeEvent {
+
+    /**
+     * Stored fields that make up a product listing: the summary projection plus
+     * the status/visibility flags that decide whether a product is listed at all.
+     */
+    public static final Set<String> LISTING_FIELDS;
+
+    static {
+        Set<String> fields = new LinkedHashSet<>(Document.parse(ProductRepository.SUMMARY_FIELDS).keySet());
+        fields.add("status");
+        fields.add("visibility");
+        LISTING_FIELDS = Collections.unmodifiableSet(fields);
+    }
+
+    public enum Type {
+        INSERT,
+        UPDATE,
+        DELETE,
+        /** The change history was lost or the collection was dropped; rebuild everything */
+        RELOAD
+    }
+
+    private final Type type;
+    private final String productId;
+    private final Product product;
+    private final Set<String> changedFields;
+
+    private ProductChangeEvent(Type type, String productId, Product product, Set<String> changedFields) {
+        this.type = type;
+        this.productId = productId;
+        this.product = product;
+        this.changedFields = changedFields;
+    }
+
+    public static ProductChangeEvent inserted(Product product) {
+        return new ProductChangeEvent(Type.INSERT, product.getId(), product, null);
+    }
+
+    /**
+     * @param product the product after the change, or null if it no longer exists
+     * @param changedFields changed stored field paths, or null if unknown
+     */
+    public static ProductChangeEvent updated(String productId, Product product, Collection<String> changedFields) {
+        Set<String> fields = null;
+        if (changedFields != null) {
+            fields = new LinkedHashSet<>();
+            for (String field : changedFields) {
+                fields.add(stripArrayPositions(field));
+            }
+            fields = Collections.unmodifiableSet(fields);
+        }
+        return new ProductChangeEvent(Type.UPDATE, productId, product, fields);
+    }
+
+    public static ProductChangeEvent deleted(String productId) {
+        return new ProductChangeEvent(Type.DELETE, productId, null, null);
+    }
+
+    public static ProductChangeEvent reload() {
+        return new ProductChangeEvent(Type.RELOAD, null, null, null);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getProductId() {
+        return productId;
+    }
+
+    /**
+     * Product state after the change; null for deletes, reloads and updates to
+     * products that were removed before the change could be read back
+     */
+    public Product getProduct() {
+        return product;
+    }
+
+    public Set<String> getChangedFields() {
+        return changedFields;
+    }
+
+    /**
+     * Whether the product exists after the change and is ACTIVE and PUBLIC
+     */
+    public boolean isListed() {
+        return product != null
+                && product.getStatus() == Product.ProductStatus.ACTIVE
+                && product.getVisibility() == Product.ProductVisibility.PUBLIC;
+    }
+
+    /**
+     * Whether the change may have modified any of the given stored fields.
+     * A field matches when it equals a changed path or one is nested in the other.
+     */
+    public boolean touches(Collection<String> fields) {
+        if (type != Type.UPDATE || changedFields == null) {
+            return true;
+        }
+        for (String changed : changedFields) {
+            for (String field : fields) {
+                if (changed.equals(field) || changed.startsWith(field + ".") || field.startsWith(changed + ".")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static String stripArrayPositions(String path) {
+        if (path.indexOf('.') < 0) {
+            return path;
+        }
+        StringBuilder stripped = new StringBuilder(path.length());
+        for (String segment : path.split("\\.")) {
+            if (!segment.isEmpty() && segment.chars().allMatch(Character::isDigit)) {
+                continue;
+            }
+            if (stripped.length() > 0) {
+                stripped.append('.');
+            }
+            stripped.append(segment);
+        }
+        return stripped.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "ProductChangeEvent{" +
+                "type=" + type +
+                ", productId='" + productId + '\'' +
+                ", changedFields=" + changedFields +
+                '}';
+    }
+}
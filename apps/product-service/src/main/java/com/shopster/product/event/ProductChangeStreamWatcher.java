@@ -0,0 +1,284 @@
+package com.shopster.product.event;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.UpdateDescription;
+import com.shopster.product.document.Product;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tails a MongoDB change stream on the products collection and republishes each
+ * change as a {@link ProductChangeEvent}. Events are delivered on the watcher
+ * thread in oplog order. Resume tokens are persisted through
+ * {@link ProductResumeTokenStore}; delivery is at-least-once, so subscribers
+ * must be idempotent.
+ *
+ * Change streams need a replica set. On a standalone server the watcher stops
+ * and {@link ProductWriteEventBridge} keeps publishing events for writes made
+ * by this service.
+ */
+@Component
+public class ProductChangeStreamWatcher implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductChangeStreamWatcher.class);
+
+    private static final String COLLECTION = "products";
+
+    // MongoDB error codes
+    private static final int NOT_A_REPLICA_SET = 40573;
+    private static final int INVALID_RESUME_TOKEN = 260;
+    private static final int CHANGE_STREAM_FATAL_ERROR = 280;
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ProductResumeTokenStore tokenStore;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${product.change-stream.enabled:true}")
+    private boolean enabled;
+
+    @Value("${product.change-stream.retry-delay-ms:5000}")
+    private long retryDelayMs;
+
+    @Value("${product.change-stream.token-flush-interval-ms:5000}")
+    private long tokenFlushIntervalMs;
+
+    private volatile boolean running;
+    private volatile boolean active;
+    private Thread thread;
+
+    private BsonDocument pendingToken;
+    private long lastFlushMillis;
+
+    @Override
+    public synchronized void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::watchLoop, "product-change-stream");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Whether a change stream cursor is currently open and delivering events
+     */
+    public boolean isActive() {
+        return active;
+    }
+
+    private void watchLoop() {
+        while (running) {
+            try {
+                watch();
+            } catch (MongoCommandException e) {
+                active = false;
+                if (e.getErrorCode() == NOT_A_REPLICA_SET) {
+                    logger.info("MongoDB is not a replica set; product change stream disabled, "
+                            + "using application write events instead");
+                    running = false;
+                    return;
+                }
+                if (e.getErrorCode() == CHANGE_STREAM_HISTORY_LOST
+                        || e.getErrorCode() == INVALID_RESUME_TOKEN
+                        || e.getErrorCode() == CHANGE_STREAM_FATAL_ERROR) {
+                    logger.warn("Product change stream cannot resume ({}); reloading product state",
+                            e.getErrorCodeName());
+                    restartFromNow();
+                    continue;
+                }
+                retryLater(e);
+            } catch (RuntimeException e) {
+                active = false;
+                retryLater(e);
+            }
+        }
+    }
+
+    private void watch() {
+        ChangeStreamIterable<Document> stream = mongoTemplate.getCollection(COLLECTION).watch()
+                .fullDocument(FullDocument.UPDATE_LOOKUP)
+                .maxAwaitTime(1, TimeUnit.SECONDS);
+        BsonDocument resumeToken = tokenStore.load();
+        if (resumeToken != null) {
+            stream = stream.resumeAfter(resumeToken);
+        }
+
+        try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = stream.cursor()) {
+            active = true;
+            logger.info("Watching product changes{}", resumeToken != null ? " from stored resume token" : "");
+            while (running) {
+                ChangeStreamDocument<Document> change = cursor.tryNext();
+                if (change != null && !dispatch(change)) {
+                    // Stream invalidated (drop/rename); open a new one from now
+                    tokenStore.clear();
+                    pendingToken = null;
+                    return;
+                }
+                // The post-batch token advances even while idle, which keeps the
+                // stored position inside the oplog window on quiet collections
+                BsonDocument token = cursor.getResumeToken();
+                if (token != null) {
+                    pendingToken = token;
+                }
+                flushToken(false);
+            }
+        } finally {
+            active = false;
+            flushToken(true);
+        }
+    }
+
+    /**
+     * Publish one change; returns false if the stream has been invalidated
+     */
+    private boolean dispatch(ChangeStreamDocument<Document> change) {
+        switch (change.getOperationType()) {
+            case INSERT:
+                publish(ProductChangeEvent.inserted(read(change.getFullDocument())));
+                return true;
+            case UPDATE:
+                publish(ProductChangeEvent.updated(documentId(change),
+                        read(change.getFullDocument()), changedFields(change.getUpdateDescription())));
+                return true;
+            case REPLACE:
+                publish(ProductChangeEvent.updated(documentId(change),
+                        read(change.getFullDocument()), null));
+                return true;
+            case DELETE:
+                publish(ProductChangeEvent.deleted(documentId(change)));
+                return true;
+            case INVALIDATE:
+                // Follows a drop or rename of the collection
+                publish(ProductChangeEvent.reload());
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Deliver an event to subscribers. A failing subscriber is logged rather than
+     * rethrown so one bad event cannot wedge the stream in a replay loop.
+     */
+    private void publish(ProductChangeEvent event) {
+        try {
+            eventPublisher.publishEvent(event);
+        } catch (RuntimeException e) {
+            logger.error("Product change subscriber failed for {}", event, e);
+        }
+    }
+
+    private Product read(Document document) {
+        return document != null ? mongoTemplate.getConverter().read(Product.class, document) : null;
+    }
+
+    private List<String> changedFields(UpdateDescription description) {
+        if (description == null) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        if (description.getUpdatedFields() != null) {
+            fields.addAll(description.getUpdatedFields().keySet());
+        }
+        if (description.getRemovedFields() != null) {
+            fields.addAll(description.getRemovedFields());
+        }
+        return fields;
+    }
+
+    private String documentId(ChangeStreamDocument<Document> change) {
+        BsonDocument key = change.getDocumentKey();
+        BsonValue id = key != null ? key.get("_id") : null;
+        if (id == null) {
+            return null;
+        }
+        if (id.isObjectId()) {
+            return id.asObjectId().getValue().toHexString();
+        }
+        return id.isString() ? id.asString().getValue() : id.toString();
+    }
+
+    /**
+     * Persist the latest token, at most once per flush interval unless forced.
+     * Replaying a few seconds of events after a crash is harmless.
+     */
+    private void flushToken(boolean force) {
+        long now = System.currentTimeMillis();
+        if (pendingToken == null || (!force && now - lastFlushMillis < tokenFlushIntervalMs)) {
+            return;
+        }
+        try {
+            tokenStore.save(pendingToken);
+            pendingToken = null;
+            lastFlushMillis = now;
+        } catch (RuntimeException e) {
+            logger.warn("Failed to persist product change stream resume token: {}", e.getMessage());
+        }
+    }
+
+    private void restartFromNow() {
+        pendingToken = null;
+        try {
+            tokenStore.clear();
+        } catch (RuntimeException e) {
+            logger.warn("Failed to clear product change stream resume token: {}", e.getMessage());
+        }
+        publish(ProductChangeEvent.reload());
+    }
+
+    private void retryLater(RuntimeException e) {
+        if (!running) {
+            return;
+        }
+        logger.warn("Product change stream interrupted, retrying in {} ms: {}", retryDelayMs, e.getMessage());
+        try {
+            Thread.sleep(retryDelayMs);
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.shopster.product.event;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOptions;
+import org.bson.BsonDateTime;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Persists the last processed change-stream resume token so the products watcher
+ * picks up where it left off after a reconnect or restart.
+ */
+@Component
+public class ProductResumeTokenStore {
+
+    static final String COLLECTION = "change_stream_tokens";
+    static final String STREAM_ID = "products";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * Get the stored resume token, or null if the stream has never been consumed
+     */
+    public BsonDocument load() {
+        BsonDocument state = tokens().find(Filters.eq("_id", STREAM_ID)).first();
+        return state != null && state.isDocument("token") ? state.getDocument("token") : null;
+    }
+
+    public void save(BsonDocument token) {
+        BsonDocument state = new BsonDocument("_id", new BsonString(STREAM_ID))
+                .append("token", token)
+                .append("updatedAt", new BsonDateTime(System.currentTimeMillis()));
+        tokens().replaceOne(Filters.eq("_id", STREAM_ID), state, new ReplaceOptions().upsert(true));
+    }
+
+    public void clear() {
+        tokens().deleteOne(Filters.eq("_id", STREAM_ID));
+    }
+
+    private MongoCollection<BsonDocument> tokens() {
+        return mongoTemplate.getDb().getCollection(COLLECTION, BsonDocument.class);
+    }
+}
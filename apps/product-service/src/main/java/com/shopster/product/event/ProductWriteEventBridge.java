@@ -0,0 +1,43 @@
+package com.shopster.product.event;
+
+import com.shopster.product.document.Product;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes {@link ProductChangeEvent}s for products written through Spring Data
+ * while the change stream is not active (standalone MongoDB, disabled, or
+ * reconnecting). Once the stream is up it sees every write, including these.
+ */
+@Component
+public class ProductWriteEventBridge extends AbstractMongoEventListener<Product> {
+
+    @Autowired
+    private ProductChangeStreamWatcher changeStreamWatcher;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Product> event) {
+        if (!changeStreamWatcher.isActive()) {
+            Product product = event.getSource();
+            eventPublisher.publishEvent(ProductChangeEvent.updated(product.getId(), product, null));
+        }
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Product> event) {
+        if (changeStreamWatcher.isActive()) {
+            return;
+        }
+        Object id = event.getSource().get("_id");
+        eventPublisher.publishEvent(id != null
+                ? ProductChangeEvent.deleted(id.toString())
+                : ProductChangeEvent.reload());
+    }
+}
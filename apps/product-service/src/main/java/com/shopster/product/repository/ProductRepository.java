@@ -17,6 +17,15 @@ import java.util.Optional;
 @Repository
 public interface ProductRepository extends MongoRepository<Product, String> {
     
+    /**
+     * Field projection for listing reads. Only the fields needed to build a
+     * ProductSummaryDto are loaded; specifications, variants, shipping, seo and
+     * image metadata stay in the database.
+     */
+    String SUMMARY_FIELDS = "{'name': 1, 'brand': 1, 'category': 1, 'price': 1, 'sale_price': 1, " +
+            "'images.url': 1, 'images.isPrimary': 1, 'rating.average': 1, 'rating.count': 1, " +
+            "'inventory.quantity': 1, 'inventory.inStock': 1, 'featured': 1, 'trending': 1}";
+    
     /**
      * Find product by SKU
      */
@@ -36,6 +45,18 @@ public interface ProductRepository extends MongoRepository<Product, String> {
             Product.ProductVisibility visibility, 
             Pageable pageable);
     
+    /**
+     * Find active public products by category, loading summary fields only
+     */
+    @Query(value = "{'category': ?0, 'status': 'ACTIVE', 'visibility': 'PUBLIC'}", fields = SUMMARY_FIELDS)
+    Page<Product> findActiveSummariesByCategory(String category, Pageable pageable);
+    
+    /**
+     * Find all products, loading summary fields only
+     */
+    @Query(value = "{}", fields = SUMMARY_FIELDS)
+    Page<Product> findAllSummaries(Pageable pageable);
+    
     /**
      * Find products by brand
      */
@@ -48,25 +69,25 @@ public interface ProductRepository extends MongoRepository<Product, String> {
     /**
      * Find featured products
      */
-    @Query("{'featured': true, 'status': 'ACTIVE', 'visibility': 'PUBLIC'}")
-    Page<Product> findFeaturedProducts(Pageable pageable);
+    @Query(value = "{'featured': true, 'status': 'ACTIVE', 'visibility': 'PUBLIC'}", fields = SUMMARY_FIELDS)
+    List<Product> findFeaturedProducts(Pageable pageable);
     
     /**
      * Find trending products
      */
-    @Query("{'trending': true, 'status': 'ACTIVE', 'visibility': 'PUBLIC'}")
-    Page<Product> findTrendingProducts(Pageable pageable);
+    @Query(value = "{'trending': true, 'status': 'ACTIVE', 'visibility': 'PUBLIC'}", fields = SUMMARY_FIELDS)
+    List<Product> findTrendingProducts(Pageable pageable);
     
     /**
      * Find recommended products
      */
-    @Query("{'recommended': true, 'status': 'ACTIVE', 'visibility': 'PUBLIC'}")
-    Page<Product> findRecommendedProducts(Pageable pageable);
+    @Query(value = "{'recommended': true, 'status': 'ACTIVE', 'visibility': 'PUBLIC'}", fields = SUMMARY_FIELDS)
+    List<Product> findRecommendedProducts(Pageable pageable);
     
     /**
      * Search products by text
      */
-    @Query("{'$text': {'$search': ?0}, 'status': 'ACTIVE', 'visibility': 'PUBLIC'}")
+    @Query(value = "{'$text': {'$search': ?0}, 'status': 'ACTIVE', 'visibility': 'PUBLIC'}", fields = SUMMARY_FIELDS)
     Page<Product> searchByText(String searchText, Pageable pageable);
     
     /**
@@ -0,0 +1,53 @@
+package com.shopster.product.search;
+
+import java.util.Arrays;
+
+/**
+ * Growable posting list of (document ordinal, term frequency) pairs held in
+ * primitive arrays. Ordinals are appended in increasing order.
+ */
+final class IntPostingList {
+
+    private int[] docs = new int[4];
+    private int[] freqs = new int[4];
+    private int size;
+    private int live;
+
+    void add(int doc, int freq) {
+        if (size == docs.length) {
+            int capacity = size + (size >> 1) + 1;
+            docs = Arrays.copyOf(docs, capacity);
+            freqs = Arrays.copyOf(freqs, capacity);
+        }
+        docs[size] = doc;
+        freqs[size] = freq;
+        size++;
+        live++;
+    }
+
+    /**
+     * Record that one of the documents in this list was removed from the index
+     */
+    void markRemoved() {
+        live--;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Number of live documents containing the term (document frequency)
+     */
+    int liveCount() {
+        return live;
+    }
+
+    int doc(int index) {
+        return docs[index];
+    }
+
+    int freq(int index) {
+        return freqs[index];
+    }
+}
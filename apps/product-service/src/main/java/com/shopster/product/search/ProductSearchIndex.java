@@ -0,0 +1,250 @@
+package com.shopster.product.search;
+
+import com.shopster.product.dto.ProductSummaryDto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over product text with BM25 ranking.
+ * Documents are addressed by dense int ordinals so posting lists stay primitive.
+ * Removed or replaced documents are tombstoned and reclaimed by periodic compaction.
+ * Readers share a read lock; incremental updates take the write lock.
+ */
+public class ProductSearchIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int MIN_COMPACTION_TOMBSTONES = 1024;
+    private static final int MAX_SUGGEST_SCAN = 512;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, IntPostingList> postings = new TreeMap<>();
+    private final Map<String, Integer> ordinalsById = new HashMap<>();
+    private final List<SearchDocument> documents = new ArrayList<>();
+    private long totalLength;
+    private int tombstones;
+
+    /**
+     * Add a document, replacing any previous version with the same id
+     */
+    public void upsert(SearchDocument document) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(document.getId());
+            int ordinal = documents.size();
+            documents.add(document);
+            ordinalsById.put(document.getId(), ordinal);
+            addPostings(document, ordinal);
+            totalLength += document.getLength();
+            if (tombstones > MIN_COMPACTION_TOMBSTONES && tombstones > documents.size() / 4) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a document by product id; no-op if it is not indexed
+     */
+    public void remove(String id) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinalsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rank documents matching any query term with BM25, applying optional
+     * category and effective-price filters, and return one page of hits.
+     */
+    public SearchResult search(String query, String category, Double minPrice, Double maxPrice,
+                               int offset, int limit) {
+        Set<String> queryTerms = new LinkedHashSet<>(Tokenizer.tokenize(query));
+        String categoryFilter = category != null ? category.toLowerCase(Locale.ROOT) : null;
+
+        lock.readLock().lock();
+        try {
+            int liveDocs = ordinalsById.size();
+            if (queryTerms.isEmpty() || liveDocs == 0) {
+                return new SearchResult(new ArrayList<>(), 0);
+            }
+            float avgLength = (float) totalLength / liveDocs;
+
+            float[] scores = new float[documents.size()];
+            int[] matched = new int[16];
+            int matchedCount = 0;
+
+            for (String term : queryTerms) {
+                IntPostingList list = postings.get(term);
+                if (list == null || list.liveCount() == 0) {
+                    continue;
+                }
+                float idf = (float) Math.log(1 + (liveDocs - list.liveCount() + 0.5) / (list.liveCount() + 0.5));
+                for (int i = 0; i < list.size(); i++) {
+                    int ordinal = list.doc(i);
+                    SearchDocument document = documents.get(ordinal);
+                    if (document == null || !matchesFilters(document, categoryFilter, minPrice, maxPrice)) {
+                        continue;
+                    }
+                    int tf = list.freq(i);
+                    float norm = K1 * (1 - B + B * document.getLength() / avgLength);
+                    if (scores[ordinal] == 0f) {
+                        if (matchedCount == matched.length) {
+                            matched = Arrays.copyOf(matched, matchedCount * 2);
+                        }
+                        matched[matchedCount++] = ordinal;
+                    }
+                    scores[ordinal] += idf * tf * (K1 + 1) / (tf + norm);
+                }
+            }
+
+            // Pack (score, ordinal) into longs so ranking is a primitive sort;
+            // positive float bit patterns sort in numeric order.
+            long[] ranked = new long[matchedCount];
+            for (int i = 0; i < matchedCount; i++) {
+                int ordinal = matched[i];
+                ranked[i] = ((long) Float.floatToIntBits(scores[ordinal]) << 32)
+                        | (Integer.MAX_VALUE - ordinal);
+            }
+            Arrays.sort(ranked);
+
+            List<ProductSummaryDto> hits = new ArrayList<>(Math.min(limit, matchedCount));
+            for (int rank = offset; rank < matchedCount && hits.size() < limit; rank++) {
+                int ordinal = Integer.MAX_VALUE - (int) ranked[matchedCount - 1 - rank];
+                hits.add(documents.get(ordinal).getSummary());
+            }
+            return new SearchResult(hits, matchedCount);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Complete a prefix to indexed terms, most frequent first
+     */
+    public List<String> suggest(String prefix, int limit) {
+        List<String> suggestions = new ArrayList<>();
+        if (prefix == null || prefix.isEmpty()) {
+            return suggestions;
+        }
+        String lower = prefix.toLowerCase(Locale.ROOT);
+
+        lock.readLock().lock();
+        try {
+            NavigableMap<String, IntPostingList> range =
+                    postings.subMap(lower, true, lower + Character.MAX_VALUE, true);
+            List<Map.Entry<String, IntPostingList>> candidates = new ArrayList<>();
+            for (Map.Entry<String, IntPostingList> entry : range.entrySet()) {
+                if (entry.getValue().liveCount() > 0) {
+                    candidates.add(entry);
+                }
+                if (candidates.size() >= MAX_SUGGEST_SCAN) {
+                    break;
+                }
+            }
+            candidates.sort((a, b) -> Integer.compare(b.getValue().liveCount(), a.getValue().liveCount()));
+            for (int i = 0; i < candidates.size() && i < limit; i++) {
+                suggestions.add(candidates.get(i).getKey());
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean matchesFilters(SearchDocument document, String category, Double minPrice, Double maxPrice) {
+        if (category != null && !category.equals(document.getCategory())) {
+            return false;
+        }
+        if (minPrice != null && document.getPrice() < minPrice) {
+            return false;
+        }
+        return maxPrice == null || document.getPrice() <= maxPrice;
+    }
+
+    private void removeInternal(String id) {
+        Integer ordinal = ordinalsById.remove(id);
+        if (ordinal == null) {
+            return;
+        }
+        SearchDocument previous = documents.set(ordinal, null);
+        for (String term : previous.getTerms()) {
+            postings.get(term).markRemoved();
+        }
+        totalLength -= previous.getLength();
+        tombstones++;
+    }
+
+    private void addPostings(SearchDocument document, int ordinal) {
+        String[] terms = document.getTerms();
+        int[] freqs = document.getFreqs();
+        for (int i = 0; i < terms.length; i++) {
+            postings.computeIfAbsent(terms[i], t -> new IntPostingList()).add(ordinal, freqs[i]);
+        }
+    }
+
+    /**
+     * Reassign dense ordinals to live documents and rebuild posting lists
+     */
+    private void compact() {
+        List<SearchDocument> live = new ArrayList<>(ordinalsById.size());
+        for (SearchDocument document : documents) {
+            if (document != null) {
+                live.add(document);
+            }
+        }
+        documents.clear();
+        ordinalsById.clear();
+        postings.clear();
+        for (SearchDocument document : live) {
+            int ordinal = documents.size();
+            documents.add(document);
+            ordinalsById.put(document.getId(), ordinal);
+            addPostings(document, ordinal);
+        }
+        tombstones = 0;
+    }
+
+    /**
+     * One page of ranked hits plus the total number of matches
+     */
+    public static class SearchResult {
+        private final List<ProductSummaryDto> hits;
+        private final int total;
+
+        public SearchResult(List<ProductSummaryDto> hits, int total) {
+            this.hits = hits;
+            this.total = total;
+        }
+
+        public List<ProductSummaryDto> getHits() {
+            return hits;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+    }
+}
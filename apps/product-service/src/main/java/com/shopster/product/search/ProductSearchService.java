@@ -0,0 +1,154 @@
+package com.shopster.product.search;
+
+import com.shopster.product.document.Product;
+import com.shopster.product.dto.ProductSummaryDto;
+import com.shopster.product.event.ProductChangeEvent;
+import com.shopster.product.repository.ProductRepository;
+import com.shopster.product.service.ProductSummaryMapper;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Owns the in-process product search index: builds it from Mongo once the
+ * application is ready and keeps it current from product change events.
+ * Only ACTIVE/PUBLIC products are indexed.
+ */
+@Service
+public class ProductSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchService.class);
+
+    private static final int NAME_WEIGHT = 3;
+    private static final int BRAND_WEIGHT = 2;
+    private static final int TAG_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    // Summary fields plus the remaining @TextIndexed fields
+    private static final Document INDEX_FIELDS = Document.parse(ProductRepository.SUMMARY_FIELDS)
+            .append("description", 1)
+            .append("tags", 1);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ProductSummaryMapper summaryMapper;
+
+    private final Object changeLock = new Object();
+
+    private volatile ProductSearchIndex index = new ProductSearchIndex();
+    private volatile boolean ready;
+    private List<ProductChangeEvent> changesDuringRebuild;
+
+    /**
+     * Build a fresh index from the products collection and swap it in.
+     * Change events that arrive while the scan runs are replayed onto the new
+     * index before the swap so none are lost.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        ProductSearchIndex fresh = new ProductSearchIndex();
+        Query query = new BasicQuery(
+                new Document("status", Product.ProductStatus.ACTIVE.name())
+                        .append("visibility", Product.ProductVisibility.PUBLIC.name()),
+                new Document(INDEX_FIELDS));
+        synchronized (changeLock) {
+            changesDuringRebuild = new ArrayList<>();
+        }
+        try (CloseableIterator<Product> products = mongoTemplate.stream(query, Product.class)) {
+            products.forEachRemaining(product -> fresh.upsert(toSearchDocument(product)));
+        } catch (RuntimeException e) {
+            synchronized (changeLock) {
+                changesDuringRebuild = null;
+            }
+            logger.warn("Failed to build product search index, keeping previous index: {}", e.getMessage());
+            return;
+        }
+        synchronized (changeLock) {
+            for (ProductChangeEvent event : changesDuringRebuild) {
+                apply(fresh, event);
+            }
+            changesDuringRebuild = null;
+            index = fresh;
+        }
+        ready = true;
+        logger.info("Built product search index with {} products in {} ms",
+                fresh.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Keep the index current with product changes
+     */
+    @EventListener
+    public void onProductChanged(ProductChangeEvent event) {
+        if (event.getType() == ProductChangeEvent.Type.RELOAD) {
+            rebuild();
+            return;
+        }
+        synchronized (changeLock) {
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(event);
+            }
+            apply(index, event);
+        }
+    }
+
+    private void apply(ProductSearchIndex target, ProductChangeEvent event) {
+        if (event.isListed()) {
+            target.upsert(toSearchDocument(event.getProduct()));
+        } else if (event.getProductId() != null) {
+            target.remove(event.getProductId());
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Ranked search with optional category and price filters
+     */
+    public Page<ProductSummaryDto> search(String query, String category,
+                                          BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable) {
+        ProductSearchIndex.SearchResult result = index.search(query, category,
+                minPrice != null ? minPrice.doubleValue() : null,
+                maxPrice != null ? maxPrice.doubleValue() : null,
+                (int) pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(result.getHits(), pageable, result.getTotal());
+    }
+
+    /**
+     * Prefix autocomplete over indexed terms
+     */
+    public List<String> suggest(String prefix, int limit) {
+        return index.suggest(prefix, limit);
+    }
+
+    private SearchDocument toSearchDocument(Product product) {
+        return new SearchDocument.Builder(product.getId(), summaryMapper.toSummaryDto(product))
+                .field(product.getName(), NAME_WEIGHT)
+                .field(product.getBrand(), BRAND_WEIGHT)
+                .fields(product.getTags(), TAG_WEIGHT)
+                .field(product.getDescription(), DESCRIPTION_WEIGHT)
+                .category(product.getCategory())
+                .price(product.getEffectivePrice() != null ? product.getEffectivePrice().doubleValue() : 0d)
+                .build();
+    }
+}
@@ -0,0 +1,117 @@
+package com.shopster.product.search;
+
+import com.shopster.product.dto.ProductSummaryDto;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Indexed form of a product: weighted term frequencies plus the fields needed
+ * to filter and render a hit without going back to the database.
+ */
+public final class SearchDocument {
+
+    private final String id;
+    private final ProductSummaryDto summary;
+    private final String category;
+    private final double price;
+    private final String[] terms;
+    private final int[] freqs;
+    private final int length;
+
+    private SearchDocument(String id, ProductSummaryDto summary, String category, double price,
+                           String[] terms, int[] freqs, int length) {
+        this.id = id;
+        this.summary = summary;
+        this.category = category;
+        this.price = price;
+        this.terms = terms;
+        this.freqs = freqs;
+        this.length = length;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public ProductSummaryDto getSummary() {
+        return summary;
+    }
+
+    String getCategory() {
+        return category;
+    }
+
+    double getPrice() {
+        return price;
+    }
+
+    String[] getTerms() {
+        return terms;
+    }
+
+    int[] getFreqs() {
+        return freqs;
+    }
+
+    int getLength() {
+        return length;
+    }
+
+    /**
+     * Builder accumulating weighted terms per field
+     */
+    public static class Builder {
+        private final String id;
+        private final ProductSummaryDto summary;
+        private final Map<String, Integer> termFreqs = new HashMap<>();
+        private String category;
+        private double price;
+        private int length;
+
+        public Builder(String id, ProductSummaryDto summary) {
+            this.id = id;
+            this.summary = summary;
+        }
+
+        public Builder field(String text, int weight) {
+            for (String term : Tokenizer.tokenize(text)) {
+                termFreqs.merge(term, weight, Integer::sum);
+                length += weight;
+            }
+            return this;
+        }
+
+        public Builder fields(Iterable<String> values, int weight) {
+            if (values != null) {
+                for (String value : values) {
+                    field(value, weight);
+                }
+            }
+            return this;
+        }
+
+        public Builder category(String category) {
+            this.category = category != null ? category.toLowerCase(Locale.ROOT) : null;
+            return this;
+        }
+
+        public Builder price(double price) {
+            this.price = price;
+            return this;
+        }
+
+        public SearchDocument build() {
+            String[] terms = new String[termFreqs.size()];
+            int[] freqs = new int[termFreqs.size()];
+            int i = 0;
+            for (Map.Entry<String, Integer> entry : termFreqs.entrySet()) {
+                terms[i] = entry.getKey();
+                freqs[i] = entry.getValue();
+                i++;
+            }
+            return new SearchDocument(id, summary, category, price, terms, freqs, length);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.shopster.product.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits text into lowercase alphanumeric terms for the search index
+ */
+public final class Tokenizer {
+
+    private static final int MIN_TERM_LENGTH = 2;
+
+    private Tokenizer() {}
+
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean termChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (termChar && start < 0) {
+                start = i;
+            } else if (!termChar && start >= 0) {
+                if (i - start >= MIN_TERM_LENGTH) {
+                    terms.add(lower.substring(start, i));
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,63 @@
+package com.shopster.product.service;
+
+import org.bson.BsonInvalidOperationException;
+import org.bson.Document;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonParseException;
+import org.bson.json.JsonWriterSettings;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in a keyset-paginated product listing: the last sort key value and
+ * document id that were returned. Encoded as Base64 extended JSON so BSON types
+ * (ObjectId, dates, decimals) survive the round trip unchanged.
+ */
+public class ProductCursor {
+
+    private static final JsonWriterSettings JSON_SETTINGS = JsonWriterSettings.builder()
+            .outputMode(JsonMode.EXTENDED)
+            .build();
+
+    private final Object sortValue;
+    private final Object id;
+
+    public ProductCursor(Object sortValue, Object id) {
+        this.sortValue = sortValue;
+        this.id = id;
+    }
+
+    public Object getSortValue() {
+        return sortValue;
+    }
+
+    public Object getId() {
+        return id;
+    }
+
+    /**
+     * Encode this position as an opaque URL-safe token
+     */
+    public String encode() {
+        Document document = new Document("k", sortValue).append("id", id);
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(document.toJson(JSON_SETTINGS).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a token produced by {@link #encode()}
+     */
+    public static ProductCursor decode(String token) {
+        try {
+            String json = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            Document document = Document.parse(json);
+            if (!document.containsKey("k") || document.get("id") == null) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            return new ProductCursor(document.get("k"), document.get("id"));
+        } catch (JsonParseException | BsonInvalidOperationException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+}
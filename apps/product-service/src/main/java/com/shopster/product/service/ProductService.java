@@ -1,19 +1,44 @@
 package com.shopster.product.service;
 
+import com.shopster.product.config.CacheConfig;
 import com.shopster.product.document.Product;
+import com.shopster.product.dto.CursorPage;
 import com.shopster.product.dto.ProductSummaryDto;
+import com.shopster.product.event.ProductChangeEvent;
 import com.shopster.product.repository.ProductRepository;
+import com.shopster.product.search.ProductSearchService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.aggregation.Aggregation;
 import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.core.query.BasicQuery;
 import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.annotation.PostConstruct;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -22,135 +47,325 @@ import java.util.stream.Collectors;
 @Transactional
 public class ProductService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ProductService.class);
+
+    private static final Document SUMMARY_PROJECTION = Document.parse(ProductRepository.SUMMARY_FIELDS);
+
     @Autowired
     private ProductRepository productRepository;
 
     @Autowired
     private MongoTemplate mongoTemplate;
 
+    @Autowired
+    private ProductSummaryMapper summaryMapper;
+
+    @Autowired
+    private ProductSearchService searchService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${product.random-pool.size:500}")
+    private int randomPoolSize;
+
+    private final RandomProductPool randomProductPool = new RandomProductPool();
+
+    @PostConstruct
+    void registerRandomPoolMetrics() {
+        Gauge.builder("product.random.pool.staleness", randomProductPool, this::randomPoolStalenessSeconds)
+                .description("Seconds since the random product pool was last refreshed")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("product.random.pool.size", randomProductPool, RandomProductPool::size)
+                .description("Number of products held in the random product pool")
+                .register(meterRegistry);
+    }
+
     /**
-     * Get random products using MongoDB aggregation
+     * Get random products from the in-memory pool.
+     * Falls back to a database sample until the pool has been loaded.
      */
     public List<ProductSummaryDto> getRandomProducts(int limit) {
+        if (!randomProductPool.isEmpty()) {
+            return randomProductPool.sample(limit);
+        }
+        return sampleActiveProducts(limit);
+    }
+
+    /**
+     * Reload the random product pool in the background
+     */
+    @Scheduled(fixedDelayString = "${product.random-pool.refresh-interval-ms:60000}")
+    public void refreshRandomPool() {
+        try {
+            List<ProductSummaryDto> products = sampleActiveProducts(randomPoolSize);
+            randomProductPool.replace(products);
+            logger.debug("Refreshed random product pool with {} products", products.size());
+        } catch (RuntimeException e) {
+            logger.warn("Failed to refresh random product pool, keeping previous snapshot: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Keep pooled random picks in line with product changes
+     */
+    @EventListener
+    public void onProductChanged(ProductChangeEvent event) {
+        switch (event.getType()) {
+            case RELOAD:
+                refreshRandomPool();
+                break;
+            case DELETE:
+                randomProductPool.update(event.getProductId(), null);
+                break;
+            case UPDATE:
+                if (event.touches(ProductChangeEvent.LISTING_FIELDS)) {
+                    randomProductPool.update(event.getProductId(),
+                            event.isListed() ? summaryMapper.toSummaryDto(event.getProduct()) : null);
+                }
+                break;
+            default:
+                // New products join the pool on its next refresh
+        }
+    }
+
+    /**
+     * Sample active products using MongoDB aggregation
+     */
+    private List<ProductSummaryDto> sampleActiveProducts(int limit) {
         Aggregation aggregation = Aggregation.newAggregation(
             Aggregation.match(Criteria.where("status").is(Product.ProductStatus.ACTIVE)
                 .and("visibility").is(Product.ProductVisibility.PUBLIC)),
-            Aggregation.sample(limit)
+            Aggregation.sample(limit),
+            context -> new Document("$project", SUMMARY_PROJECTION)
         );
 
         AggregationResults<Product> results = mongoTemplate.aggregate(
             aggregation, "products", Product.class);
 
         return results.getMappedResults().stream()
-                .map(this::convertToSummaryDto)
+                .map(summaryMapper::toSummaryDto)
                 .collect(Collectors.toList());
     }
 
     /**
      * Get featured products
      */
+    @Cacheable(cacheNames = CacheConfig.FEATURED_PRODUCTS, key = "#limit")
     public List<ProductSummaryDto> getFeaturedProducts(int limit) {
         Pageable pageable = PageRequest.of(0, limit);
-        Page<Product> products = productRepository.findFeaturedProducts(pageable);
-        return products.getContent().stream()
-                .map(this::convertToSummaryDto)
+        return productRepository.findFeaturedProducts(pageable).stream()
+                .map(summaryMapper::toSummaryDto)
                 .collect(Collectors.toList());
     }
 
     /**
      * Get trending products
      */
+    @Cacheable(cacheNames = CacheConfig.TRENDING_PRODUCTS, key = "#limit")
     public List<ProductSummaryDto> getTrendingProducts(int limit) {
         Pageable pageable = PageRequest.of(0, limit);
-        Page<Product> products = productRepository.findTrendingProducts(pageable);
-        return products.getContent().stream()
-                .map(this::convertToSummaryDto)
+        return productRepository.findTrendingProducts(pageable).stream()
+                .map(summaryMapper::toSummaryDto)
                 .collect(Collectors.toList());
     }
 
     /**
      * Get recommended products
      */
+    @Cacheable(cacheNames = CacheConfig.RECOMMENDED_PRODUCTS, key = "#limit")
     public List<ProductSummaryDto> getRecommendedProducts(int limit) {
         Pageable pageable = PageRequest.of(0, limit);
-        Page<Product> products = productRepository.findRecommendedProducts(pageable);
-        return products.getContent().stream()
-                .map(this::convertToSummaryDto)
+        return productRepository.findRecommendedProducts(pageable).stream()
+                .map(summaryMapper::toSummaryDto)
                 .collect(Collectors.toList());
     }
 
     /**
-     * Get product by ID
+     * Get product by ID. Unknown ids are not cached.
      */
+    @Cacheable(cacheNames = CacheConfig.PRODUCT_BY_ID, key = "#id", unless = "#result == null")
     public Optional<ProductSummaryDto> getProductById(String id) {
         return productRepository.findById(id)
-                .map(this::convertToSummaryDto);
+                .map(summaryMapper::toSummaryDto);
     }
 
     /**
      * Get all products with pagination
      */
     public Page<ProductSummaryDto> getAllProducts(Pageable pageable) {
-        return productRepository.findAll(pageable)
-                .map(this::convertToSummaryDto);
+        return productRepository.findAllSummaries(pageable)
+                .map(summaryMapper::toSummaryDto);
     }
 
     /**
-     * Search products by text
+     * Search products by text with optional category and effective-price filters.
+     * Served from the in-process search index once it is built; MongoDB $text
+     * search is used until then.
      */
-    public Page<ProductSummaryDto> searchProducts(String searchText, Pageable pageable) {
-        return productRepository.searchByText(searchText, pageable)
-                .map(this::convertToSummaryDto);
+    public Page<ProductSummaryDto> searchProducts(String searchText, String category,
+                                                  BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable) {
+        if (searchService.isReady()) {
+            return searchService.search(searchText, category, minPrice, maxPrice, pageable);
+        }
+        if (category == null && minPrice == null && maxPrice == null) {
+            return productRepository.searchByText(searchText, pageable)
+                    .map(summaryMapper::toSummaryDto);
+        }
+
+        Query query = TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(searchText))
+                .addCriteria(Criteria.where("status").is(Product.ProductStatus.ACTIVE)
+                        .and("visibility").is(Product.ProductVisibility.PUBLIC));
+        if (category != null) {
+            query.addCriteria(Criteria.where("category").is(category));
+        }
+        if (minPrice != null || maxPrice != null) {
+            query.addCriteria(new Criteria().orOperator(
+                    priceRange(Criteria.where("salePrice"), minPrice, maxPrice),
+                    new Criteria().andOperator(
+                            Criteria.where("salePrice").is(null),
+                            priceRange(Criteria.where("price"), minPrice, maxPrice))));
+        }
+        long total = mongoTemplate.count(query, Product.class);
+        List<ProductSummaryDto> content = mongoTemplate.find(query.with(pageable), Product.class).stream()
+                .map(summaryMapper::toSummaryDto)
+                .collect(Collectors.toList());
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    /**
+     * Prefix autocomplete for the search box
+     */
+    public List<String> suggestSearchTerms(String prefix, int limit) {
+        return searchService.suggest(prefix, limit);
+    }
+
+    private Criteria priceRange(Criteria field, BigDecimal minPrice, BigDecimal maxPrice) {
+        if (minPrice != null) {
+            field = field.gte(minPrice);
+        }
+        if (maxPrice != null) {
+            field = field.lte(maxPrice);
+        }
+        return field;
     }
 
     /**
      * Get products by category
      */
     public Page<ProductSummaryDto> getProductsByCategory(String category, Pageable pageable) {
-        return productRepository.findByCategoryAndStatusAndVisibility(
-                category, 
-                Product.ProductStatus.ACTIVE, 
-                Product.ProductVisibility.PUBLIC, 
-                pageable)
-                .map(this::convertToSummaryDto);
-    }
-
-    /**
-     * Convert Product entity to summary DTO
-     */
-    private ProductSummaryDto convertToSummaryDto(Product product) {
-        ProductSummaryDto dto = new ProductSummaryDto();
-        dto.setId(product.getId());
-        dto.setName(product.getName());
-        dto.setBrand(product.getBrand());
-        dto.setCategory(product.getCategory());
-        dto.setPrice(product.getPrice());
-        dto.setSalePrice(product.getSalePrice());
-        
-        // Set primary image URL
-        if (product.getImages() != null && !product.getImages().isEmpty()) {
-            dto.setImageUrl(product.getPrimaryImage().getUrl());
-        }
-        
-        // Set rating information
-        if (product.getRating() != null) {
-            dto.setRating(product.getRating().getAverage());
-            dto.setReviewCount(product.getRating().getCount());
-        }
-        
-        // Set inventory information
-        dto.setInStock(product.isInStock());
-        dto.setQuantity(product.getInventory() != null ? product.getInventory().getQuantity() : 0);
-        
-        // Set badges
-        if (product.getFeatured()) {
-            dto.setBadge("featured");
-        } else if (product.getTrending()) {
-            dto.setBadge("trending");
-        } else if (product.hasDiscount()) {
-            dto.setBadge("sale");
-        }
-        
-        return dto;
+        return productRepository.findActiveSummariesByCategory(category, pageable)
+                .map(summaryMapper::toSummaryDto);
+    }
+
+    /**
+     * Get all products using keyset pagination (no skip, no count query)
+     */
+    public CursorPage<ProductSummaryDto> getAllProductsByCursor(String cursor, int size,
+                                                                String sortBy, Sort.Direction direction) {
+        return findByCursor(new Document(), cursor, size, sortBy, direction);
+    }
+
+    /**
+     * Get products by category using keyset pagination (no skip, no count query)
+     */
+    public CursorPage<ProductSummaryDto> getProductsByCategoryByCursor(String category, String cursor, int size,
+                                                                       String sortBy, Sort.Direction direction) {
+        Document filter = new Document("category", category)
+                .append("status", Product.ProductStatus.ACTIVE.name())
+                .append("visibility", Product.ProductVisibility.PUBLIC.name());
+        return findByCursor(filter, cursor, size, sortBy, direction);
+    }
+
+    /**
+     * Fetch one slice ordered by (sortBy, _id) starting after the cursor position.
+     * Reads raw documents so the last sort key can be encoded with its stored BSON type.
+     */
+    private CursorPage<ProductSummaryDto> findByCursor(Document filter, String cursor, int size,
+                                                       String sortBy, Sort.Direction direction) {
+        String sortField = resolveSortField(sortBy);
+        boolean sortById = "_id".equals(sortField);
+
+        Document queryObject = new Document(filter);
+        if (cursor != null && !cursor.isEmpty()) {
+            queryObject.append("$or", keysetClauses(sortField, ProductCursor.decode(cursor), direction, sortById));
+        }
+
+        Document fields = new Document(SUMMARY_PROJECTION);
+        if (!sortById && fields.keySet().stream().noneMatch(key -> key.equals(sortField) || key.startsWith(sortField + "."))) {
+            fields.append(sortField, 1);
+        }
+
+        Query query = new BasicQuery(queryObject, fields)
+                .with(sortById ? Sort.by(direction, "_id") : Sort.by(direction, sortField, "_id"))
+                .limit(size + 1);
+        List<Document> documents = mongoTemplate.find(query, Document.class, "products");
+
+        boolean hasNext = documents.size() > size;
+        List<Document> slice = hasNext ? documents.subList(0, size) : documents;
+
+        List<ProductSummaryDto> content = new ArrayList<>(slice.size());
+        for (Document document : slice) {
+            content.add(summaryMapper.toSummaryDto(mongoTemplate.getConverter().read(Product.class, document)));
+        }
+
+        String next = null;
+        if (hasNext) {
+            Document last = slice.get(slice.size() - 1);
+            Object lastKey = sortById ? last.get("_id") : last.get(sortField);
+            next = new ProductCursor(lastKey, last.get("_id")).encode();
+        }
+        return new CursorPage<>(content, content.size(), next);
+    }
+
+    /**
+     * Build the $or clauses selecting documents strictly after the cursor.
+     * Mongo orders null/missing keys before all values ascending and after them descending.
+     */
+    private List<Document> keysetClauses(String sortField, ProductCursor position,
+                                         Sort.Direction direction, boolean sortById) {
+        String op = direction.isAscending() ? "$gt" : "$lt";
+        Object value = position.getSortValue();
+        Document idAfter = new Document("_id", new Document(op, position.getId()));
+
+        if (sortById) {
+            return Arrays.asList(idAfter);
+        }
+        List<Document> clauses = new ArrayList<>();
+        if (value == null) {
+            clauses.add(new Document(sortField, null).append("_id", idAfter.get("_id")));
+            if (direction.isAscending()) {
+                clauses.add(new Document(sortField, new Document("$ne", null)));
+            }
+        } else {
+            clauses.add(new Document(sortField, new Document(op, value)));
+            clauses.add(new Document(sortField, value).append("_id", idAfter.get("_id")));
+            if (direction.isDescending()) {
+                clauses.add(new Document(sortField, null));
+            }
+        }
+        return clauses;
+    }
+
+    /**
+     * Map a Product property name to its stored field name
+     */
+    private String resolveSortField(String sortBy) {
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext()
+                .getRequiredPersistentEntity(Product.class);
+        MongoPersistentProperty property = entity.getPersistentProperty(sortBy);
+        if (property == null) {
+            throw new IllegalArgumentException("Unsupported sort property: " + sortBy);
+        }
+        return property.getFieldName();
+    }
+
+    private double randomPoolStalenessSeconds(RandomProductPool pool) {
+        long refreshedAt = pool.getLastRefreshMillis();
+        if (refreshedAt == 0L) {
+            return Double.NaN;
+        }
+        return (System.currentTimeMillis() - refreshedAt) / 1000.0;
     }
 }
\ No newline at end of file
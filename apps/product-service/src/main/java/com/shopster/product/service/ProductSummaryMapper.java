@@ -0,0 +1,52 @@
+package com.shopster.product.service;
+
+import com.shopster.product.document.Product;
+import com.shopster.product.dto.ProductSummaryDto;
+import org.springframework.stereotype.Component;
+
+/**
+ * Maps Product documents to the summary DTO used by listings, caches and search
+ */
+@Component
+public class ProductSummaryMapper {
+
+    /**
+     * Convert Product entity to summary DTO.
+     * Only reads fields covered by ProductRepository.SUMMARY_FIELDS.
+     */
+    public ProductSummaryDto toSummaryDto(Product product) {
+        ProductSummaryDto dto = new ProductSummaryDto();
+        dto.setId(product.getId());
+        dto.setName(product.getName());
+        dto.setBrand(product.getBrand());
+        dto.setCategory(product.getCategory());
+        dto.setPrice(product.getPrice());
+        dto.setSalePrice(product.getSalePrice());
+        
+        // Set primary image URL
+        if (product.getImages() != null && !product.getImages().isEmpty()) {
+            dto.setImageUrl(product.getPrimaryImage().getUrl());
+        }
+        
+        // Set rating information
+        if (product.getRating() != null) {
+            dto.setRating(product.getRating().getAverage());
+            dto.setReviewCount(product.getRating().getCount());
+        }
+        
+        // Set inventory information
+        dto.setInStock(product.isInStock());
+        dto.setQuantity(product.getInventory() != null ? product.getInventory().getQuantity() : 0);
+        
+        // Set badges
+        if (product.getFeatured()) {
+            dto.setBadge("featured");
+        } else if (product.getTrending()) {
+            dto.setBadge("trending");
+        } else if (product.hasDiscount()) {
+            dto.setBadge("sale");
+        }
+        
+        return dto;
+    }
+}
\ No newline at end of file
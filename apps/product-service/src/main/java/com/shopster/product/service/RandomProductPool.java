@@ -0,0 +1,106 @@
+package com.shopster.product.service;
+
+import com.shopster.product.dto.ProductSummaryDto;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Pre-shuffled, immutable snapshot of active product summaries used to serve
+ * random homepage picks without a database round-trip. The snapshot is swapped
+ * atomically on refresh; readers never block.
+ */
+public class RandomProductPool {
+
+    private volatile Snapshot snapshot = new Snapshot(new ProductSummaryDto[0], 0L);
+
+    /**
+     * Replace the pool contents with a freshly loaded set of products
+     */
+    public synchronized void replace(List<ProductSummaryDto> products) {
+        List<ProductSummaryDto> shuffled = new ArrayList<>(products);
+        Collections.shuffle(shuffled, ThreadLocalRandom.current());
+        snapshot = new Snapshot(shuffled.toArray(new ProductSummaryDto[0]), System.currentTimeMillis());
+    }
+
+    /**
+     * Swap in a new version of a pooled product, or drop it when {@code replacement}
+     * is null. Products not in the pool are ignored; new products join on the next
+     * refresh. Copy-on-write, so readers keep sampling the previous snapshot.
+     */
+    public synchronized void update(String productId, ProductSummaryDto replacement) {
+        Snapshot current = snapshot;
+        ProductSummaryDto[] items = current.items;
+        for (int i = 0; i < items.length; i++) {
+            if (items[i].getId().equals(productId)) {
+                ProductSummaryDto[] updated;
+                if (replacement != null) {
+                    updated = items.clone();
+                    updated[i] = replacement;
+                } else {
+                    updated = new ProductSummaryDto[items.length - 1];
+                    System.arraycopy(items, 0, updated, 0, i);
+                    System.arraycopy(items, i + 1, updated, i, items.length - i - 1);
+                }
+                snapshot = new Snapshot(updated, current.refreshedAt);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Draw up to {@code limit} distinct products uniformly at random.
+     * Uses Floyd's algorithm so the cost is O(limit) regardless of pool size.
+     */
+    public List<ProductSummaryDto> sample(int limit) {
+        ProductSummaryDto[] items = snapshot.items;
+        int n = items.length;
+        int k = Math.min(limit, n);
+        if (k <= 0) {
+            return new ArrayList<>();
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Set<Integer> picked = new HashSet<>(k * 2);
+        List<ProductSummaryDto> result = new ArrayList<>(k);
+        for (int j = n - k; j < n; j++) {
+            int candidate = random.nextInt(j + 1);
+            int index = picked.add(candidate) ? candidate : j;
+            if (index == j) {
+                picked.add(j);
+            }
+            result.add(items[index]);
+        }
+        Collections.shuffle(result, random);
+        return result;
+    }
+
+    public boolean isEmpty() {
+        return snapshot.items.length == 0;
+    }
+
+    public int size() {
+        return snapshot.items.length;
+    }
+
+    /**
+     * Time of the last successful refresh in epoch millis, or 0 if never loaded
+     */
+    public long getLastRefreshMillis() {
+        return snapshot.refreshedAt;
+    }
+
+    private static final class Snapshot {
+        private final ProductSummaryDto[] items;
+        private final long refreshedAt;
+
+        private Snapshot(ProductSummaryDto[] items, long refreshedAt) {
+            this.items = items;
+            this.refreshedAt = refreshedAt;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.shopster.user.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Executors for work that runs off the request thread
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AsyncConfig.class);
+    
+    /**
+     * Executor for session audit writes. A single thread by default keeps the
+     * records of one session in order. The queue is bounded and records are
+     * dropped when it is full, so a slow database never backs up login or refresh.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor sessionAuditExecutor(
+            @Value("${user.session.audit.threads:1}") int threads,
+            @Value("${user.session.audit.queue-capacity:10000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("session-audit-");
+        executor.setRejectedExecutionHandler((task, pool) ->
+                logger.warn("Session audit queue full, dropping audit record"));
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+}
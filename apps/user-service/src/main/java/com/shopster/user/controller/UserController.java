@@ -1,6 +1,9 @@
 package com.shopster.user.controller;
 
+import com.shopster.user.dto.CursorPage;
 import com.shopster.user.dto.UserDto;
+import com.shopster.user.dto.UserSummaryDto;
+import com.shopster.user.service.UserSearchMode;
 import com.shopster.user.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,6 +12,8 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Locale;
+
 /**
  * REST controller for user management operations
  */
@@ -114,6 +119,20 @@ public class UserController {
         ));
     }
     
+    /**
+     * Get a page of user summaries (admin only)
+     */
+    @GetMapping("/summaries")
+    public ResponseEntity<ApiResponse<Page<UserSummaryDto>>> getUserSummaries(Pageable pageable) {
+        Page<UserSummaryDto> users = userService.getUserSummaries(pageable);
+        
+        return ResponseEntity.ok(new ApiResponse<>(
+                users,
+                "User summaries retrieved successfully",
+                200
+        ));
+    }
+    
     /**
      * Search users by name
      */
@@ -131,6 +150,30 @@ public class UserController {
         ));
     }
     
+    /**
+     * Search users by name with keyset pagination.
+     * Selected when a cursor parameter is present; pass an empty cursor for the first slice.
+     */
+    @GetMapping(value = "/search", params = "cursor")
+    public ResponseEntity<ApiResponse<CursorPage<UserDto>>> searchUsersByCursor(
+            @RequestParam String searchTerm,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "contains") String mode,
+            @RequestParam(defaultValue = "20") int size) {
+        
+        if (size < 1 || size > 100) {
+            throw new IllegalArgumentException("Size must be between 1 and 100");
+        }
+        UserSearchMode searchMode = UserSearchMode.valueOf(mode.toUpperCase(Locale.ROOT));
+        CursorPage<UserDto> users = userService.searchUsersByCursor(searchTerm, searchMode, cursor, size);
+        
+        return ResponseEntity.ok(new ApiResponse<>(
+                users,
+                "Users search completed",
+                200
+        ));
+    }
+    
     /**
      * Change password request DTO
      */
@@ -0,0 +1,53 @@
+package com.shopster.user.dto;
+
+import java.util.List;
+
+/**
+ * Slice of results for keyset (cursor) pagination.
+ * Carries an opaque token for the next slice instead of page numbers and totals.
+ */
+public class CursorPage<T> {
+    
+    private List<T> content;
+    private int size;
+    private String next;
+    
+    // Constructors
+    public CursorPage() {}
+    
+    public CursorPage(List<T> content, int size, String next) {
+        this.content = content;
+        this.size = size;
+        this.next = next;
+    }
+    
+    // Getters and Setters
+    public List<T> getContent() {
+        return content;
+    }
+    
+    public void setContent(List<T> content) {
+        this.content = content;
+    }
+    
+    public int getSize() {
+        return size;
+    }
+    
+    public void setSize(int size) {
+        this.size = size;
+    }
+    
+    public String getNext() {
+        return next;
+    }
+    
+    public void setNext(String next) {
+        this.next = next;
+    }
+    
+    // Helper methods
+    public boolean isHasNext() {
+        return next != null;
+    }
+}
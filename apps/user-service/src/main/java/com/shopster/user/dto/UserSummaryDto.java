@@ -0,0 +1,90 @@
+package com.shopster.user.dto;
+
+import com.shopster.user.entity.User;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat user row for the admin listing, built directly by a JPQL constructor query
+ */
+public class UserSummaryDto {
+    
+    private Long id;
+    private String email;
+    private String firstName;
+    private String lastName;
+    private String accountStatus;
+    private Boolean emailVerified;
+    private LocalDateTime createdAt;
+    
+    // Constructors
+    public UserSummaryDto() {}
+    
+    public UserSummaryDto(Long id, String email, String firstName, String lastName,
+                          User.AccountStatus accountStatus, Boolean emailVerified, LocalDateTime createdAt) {
+        this.id = id;
+        this.email = email;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.accountStatus = accountStatus != null ? accountStatus.name() : null;
+        this.emailVerified = emailVerified;
+        this.createdAt = createdAt;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getEmail() {
+        return email;
+    }
+    
+    public void setEmail(String email) {
+        this.email = email;
+    }
+    
+    public String getFirstName() {
+        return firstName;
+    }
+    
+    public void setFirstName(String firstName) {
+        this.firstName = firstName;
+    }
+    
+    public String getLastName() {
+        return lastName;
+    }
+    
+    public void setLastName(String lastName) {
+        this.lastName = lastName;
+    }
+    
+    public String getAccountStatus() {
+        return accountStatus;
+    }
+    
+    public void setAccountStatus(String accountStatus) {
+        this.accountStatus = accountStatus;
+    }
+    
+    public Boolean getEmailVerified() {
+        return emailVerified;
+    }
+    
+    public void setEmailVerified(Boolean emailVerified) {
+        this.emailVerified = emailVerified;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -2,6 +2,7 @@ package com.shopster.user.entity;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import org.hibernate.annotations.BatchSize;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -13,12 +14,20 @@ import java.util.Set;
 /**
  * User entity representing customer accounts in the Shopster platform.
  * Handles authentication, profile information, and user preferences.
+ * Single-user lookups load roles and addresses with the User.profile graph;
+ * paged listings initialize them in batches, one query per collection per page.
  */
 @Entity
 @Table(name = "users")
+@NamedEntityGraph(name = User.PROFILE_GRAPH, attributeNodes = {
+    @NamedAttributeNode("roles"),
+    @NamedAttributeNode("addresses")
+})
 @EntityListeners(AuditingEntityListener.class)
 public class User {
 
+    public static final String PROFILE_GRAPH = "User.profile";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -64,6 +73,7 @@ public class User {
     private Boolean marketingConsent = false;
 
     @ManyToMany(fetch = FetchType.LAZY)
+    @BatchSize(size = 50)
     @JoinTable(
         name = "user_roles",
         joinColumns = @JoinColumn(name = "user_id"),
@@ -72,6 +82,7 @@ public class User {
     private Set<Role> roles = new HashSet<>();
 
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @BatchSize(size = 50)
     private Set<Address> addresses = new HashSet<>();
 
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
@@ -0,0 +1,18 @@
+package com.shopster.user.exception;
+
+/**
+ * Exception thrown when a bounded resource is saturated and the request should be retried later
+ */
+public class ServiceOverloadedException extends RuntimeException {
+    
+    private final int retryAfterSeconds;
+    
+    public ServiceOverloadedException(String message, int retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,123 @@
+package com.shopster.user.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-JVM session store for tests and single-instance development. Sessions
+ * expire through a Caffeine per-entry expiry set to the session's expiresAt;
+ * a per-user index of token hashes backs device replacement and logout-all.
+ * Sessions are lost on restart, so every user has to log in again.
+ */
+@Repository
+@ConditionalOnProperty(name = "user.session.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryRefreshSessionStore implements RefreshSessionStore {
+
+    private final Cache<String, RefreshSession> sessions;
+    private final Map<Long, Set<String>> hashesByUser = new HashMap<>();
+
+    public InMemoryRefreshSessionStore() {
+        this.sessions = Caffeine.newBuilder()
+                .expireAfter(new Expiry<String, RefreshSession>() {
+                    @Override
+                    public long expireAfterCreate(String key, RefreshSession session, long currentTime) {
+                        long millis = Duration.between(Instant.now(), session.getExpiresAt()).toMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, millis));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, RefreshSession session, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(key, session, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, RefreshSession session, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .removalListener((String tokenHash, RefreshSession session, RemovalCause cause) -> {
+                    if (cause.wasEvicted() && session != null) {
+                        unindex(session.getUserId(), tokenHash);
+                    }
+                })
+                .build();
+    }
+
+    @Override
+    public synchronized List<String> create(String tokenHash, RefreshSession session) {
+        List<String> replaced = new ArrayList<>();
+        Set<String> hashes = hashesByUser.computeIfAbsent(session.getUserId(), id -> new HashSet<>());
+        Iterator<String> it = hashes.iterator();
+        while (it.hasNext()) {
+            String hash = it.next();
+            RefreshSession existing = sessions.getIfPresent(hash);
+            if (existing == null) {
+                it.remove();
+            } else if (session.getDeviceType() != null && session.getDeviceType().equals(existing.getDeviceType())) {
+                sessions.invalidate(hash);
+                it.remove();
+                replaced.add(existing.getSessionId());
+            }
+        }
+        hashes.add(tokenHash);
+        sessions.put(tokenHash, session);
+        return replaced;
+    }
+
+    @Override
+    public Optional<RefreshSession> find(String tokenHash) {
+        RefreshSession session = sessions.getIfPresent(tokenHash);
+        return session == null || session.isExpired() ? Optional.empty() : Optional.of(session);
+    }
+
+    @Override
+    public synchronized Optional<RefreshSession> take(String tokenHash) {
+        RefreshSession session = sessions.asMap().remove(tokenHash);
+        if (session == null) {
+            return Optional.empty();
+        }
+        unindex(session.getUserId(), tokenHash);
+        return session.isExpired() ? Optional.empty() : Optional.of(session);
+    }
+
+    @Override
+    public synchronized List<String> removeAllForUser(Long userId) {
+        Set<String> hashes = hashesByUser.remove(userId);
+        if (hashes == null) {
+            return List.of();
+        }
+        List<String> removed = new ArrayList<>();
+        for (String hash : hashes) {
+            RefreshSession session = sessions.asMap().remove(hash);
+            if (session != null) {
+                removed.add(session.getSessionId());
+            }
+        }
+        return removed;
+    }
+
+    private synchronized void unindex(Long userId, String tokenHash) {
+        Set<String> hashes = hashesByUser.get(userId);
+        if (hashes != null && hashes.remove(tokenHash) && hashes.isEmpty()) {
+            hashesByUser.remove(userId);
+        }
+    }
+}
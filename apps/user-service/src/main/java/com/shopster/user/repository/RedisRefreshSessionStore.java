@@ -0,0 +1,143 @@
+package com.shopster.user.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Redis session store. Each session is a hash at {@code session:<tokenHash>}
+ * expiring at the session's expiresAt via PEXPIREAT, so Redis drops it without
+ * any cleanup job. {@code session:user:<userId>} maps the user's token hashes to
+ * device types for device replacement and logout-all.
+ * Create, take and revoke-all are single Lua scripts, so they are atomic.
+ * Scripts only touch keys passed in KEYS: the user index (or, for take, the
+ * session's user id) is read first, and the scripts act on the sessions listed
+ * at that point.
+ */
+@Repository
+@ConditionalOnProperty(name = "user.session.store", havingValue = "redis")
+public class RedisRefreshSessionStore implements RefreshSessionStore {
+
+    private static final String SESSION_PREFIX = "session:";
+    private static final String USER_INDEX_PREFIX = "session:user:";
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> CREATE_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/session_create.lua"), List.class);
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> TAKE_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/session_take.lua"), List.class);
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> REVOKE_ALL_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/session_revoke_all.lua"), List.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Autowired
+    public RedisRefreshSessionStore(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public List<String> create(String tokenHash, RefreshSession session) {
+        String indexKey = USER_INDEX_PREFIX + session.getUserId();
+        List<String> keys = new ArrayList<>();
+        keys.add(SESSION_PREFIX + tokenHash);
+        keys.add(indexKey);
+        List<String> args = new ArrayList<>(List.of(
+                tokenHash,
+                session.getSessionId(),
+                String.valueOf(session.getUserId()),
+                session.getDeviceType() != null ? session.getDeviceType() : "",
+                String.valueOf(session.getCreatedAt().toEpochMilli()),
+                String.valueOf(session.getExpiresAt().toEpochMilli())));
+        for (Object indexed : redisTemplate.opsForHash().keys(indexKey)) {
+            if (!tokenHash.equals(indexed)) {
+                keys.add(SESSION_PREFIX + indexed);
+                args.add((String) indexed);
+            }
+        }
+        List<?> replaced = redisTemplate.execute(CREATE_SCRIPT, keys, args.toArray());
+        return toStrings(replaced);
+    }
+
+    @Override
+    public Optional<RefreshSession> find(String tokenHash) {
+        Map<Object, Object> fields = redisTemplate.opsForHash().entries(SESSION_PREFIX + tokenHash);
+        return toSession(fields);
+    }
+
+    @Override
+    public Optional<RefreshSession> take(String tokenHash) {
+        String sessionKey = SESSION_PREFIX + tokenHash;
+        Object userId = redisTemplate.opsForHash().get(sessionKey, "uid");
+        if (userId == null) {
+            return Optional.empty();
+        }
+        List<?> flat = redisTemplate.execute(TAKE_SCRIPT,
+                List.of(sessionKey, USER_INDEX_PREFIX + userId),
+                tokenHash,
+                userId);
+        if (flat == null || flat.isEmpty()) {
+            return Optional.empty();
+        }
+        Map<Object, Object> fields = new HashMap<>();
+        for (int i = 0; i + 1 < flat.size(); i += 2) {
+            fields.put(flat.get(i), flat.get(i + 1));
+        }
+        return toSession(fields);
+    }
+
+    @Override
+    public List<String> removeAllForUser(Long userId) {
+        String indexKey = USER_INDEX_PREFIX + userId;
+        List<String> keys = new ArrayList<>();
+        keys.add(indexKey);
+        List<String> hashes = new ArrayList<>();
+        for (Object indexed : redisTemplate.opsForHash().keys(indexKey)) {
+            keys.add(SESSION_PREFIX + indexed);
+            hashes.add((String) indexed);
+        }
+        if (hashes.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<?> removed = redisTemplate.execute(REVOKE_ALL_SCRIPT, keys, hashes.toArray());
+        return toStrings(removed);
+    }
+
+    private static Optional<RefreshSession> toSession(Map<Object, Object> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return Optional.empty();
+        }
+        String device = (String) fields.get("dev");
+        RefreshSession session = new RefreshSession(
+                (String) fields.get("sid"),
+                Long.valueOf((String) fields.get("uid")),
+                device == null || device.isEmpty() ? null : device,
+                Instant.ofEpochMilli(Long.parseLong((String) fields.get("created"))),
+                Instant.ofEpochMilli(Long.parseLong((String) fields.get("expires"))));
+        return session.isExpired() ? Optional.empty() : Optional.of(session);
+    }
+
+    private static List<String> toStrings(List<?> values) {
+        List<String> result = new ArrayList<>();
+        if (values != null) {
+            for (Object value : values) {
+                result.add(String.valueOf(value));
+            }
+        }
+        return result;
+    }
+}
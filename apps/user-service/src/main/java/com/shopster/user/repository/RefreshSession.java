@@ -0,0 +1,56 @@
+package com.shopster.user.repository;
+
+import java.time.Instant;
+
+/**
+ * A refresh-token session as held by the {@link RefreshSessionStore}.
+ * The session id stays the same across token rotations; the token itself is
+ * only ever stored as a hash.
+ */
+public final class RefreshSession {
+
+    private final String sessionId;
+    private final Long userId;
+    private final String deviceType;
+    private final Instant createdAt;
+    private final Instant expiresAt;
+
+    public RefreshSession(String sessionId, Long userId, String deviceType, Instant createdAt, Instant expiresAt) {
+        this.sessionId = sessionId;
+        this.userId = userId;
+        this.deviceType = deviceType;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getDeviceType() {
+        return deviceType;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    /**
+     * Same session with a new expiry, for a rotated refresh token
+     */
+    public RefreshSession renew(Instant newExpiresAt) {
+        return new RefreshSession(sessionId, userId, deviceType, createdAt, newExpiresAt);
+    }
+
+    public boolean isExpired() {
+        return !expiresAt.isAfter(Instant.now());
+    }
+}
@@ -0,0 +1,37 @@
+package com.shopster.user.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Storage for refresh-token sessions, keyed by the SHA-256 hash of the refresh
+ * token. Lookups by hash are O(1) and sessions disappear on their own once
+ * {@link RefreshSession#getExpiresAt()} passes.
+ * Selected with user.session.store: {@code redis} or {@code memory}.
+ */
+public interface RefreshSessionStore {
+
+    /**
+     * Store a session, replacing any session the same user has on the same device
+     *
+     * @return ids of the sessions that were replaced
+     */
+    List<String> create(String tokenHash, RefreshSession session);
+
+    /**
+     * Find a live session by token hash
+     */
+    Optional<RefreshSession> find(String tokenHash);
+
+    /**
+     * Atomically remove and return a live session, so a refresh token can only be used once
+     */
+    Optional<RefreshSession> take(String tokenHash);
+
+    /**
+     * Remove every session of a user
+     *
+     * @return ids of the sessions that were removed
+     */
+    List<String> removeAllForUser(Long userId);
+}
@@ -1,13 +1,19 @@
 package com.shopster.user.repository;
 
+import com.shopster.user.dto.UserSummaryDto;
 import com.shopster.user.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -17,10 +23,27 @@ import java.util.Optional;
 public interface UserRepository extends JpaRepository<User, Long> {
     
     /**
-     * Find user by email address
+     * Find user by email address, with the roles and addresses needed to build tokens and DTOs
      */
+    @EntityGraph(User.PROFILE_GRAPH)
     Optional<User> findByEmail(String email);
     
+    /**
+     * Find user by ID with roles and addresses, in one query
+     */
+    @EntityGraph(User.PROFILE_GRAPH)
+    Optional<User> findWithProfileById(Long id);
+    
+    /**
+     * Replace a password hash only if it has not changed since it was read
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :newHash WHERE u.id = :userId AND u.password = :currentHash")
+    int updatePasswordHash(@Param("userId") Long userId,
+                           @Param("currentHash") String currentHash,
+                           @Param("newHash") String newHash);
+    
     /**
      * Check if user exists by email
      */
@@ -37,12 +60,76 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Page<User> findByEmailVerified(Boolean emailVerified, Pageable pageable);
     
     /**
-     * Search users by name (first name or last name)
+     * Search users whose full name contains a pattern, most similar first.
+     * Uses the idx_users_full_name_trgm index; the pageable must be unsorted.
+     *
+     * @param term lower-cased search term, for ranking
+     * @param pattern LIKE pattern with wildcards escaped, e.g. {@code %smith%}
+     */
+    @Query(value = "SELECT u.* FROM users u " +
+                   "WHERE lower(u.first_name || ' ' || u.last_name) LIKE :pattern ESCAPE '\\' " +
+                   "ORDER BY similarity(lower(u.first_name || ' ' || u.last_name), :term) DESC, u.id",
+           countQuery = "SELECT COUNT(*) FROM users u " +
+                        "WHERE lower(u.first_name || ' ' || u.last_name) LIKE :pattern ESCAPE '\\'",
+           nativeQuery = true)
+    Page<User> searchByName(@Param("term") String term, @Param("pattern") String pattern, Pageable pageable);
+    
+    /**
+     * Keyset slice of users whose full name contains a pattern, ranked by similarity
+     * then ID, starting after the given rank and ID
+     */
+    @Query(value = "SELECT id, rank FROM (" +
+                   "SELECT u.id AS id, similarity(lower(u.first_name || ' ' || u.last_name), :term) AS rank " +
+                   "FROM users u " +
+                   "WHERE lower(u.first_name || ' ' || u.last_name) LIKE :pattern ESCAPE '\\'" +
+                   ") ranked " +
+                   "WHERE rank < CAST(:afterRank AS real) OR (rank = CAST(:afterRank AS real) AND id > :afterId) " +
+                   "ORDER BY rank DESC, id " +
+                   "LIMIT :limit",
+           nativeQuery = true)
+    List<UserSearchHit> searchIdsContaining(@Param("term") String term,
+                                            @Param("pattern") String pattern,
+                                            @Param("afterRank") float afterRank,
+                                            @Param("afterId") long afterId,
+                                            @Param("limit") int limit);
+    
+    /**
+     * Keyset slice of users whose first name, last name or full name starts with a pattern,
+     * ranked like {@link #searchIdsContaining}. Uses the name prefix indexes.
+     *
+     * @param pattern LIKE pattern with wildcards escaped, e.g. {@code smi%}
+     */
+    @Query(value = "SELECT id, rank FROM (" +
+                   "SELECT u.id AS id, similarity(lower(u.first_name || ' ' || u.last_name), :term) AS rank " +
+                   "FROM users u " +
+                   "WHERE lower(u.first_name) LIKE :pattern ESCAPE '\\' " +
+                   "OR lower(u.last_name) LIKE :pattern ESCAPE '\\' " +
+                   "OR lower(u.first_name || ' ' || u.last_name) LIKE :pattern ESCAPE '\\'" +
+                   ") ranked " +
+                   "WHERE rank < CAST(:afterRank AS real) OR (rank = CAST(:afterRank AS real) AND id > :afterId) " +
+                   "ORDER BY rank DESC, id " +
+                   "LIMIT :limit",
+           nativeQuery = true)
+    List<UserSearchHit> searchIdsByPrefix(@Param("term") String term,
+                                          @Param("pattern") String pattern,
+                                          @Param("afterRank") float afterRank,
+                                          @Param("afterId") long afterId,
+                                          @Param("limit") int limit);
+    
+    /**
+     * Find users by ID with roles and addresses, in one query
+     */
+    @EntityGraph(User.PROFILE_GRAPH)
+    List<User> findWithProfileByIdIn(Collection<Long> ids);
+    
+    /**
+     * Get a page of user summaries for the admin listing, without loading entities or collections
      */
-    @Query("SELECT u FROM User u WHERE " +
-           "LOWER(u.firstName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(u.lastName) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
-    Page<User> searchByName(@Param("searchTerm") String searchTerm, Pageable pageable);
+    @Query(value = "SELECT new com.shopster.user.dto.UserSummaryDto(" +
+                   "u.id, u.email, u.firstName, u.lastName, u.accountStatus, u.emailVerified, u.createdAt) " +
+                   "FROM User u",
+           countQuery = "SELECT COUNT(u) FROM User u")
+    Page<UserSummaryDto> findAllSummaries(Pageable pageable);
     
     /**
      * Find users with specific role
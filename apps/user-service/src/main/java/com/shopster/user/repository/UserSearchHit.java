@@ -0,0 +1,11 @@
+package com.shopster.user.repository;
+
+/**
+ * One ranked row of a user search: the user ID and its trigram similarity to the search term
+ */
+public interface UserSearchHit {
+    
+    Long getId();
+    
+    Float getRank();
+}
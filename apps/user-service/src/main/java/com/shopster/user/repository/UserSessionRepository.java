@@ -6,8 +6,10 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,9 +20,9 @@ import java.util.Optional;
 public interface UserSessionRepository extends JpaRepository<UserSession, Long> {
     
     /**
-     * Find session by refresh token
+     * Find audit record by session id
      */
-    Optional<UserSession> findByRefreshToken(String refreshToken);
+    Optional<UserSession> findBySessionToken(String sessionToken);
     
     /**
      * Find all active sessions for a user
@@ -29,16 +31,39 @@ public interface UserSessionRepository extends JpaRepository<UserSession, Long>
     List<UserSession> findActiveSessionsByUserId(@Param("userId") Long userId, @Param("now") LocalDateTime now);
     
     /**
-     * Find session by user and device info
+     * Mark sessions as ended in the audit trail
      */
-    Optional<UserSession> findByUserIdAndDeviceType(Long userId, String deviceType);
+    @Modifying
+    @Query("UPDATE UserSession s SET s.isActive = false WHERE s.sessionToken IN :sessionTokens")
+    int deactivateSessions(@Param("sessionTokens") Collection<String> sessionTokens);
+    
+    /**
+     * Mark all of a user's sessions as ended in the audit trail
+     */
+    @Modifying
+    @Query("UPDATE UserSession s SET s.isActive = false WHERE s.user.id = :userId AND s.isActive = true")
+    int deactivateAllUserSessions(@Param("userId") Long userId);
+    
+    /**
+     * Take a Postgres transaction-level advisory lock if it is free. The lock is released
+     * when the surrounding transaction ends, so it never outlives the pooled connection's
+     * current use.
+     */
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+    boolean tryAdvisoryXactLock(@Param("key") long key);
     
     /**
-     * Delete expired sessions
+     * Delete up to batchSize sessions that expired before the cutoff, oldest first.
+     * Walks idx_user_sessions_expires_at and skips rows locked by other writers,
+     * so each call is a short transaction touching a bounded number of rows.
      */
+    @Transactional
     @Modifying
-    @Query("DELETE FROM UserSession s WHERE s.expiresAt < :now")
-    void deleteExpiredSessions(@Param("now") LocalDateTime now);
+    @Query(value = "DELETE FROM user_sessions WHERE id IN (" +
+                   "SELECT id FROM user_sessions WHERE expires_at < :cutoff " +
+                   "ORDER BY expires_at LIMIT :batchSize FOR UPDATE SKIP LOCKED)",
+           nativeQuery = true)
+    int deleteExpiredBatch(@Param("cutoff") LocalDateTime cutoff, @Param("batchSize") int batchSize);
     
     /**
      * Delete all sessions for a user (for logout all devices)
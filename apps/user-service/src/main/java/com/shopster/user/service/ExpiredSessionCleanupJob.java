@@ -0,0 +1,119 @@
+package com.shopster.user.service;
+
+import com.shopster.user.repository.UserSessionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Purges expired rows from user_sessions in bounded chunks.
+ * Each chunk is its own short DELETE transaction, with a pause between chunks so
+ * the job never holds long locks or competes with request traffic for the pool.
+ * Replicas coordinate through a Postgres transaction-level advisory lock taken at
+ * the start of each chunk: a replica that finds it held stops its pass until the
+ * next schedule. The lock is released with the chunk's commit or rollback, so it
+ * cannot be left behind on a pooled connection.
+ */
+@Component
+public class ExpiredSessionCleanupJob {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ExpiredSessionCleanupJob.class);
+    
+    /**
+     * Advisory lock key shared by every user-service replica
+     */
+    private static final long LOCK_KEY = "user-service:session-cleanup".hashCode();
+    
+    private final UserSessionRepository sessionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long pauseMillis;
+    private final int maxBatches;
+    private final Duration retention;
+    private final Counter purgedCounter;
+    private final Timer runTimer;
+    
+    @Autowired
+    public ExpiredSessionCleanupJob(UserSessionRepository sessionRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${user.session.cleanup.enabled:true}") boolean enabled,
+                                    @Value("${user.session.cleanup.batch-size:1000}") int batchSize,
+                                    @Value("${user.session.cleanup.pause-ms:100}") long pauseMillis,
+                                    @Value("${user.session.cleanup.max-batches:500}") int maxBatches,
+                                    @Value("${user.session.cleanup.retention:0d}") Duration retention) {
+        this.sessionRepository = sessionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.pauseMillis = pauseMillis;
+        this.maxBatches = maxBatches;
+        this.retention = retention;
+        this.purgedCounter = Counter.builder("user.sessions.purged")
+                .description("Expired session rows deleted by the cleanup job")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("user.sessions.cleanup")
+                .description("Duration of expired session cleanup passes")
+                .register(meterRegistry);
+    }
+    
+    @Scheduled(initialDelayString = "${user.session.cleanup.initial-delay-ms:60000}",
+            fixedDelayString = "${user.session.cleanup.interval-ms:3600000}")
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+        runTimer.record(this::purge);
+    }
+    
+    /**
+     * Delete expired sessions one chunk at a time until none are left or the pass limit is hit
+     */
+    private void purge() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        long purged = 0;
+        int batches = 0;
+        boolean more = true;
+        try {
+            while (more && batches < maxBatches) {
+                Integer deleted = transactionTemplate.execute(status ->
+                        sessionRepository.tryAdvisoryXactLock(LOCK_KEY)
+                                ? sessionRepository.deleteExpiredBatch(cutoff, batchSize)
+                                : null);
+                if (deleted == null) {
+                    logger.debug("Session cleanup is running on another instance, stopping this pass");
+                    break;
+                }
+                batches++;
+                purged += deleted;
+                purgedCounter.increment(deleted);
+                more = deleted == batchSize;
+                if (more) {
+                    Thread.sleep(pauseMillis);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            logger.warn("Session cleanup stopped after {} rows: {}", purged, e.getMessage());
+        }
+        if (purged > 0) {
+            logger.info("Purged {} expired sessions in {} batches", purged, batches);
+        }
+        if (more && batches >= maxBatches) {
+            logger.info("Session cleanup hit max-batches ({}); the rest will be purged on the next run", maxBatches);
+        }
+    }
+}
\ No newline at end of file
@@ -1,16 +1,28 @@
 package com.shopster.user.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Service for JWT token operations
@@ -27,6 +39,46 @@ public class JwtService {
     @Value("${jwt.refresh-token-expiration:604800}") // 7 days in seconds
     private int refreshTokenExpiration;
     
+    @Value("${jwt.verification-cache.max-size:10000}")
+    private long verificationCacheMaxSize;
+    
+    private SecretKey signingKey;
+    private JwtParser parser;
+    private Cache<String, VerifiedToken> verifiedTokens;
+    
+    /**
+     * Derive the signing key and build the parser once; both are immutable and thread-safe
+     */
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secretKey.getBytes());
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verificationCacheMaxSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+                        long millis = Duration.between(Instant.now(), token.getExpiresAt()).toMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, millis));
+                    }
+                    
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken token, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(key, token, currentTime);
+                    }
+                    
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken token, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+    
     /**
      * Generate access token for user
      */
@@ -64,97 +116,115 @@ public class JwtService {
                 .setSubject(subject)
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
     
+    /**
+     * Verify a token once and return its claims, or empty if it is invalid or expired.
+     * Verified tokens are cached by SHA-256 hash until they expire, so repeat
+     * calls with the same token cost one hash and one cache lookup.
+     */
+    public Optional<VerifiedToken> verify(String token) {
+        try {
+            return Optional.of(verifyOrThrow(token));
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+    
     /**
      * Extract user ID from token
      */
     public Long extractUserId(String token) {
-        Claims claims = extractAllClaims(token);
-        return claims.get("userId", Long.class);
+        return verifyOrThrow(token).getUserId();
     }
     
     /**
      * Extract email from token
      */
     public String extractEmail(String token) {
-        return extractAllClaims(token).getSubject();
+        return verifyOrThrow(token).getEmail();
     }
     
     /**
      * Extract roles from token
      */
     public String extractRoles(String token) {
-        Claims claims = extractAllClaims(token);
-        return claims.get("roles", String.class);
+        return verifyOrThrow(token).getRoles();
     }
     
     /**
      * Extract token type (access/refresh)
      */
     public String extractTokenType(String token) {
-        Claims claims = extractAllClaims(token);
-        return claims.get("tokenType", String.class);
+        return verifyOrThrow(token).getTokenType();
     }
     
     /**
      * Extract expiration date from token
      */
     public LocalDateTime extractExpiration(String token) {
-        Date expiration = extractAllClaims(token).getExpiration();
-        return expiration.toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime();
+        Instant expiration = verifyOrThrow(token).getExpiresAt();
+        return expiration.atZone(ZoneId.systemDefault()).toLocalDateTime();
     }
     
     /**
      * Check if token is expired
      */
     public boolean isTokenExpired(String token) {
-        try {
-            Date expiration = extractAllClaims(token).getExpiration();
-            return expiration.before(new Date());
-        } catch (Exception e) {
-            return true;
-        }
+        return verify(token).map(VerifiedToken::isExpired).orElse(true);
     }
     
     /**
      * Validate token
      */
     public boolean isTokenValid(String token) {
-        try {
-            extractAllClaims(token);
-            return !isTokenExpired(token);
-        } catch (JwtException | IllegalArgumentException e) {
-            return false;
-        }
+        return verify(token).isPresent();
     }
     
     /**
      * Validate token for specific user
      */
     public boolean isTokenValid(String token, String email) {
-        String tokenEmail = extractEmail(token);
-        return tokenEmail.equals(email) && !isTokenExpired(token);
+        return verify(token).map(verified -> verified.getEmail().equals(email)).orElse(false);
     }
     
     /**
-     * Extract all claims from token
+     * Get verified claims from the cache, parsing and verifying on a miss.
+     * Failures are not cached so garbage tokens cannot evict valid ones.
      */
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    private VerifiedToken verifyOrThrow(String token) {
+        if (token == null || token.isEmpty()) {
+            throw new IllegalArgumentException("JWT token is empty");
+        }
+        String key = tokenHash(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(key);
+        if (cached != null && !cached.isExpired()) {
+            return cached;
+        }
+        
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        VerifiedToken verified = new VerifiedToken(
+                claims.get("userId", Long.class),
+                claims.getSubject(),
+                claims.get("roles", String.class),
+                claims.get("tokenType", String.class),
+                claims.getExpiration().toInstant());
+        verifiedTokens.put(key, verified);
+        return verified;
     }
     
     /**
-     * Get signing key for JWT
+     * Base64 SHA-256 of a token, used wherever a token is stored or indexed
      */
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secretKey.getBytes());
+    public static String tokenHash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
     
     /**
@@ -0,0 +1,128 @@
+package com.shopster.user.service;
+
+import com.shopster.user.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs password hashing and verification on a dedicated, bounded pool.
+ * Hashing is CPU-bound, so the pool defaults to one thread per core; requests
+ * beyond the queue capacity, or still waiting after the timeout, fail fast with
+ * {@link ServiceOverloadedException} (429) instead of piling up servlet threads.
+ * Callers must not hold a database transaction while waiting on this service.
+ */
+@Service
+public class PasswordHashingService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashingService.class);
+    private static final int RETRY_AFTER_SECONDS = 1;
+    
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+    private final Counter rejectedCounter;
+    
+    @Autowired
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${user.password-hashing.threads:0}") int threads,
+                                  @Value("${user.password-hashing.queue-capacity:32}") int queueCapacity,
+                                  @Value("${user.password-hashing.timeout:5s}") Duration timeout) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.passwordEncoder = passwordEncoder;
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.timeoutMillis = timeout.toMillis();
+        this.rejectedCounter = Counter.builder("user.password_hashing.rejected")
+                .description("Password hashing requests rejected because the pool was saturated")
+                .register(meterRegistry);
+        Gauge.builder("user.password_hashing.queue", executor, e -> e.getQueue().size())
+                .description("Password hashing requests waiting for a thread")
+                .register(meterRegistry);
+        Gauge.builder("user.password_hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashing requests in progress")
+                .register(meterRegistry);
+        logger.info("Password hashing pool started with {} threads and queue capacity {}", poolSize, queueCapacity);
+    }
+    
+    /**
+     * Hash a raw password with the current encoding
+     */
+    public String hash(String rawPassword) {
+        return run(() -> passwordEncoder.encode(rawPassword));
+    }
+    
+    /**
+     * Check a raw password against a stored hash
+     */
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return run(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+    
+    /**
+     * Check whether a stored hash uses an older algorithm or cost and should be rehashed.
+     * Only inspects the hash prefix, so it runs on the caller's thread.
+     */
+    public boolean needsUpgrade(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+    
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new ServiceOverloadedException("Too many concurrent sign-in requests, please retry", RETRY_AFTER_SECONDS);
+        }
+        
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejectedCounter.increment();
+            throw new ServiceOverloadedException("Sign-in is taking too long, please retry", RETRY_AFTER_SECONDS);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", cause);
+        }
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,120 @@
+package com.shopster.user.service;
+
+import com.shopster.user.entity.UserSession;
+import com.shopster.user.repository.RefreshSession;
+import com.shopster.user.repository.UserRepository;
+import com.shopster.user.repository.UserSessionRepository;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+
+/**
+ * Writes refresh-session lifecycle events to the user_sessions table.
+ * The table is an audit trail only; live sessions are held by the
+ * RefreshSessionStore. Writes run on the sessionAuditExecutor so they never
+ * add database round-trips to login, refresh or logout, and are skipped
+ * entirely when user.session.audit.enabled is false.
+ * Token hashes are recorded, never the tokens themselves.
+ */
+@Service
+public class SessionAuditService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SessionAuditService.class);
+    private static final int DEVICE_TYPE_MAX_LENGTH = 50;
+    
+    private final UserSessionRepository sessionRepository;
+    private final UserRepository userRepository;
+    private final boolean enabled;
+    
+    @Autowired
+    public SessionAuditService(UserSessionRepository sessionRepository,
+                               UserRepository userRepository,
+                               @Value("${user.session.audit.enabled:true}") boolean enabled) {
+        this.sessionRepository = sessionRepository;
+        this.userRepository = userRepository;
+        this.enabled = enabled;
+    }
+    
+    /**
+     * Record a new session, and the end of any sessions it replaced
+     */
+    @Async("sessionAuditExecutor")
+    @Transactional
+    public void recordCreated(String tokenHash, RefreshSession session, Collection<String> replacedSessionIds) {
+        if (!enabled) {
+            return;
+        }
+        if (!replacedSessionIds.isEmpty()) {
+            sessionRepository.deactivateSessions(replacedSessionIds);
+        }
+        UserSession record = new UserSession();
+        record.setSessionToken(session.getSessionId());
+        record.setUser(userRepository.getReferenceById(session.getUserId()));
+        apply(record, tokenHash, session);
+        sessionRepository.save(record);
+    }
+    
+    /**
+     * Record a refresh-token rotation
+     */
+    @Async("sessionAuditExecutor")
+    @Transactional
+    public void recordRotated(String tokenHash, RefreshSession session) {
+        if (!enabled) {
+            return;
+        }
+        UserSession record = sessionRepository.findBySessionToken(session.getSessionId()).orElse(null);
+        if (record == null) {
+            logger.debug("No audit record for session {}, recording it now", session.getSessionId());
+            record = new UserSession();
+            record.setSessionToken(session.getSessionId());
+            record.setUser(userRepository.getReferenceById(session.getUserId()));
+        }
+        apply(record, tokenHash, session);
+        sessionRepository.save(record);
+    }
+    
+    /**
+     * Record the end of sessions (logout)
+     */
+    @Async("sessionAuditExecutor")
+    @Transactional
+    public void recordEnded(Collection<String> sessionIds) {
+        if (!enabled || sessionIds.isEmpty()) {
+            return;
+        }
+        sessionRepository.deactivateSessions(sessionIds);
+    }
+    
+    /**
+     * Record the end of all of a user's sessions (logout from all devices)
+     */
+    @Async("sessionAuditExecutor")
+    @Transactional
+    public void recordAllEnded(Long userId) {
+        if (!enabled) {
+            return;
+        }
+        sessionRepository.deactivateAllUserSessions(userId);
+    }
+    
+    private static void apply(UserSession record, String tokenHash, RefreshSession session) {
+        String device = session.getDeviceType();
+        if (device != null && device.length() > DEVICE_TYPE_MAX_LENGTH) {
+            device = device.substring(0, DEVICE_TYPE_MAX_LENGTH);
+        }
+        record.setRefreshToken(tokenHash);
+        record.setDeviceType(device);
+        record.setExpiresAt(LocalDateTime.ofInstant(session.getExpiresAt(), ZoneId.systemDefault()));
+        record.setLastAccessedAt(LocalDateTime.now());
+        record.setIsActive(true);
+    }
+}
@@ -0,0 +1,60 @@
+package com.shopster.user.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in a ranked user search: the rank and ID of the last user returned.
+ * Results are ordered by rank descending, then ID ascending.
+ */
+public class UserSearchCursor {
+    
+    /**
+     * Sorts before every real rank, since trigram similarity is at most 1
+     */
+    public static final UserSearchCursor START = new UserSearchCursor(2.0f, 0L);
+    
+    private final float rank;
+    private final long id;
+    
+    public UserSearchCursor(float rank, long id) {
+        this.rank = rank;
+        this.id = id;
+    }
+    
+    public float getRank() {
+        return rank;
+    }
+    
+    public long getId() {
+        return id;
+    }
+    
+    /**
+     * Encode this position as an opaque URL-safe token
+     */
+    public String encode() {
+        String raw = Float.toString(rank) + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Decode a token produced by {@link #encode()}; an empty token is the first slice
+     */
+    public static UserSearchCursor decode(String token) {
+        if (token == null || token.isEmpty()) {
+            return START;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            return new UserSearchCursor(Float.parseFloat(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.shopster.user.service;
+
+/**
+ * How a user search term is matched against names
+ */
+public enum UserSearchMode {
+    CONTAINS,
+    PREFIX
+}
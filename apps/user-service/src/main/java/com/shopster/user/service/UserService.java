@@ -3,23 +3,34 @@ package com.shopster.user.service;
 import com.shopster.user.dto.*;
 import com.shopster.user.entity.Role;
 import com.shopster.user.entity.User;
-import com.shopster.user.entity.UserSession;
 import com.shopster.user.exception.EmailAlreadyExistsException;
 import com.shopster.user.exception.InvalidCredentialsException;
+import com.shopster.user.exception.ServiceOverloadedException;
 import com.shopster.user.exception.UserNotFoundException;
+import com.shopster.user.repository.RefreshSession;
+import com.shopster.user.repository.RefreshSessionStore;
 import com.shopster.user.repository.RoleRepository;
 import com.shopster.user.repository.UserRepository;
-import com.shopster.user.repository.UserSessionRepository;
+import com.shopster.user.repository.UserSearchHit;
 import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -33,29 +44,36 @@ public class UserService {
     
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
-    private final UserSessionRepository sessionRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final RefreshSessionStore sessionStore;
+    private final SessionAuditService sessionAudit;
+    private final PasswordHashingService passwordHashing;
+    private final TransactionTemplate transactionTemplate;
     private final JwtService jwtService;
     private final UserMappingService mappingService;
     
     @Autowired
     public UserService(UserRepository userRepository,
                       RoleRepository roleRepository,
-                      UserSessionRepository sessionRepository,
-                      PasswordEncoder passwordEncoder,
+                      RefreshSessionStore sessionStore,
+                      SessionAuditService sessionAudit,
+                      PasswordHashingService passwordHashing,
+                      PlatformTransactionManager transactionManager,
                       JwtService jwtService,
                       UserMappingService mappingService) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
-        this.sessionRepository = sessionRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.sessionStore = sessionStore;
+        this.sessionAudit = sessionAudit;
+        this.passwordHashing = passwordHashing;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
         this.jwtService = jwtService;
         this.mappingService = mappingService;
     }
     
     /**
-     * Register a new user
+     * Register a new user. The password is hashed before the insert transaction starts.
      */
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
     public AuthResponse register(RegisterRequest request) {
         logger.info("Attempting to register user with email: {}", request.getEmail());
         
@@ -65,23 +83,23 @@ public class UserService {
         }
         
         // Create new user
-        User user = new User();
-        user.setEmail(request.getEmail());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
-        user.setFirstName(request.getFirstName());
-        user.setLastName(request.getLastName());
-        user.setPhoneNumber(request.getPhoneNumber());
-        user.setMarketingConsent(request.getMarketingConsent());
-        user.setAccountStatus(User.AccountStatus.ACTIVE);
-        user.setEmailVerified(false);
-        
-        // Assign default customer role
-        Role customerRole = roleRepository.findByName(Role.CUSTOMER)
-                .orElseThrow(() -> new RuntimeException("Customer role not found"));
-        user.addRole(customerRole);
-        
-        // Save user
-        user = userRepository.save(user);
+        User newUser = new User();
+        newUser.setEmail(request.getEmail());
+        newUser.setPassword(passwordHashing.hash(request.getPassword()));
+        newUser.setFirstName(request.getFirstName());
+        newUser.setLastName(request.getLastName());
+        newUser.setPhoneNumber(request.getPhoneNumber());
+        newUser.setMarketingConsent(request.getMarketingConsent());
+        newUser.setAccountStatus(User.AccountStatus.ACTIVE);
+        newUser.setEmailVerified(false);
+        
+        // Assign default customer role and save user
+        User user = transactionTemplate.execute(status -> {
+            Role customerRole = roleRepository.findByName(Role.CUSTOMER)
+                    .orElseThrow(() -> new RuntimeException("Customer role not found"));
+            newUser.addRole(customerRole);
+            return userRepository.save(newUser);
+        });
         logger.info("User registered successfully with ID: {}", user.getId());
         
         // Generate tokens
@@ -103,8 +121,10 @@ public class UserService {
     }
     
     /**
-     * Authenticate user login
+     * Authenticate user login. Runs without a transaction so no connection is held
+     * while the password is verified.
      */
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
     public AuthResponse login(LoginRequest request, String deviceInfo) {
         logger.info("Attempting login for email: {}", request.getEmail());
         
@@ -113,7 +133,7 @@ public class UserService {
                 .orElseThrow(() -> new InvalidCredentialsException("Invalid email or password"));
         
         // Check password
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+        if (!passwordHashing.matches(request.getPassword(), user.getPassword())) {
             logger.warn("Invalid password attempt for email: {}", request.getEmail());
             throw new InvalidCredentialsException("Invalid email or password");
         }
@@ -123,6 +143,8 @@ public class UserService {
             throw new InvalidCredentialsException("Account is not active");
         }
         
+        upgradePasswordHashIfNeeded(user, request.getPassword());
+        
         // Generate tokens
         String rolesString = user.getRoles().stream()
                 .map(Role::getName)
@@ -155,16 +177,12 @@ public class UserService {
             throw new InvalidCredentialsException("Invalid refresh token");
         }
         
-        // Find user session
-        UserSession session = sessionRepository.findByRefreshToken(refreshToken)
+        // Consume the session; a refresh token can only be used once
+        RefreshSession session = sessionStore.take(JwtService.tokenHash(refreshToken))
                 .orElseThrow(() -> new InvalidCredentialsException("Refresh token not found"));
         
-        if (session.getExpiresAt().isBefore(LocalDateTime.now())) {
-            sessionRepository.delete(session);
-            throw new InvalidCredentialsException("Refresh token expired");
-        }
-        
-        User user = session.getUser();
+        User user = userRepository.findWithProfileById(session.getUserId())
+                .orElseThrow(() -> new InvalidCredentialsException("Invalid refresh token"));
         
         // Generate new tokens
         String rolesString = user.getRoles().stream()
@@ -174,10 +192,11 @@ public class UserService {
         String newAccessToken = jwtService.generateAccessToken(user.getId(), user.getEmail(), rolesString);
         String newRefreshToken = jwtService.generateRefreshToken(user.getId(), user.getEmail());
         
-        // Update session with new refresh token
-        session.setRefreshToken(newRefreshToken);
-        session.setExpiresAt(LocalDateTime.now().plusSeconds(jwtService.getRefreshTokenExpiration()));
-        sessionRepository.save(session);
+        // Store the session under the new refresh token
+        String newTokenHash = JwtService.tokenHash(newRefreshToken);
+        RefreshSession renewed = session.renew(Instant.now().plusSeconds(jwtService.getRefreshTokenExpiration()));
+        sessionStore.create(newTokenHash, renewed);
+        sessionAudit.recordRotated(newTokenHash, renewed);
         
         logger.info("Token refreshed successfully for user ID: {}", user.getId());
         
@@ -194,9 +213,9 @@ public class UserService {
     public void logout(String refreshToken) {
         logger.info("Attempting to logout user");
         
-        sessionRepository.findByRefreshToken(refreshToken).ifPresent(session -> {
-            sessionRepository.delete(session);
-            logger.info("User logged out successfully, session deleted for user ID: {}", session.getUser().getId());
+        sessionStore.take(JwtService.tokenHash(refreshToken)).ifPresent(session -> {
+            sessionAudit.recordEnded(List.of(session.getSessionId()));
+            logger.info("User logged out successfully, session deleted for user ID: {}", session.getUserId());
         });
     }
     
@@ -205,14 +224,15 @@ public class UserService {
      */
     public void logoutAllDevices(Long userId) {
         logger.info("Logging out user from all devices, user ID: {}", userId);
-        sessionRepository.deleteAllUserSessions(userId);
+        sessionStore.removeAllForUser(userId);
+        sessionAudit.recordAllEnded(userId);
     }
     
     /**
      * Get user profile by ID
      */
     public UserDto getUserProfile(Long userId) {
-        User user = userRepository.findById(userId)
+        User user = userRepository.findWithProfileById(userId)
                 .orElseThrow(() -> new UserNotFoundException("User not found with ID: " + userId));
         
         return mappingService.toUserDto(user);
@@ -234,7 +254,7 @@ public class UserService {
     public UserDto updateUserProfile(Long userId, UserDto userDto) {
         logger.info("Updating user profile for user ID: {}", userId);
         
-        User user = userRepository.findById(userId)
+        User user = userRepository.findWithProfileById(userId)
                 .orElseThrow(() -> new UserNotFoundException("User not found with ID: " + userId));
         
         // Update allowed fields
@@ -252,8 +272,9 @@ public class UserService {
     }
     
     /**
-     * Change user password
+     * Change user password. Both hashes are computed outside any transaction.
      */
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
     public void changePassword(Long userId, String currentPassword, String newPassword) {
         logger.info("Attempting to change password for user ID: {}", userId);
         
@@ -261,13 +282,15 @@ public class UserService {
                 .orElseThrow(() -> new UserNotFoundException("User not found with ID: " + userId));
         
         // Verify current password
-        if (!passwordEncoder.matches(currentPassword, user.getPassword())) {
+        if (!passwordHashing.matches(currentPassword, user.getPassword())) {
             throw new InvalidCredentialsException("Current password is incorrect");
         }
         
-        // Update password
-        user.setPassword(passwordEncoder.encode(newPassword));
-        userRepository.save(user);
+        // Update password, unless it was changed since we read it
+        String newHash = passwordHashing.hash(newPassword);
+        if (userRepository.updatePasswordHash(userId, user.getPassword(), newHash) == 0) {
+            throw new InvalidCredentialsException("Password was changed by another request");
+        }
         
         // Invalidate all sessions to force re-login
         logoutAllDevices(userId);
@@ -302,39 +325,99 @@ public class UserService {
     }
     
     /**
-     * Search users by name
+     * Get a page of user summaries (admin only)
+     */
+    public Page<UserSummaryDto> getUserSummaries(Pageable pageable) {
+        return userRepository.findAllSummaries(pageable);
+    }
+    
+    /**
+     * Search users by name, most similar first. Any sort on the pageable is ignored.
      */
     public Page<UserDto> searchUsers(String searchTerm, Pageable pageable) {
-        return userRepository.searchByName(searchTerm, pageable)
+        String term = normalizeSearchTerm(searchTerm);
+        Pageable unsorted = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+        return userRepository.searchByName(term, "%" + escapeLike(term) + "%", unsorted)
                 .map(mappingService::toUserDto);
     }
     
     /**
-     * Clean up expired sessions
+     * Search users by name with keyset pagination, most similar first.
+     * CONTAINS matches anywhere in the full name; PREFIX matches the start of the
+     * first, last or full name and suits short, as-you-type terms.
+     */
+    public CursorPage<UserDto> searchUsersByCursor(String searchTerm, UserSearchMode mode, String cursor, int size) {
+        String term = normalizeSearchTerm(searchTerm);
+        UserSearchCursor after = UserSearchCursor.decode(cursor);
+        
+        List<UserSearchHit> hits = mode == UserSearchMode.PREFIX
+                ? userRepository.searchIdsByPrefix(term, escapeLike(term) + "%", after.getRank(), after.getId(), size + 1)
+                : userRepository.searchIdsContaining(term, "%" + escapeLike(term) + "%", after.getRank(), after.getId(), size + 1);
+        
+        String next = null;
+        if (hits.size() > size) {
+            hits = hits.subList(0, size);
+            UserSearchHit last = hits.get(size - 1);
+            next = new UserSearchCursor(last.getRank(), last.getId()).encode();
+        }
+        
+        List<Long> ids = hits.stream().map(UserSearchHit::getId).collect(Collectors.toList());
+        Map<Long, User> users = userRepository.findWithProfileByIdIn(ids).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        List<UserDto> content = ids.stream()
+                .map(users::get)
+                .filter(Objects::nonNull)
+                .map(mappingService::toUserDto)
+                .collect(Collectors.toList());
+        
+        return new CursorPage<>(content, content.size(), next);
+    }
+    
+    private static String normalizeSearchTerm(String searchTerm) {
+        String term = searchTerm == null ? "" : searchTerm.trim().toLowerCase(Locale.ROOT);
+        if (term.isEmpty()) {
+            throw new IllegalArgumentException("Search term must not be blank");
+        }
+        return term;
+    }
+    
+    private static String escapeLike(String term) {
+        return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+    
+    /**
+     * Rehash a password whose stored hash uses an outdated algorithm or cost.
+     * Skipped when the hashing pool is saturated; the next login will retry.
      */
-    public void cleanupExpiredSessions() {
-        logger.info("Cleaning up expired sessions");
-        sessionRepository.deleteExpiredSessions(LocalDateTime.now());
+    private void upgradePasswordHashIfNeeded(User user, String rawPassword) {
+        if (!passwordHashing.needsUpgrade(user.getPassword())) {
+            return;
+        }
+        try {
+            String upgraded = passwordHashing.hash(rawPassword);
+            if (userRepository.updatePasswordHash(user.getId(), user.getPassword(), upgraded) > 0) {
+                logger.info("Upgraded password hash for user ID: {}", user.getId());
+            }
+        } catch (ServiceOverloadedException e) {
+            logger.debug("Skipping password hash upgrade for user ID {}: {}", user.getId(), e.getMessage());
+        }
     }
     
     /**
      * Create user session
      */
     private void createUserSession(User user, String refreshToken, String deviceInfo) {
-        // Remove existing session for the same device if it exists
-        if (deviceInfo != null) {
-            sessionRepository.findByUserIdAndDeviceType(user.getId(), deviceInfo)
-                    .ifPresent(sessionRepository::delete);
-        }
-        
-        // Create new session
-        UserSession session = new UserSession();
-        session.setUser(user);
-        session.setRefreshToken(refreshToken);
-        session.setDeviceType(deviceInfo);
-        session.setExpiresAt(LocalDateTime.now().plusSeconds(jwtService.getRefreshTokenExpiration()));
-        session.setCreatedAt(LocalDateTime.now());
-        
-        sessionRepository.save(session);
+        Instant now = Instant.now();
+        RefreshSession session = new RefreshSession(
+                UUID.randomUUID().toString(),
+                user.getId(),
+                deviceInfo,
+                now,
+                now.plusSeconds(jwtService.getRefreshTokenExpiration()));
+        
+        // Replaces any existing session for the same device
+        String tokenHash = JwtService.tokenHash(refreshToken);
+        List<String> replaced = sessionStore.create(tokenHash, session);
+        sessionAudit.recordCreated(tokenHash, session, replaced);
     }
 }
\ No newline at end of file
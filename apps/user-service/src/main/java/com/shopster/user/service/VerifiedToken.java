@@ -0,0 +1,51 @@
+package com.shopster.user.service;
+
+import java.time.Instant;
+
+/**
+ * Claims of a JWT whose signature and expiry have been verified.
+ * Immutable, so one instance is shared by every lookup of the same token.
+ */
+public final class VerifiedToken {
+
+    private final Long userId;
+    private final String email;
+    private final String roles;
+    private final String tokenType;
+    private final Instant expiresAt;
+
+    public VerifiedToken(Long userId, String email, String roles, String tokenType, Instant expiresAt) {
+        this.userId = userId;
+        this.email = email;
+        this.roles = roles;
+        this.tokenType = tokenType;
+        this.expiresAt = expiresAt;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    /**
+     * Comma-separated role names; null for refresh tokens
+     */
+    public String getRoles() {
+        return roles;
+    }
+
+    public String getTokenType() {
+        return tokenType;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public boolean isExpired() {
+        return !expiresAt.isAfter(Instant.now());
+    }
+}
@@ -0,0 +1,12 @@
+-- Indexes for admin user search; the expressions must match UserRepository's search queries
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Substring and ranked search on the full name
+CREATE INDEX IF NOT EXISTS idx_users_full_name_trgm
+    ON users USING GIN (lower(first_name || ' ' || last_name) gin_trgm_ops);
+
+-- Prefix search on either name
+CREATE INDEX IF NOT EXISTS idx_users_first_name_prefix
+    ON users (lower(first_name) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS idx_users_last_name_prefix
+    ON users (lower(last_name) text_pattern_ops);
@@ -0,0 +1,36 @@
+-- Store a refresh session and index it under its user.
+-- KEYS[1] session key, KEYS[2] user index key (token hash -> device type),
+-- KEYS[3..] keys of the sessions the index listed when the caller read it
+-- ARGV[1] token hash, ARGV[2] session id, ARGV[3] user id, ARGV[4] device type ('' if none),
+-- ARGV[5] created-at ms, ARGV[6] expires-at ms, ARGV[7..] token hashes of KEYS[3..]
+-- Of those sessions, ones on the same device are deleted and index entries whose
+-- session has expired are pruned; entries added since the read are left alone.
+-- Returns the ids of replaced sessions.
+local replaced = {}
+for i = 3, #KEYS do
+    local hash = ARGV[i + 4]
+    local device = redis.call('HGET', KEYS[2], hash)
+    if device then
+        local sid = redis.call('HGET', KEYS[i], 'sid')
+        if not sid then
+            redis.call('HDEL', KEYS[2], hash)
+        elseif ARGV[4] ~= '' and device == ARGV[4] then
+            redis.call('DEL', KEYS[i])
+            redis.call('HDEL', KEYS[2], hash)
+            replaced[#replaced + 1] = sid
+        end
+    end
+end
+
+redis.call('HSET', KEYS[1], 'sid', ARGV[2], 'uid', ARGV[3], 'dev', ARGV[4], 'created', ARGV[5], 'expires', ARGV[6])
+redis.call('PEXPIREAT', KEYS[1], ARGV[6])
+redis.call('HSET', KEYS[2], ARGV[1], ARGV[4])
+
+-- The index lives as long as the longest-lived session in it
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+local ttl = redis.call('PTTL', KEYS[2])
+if ttl < 0 or now + ttl < tonumber(ARGV[6]) then
+    redis.call('PEXPIREAT', KEYS[2], ARGV[6])
+end
+return replaced
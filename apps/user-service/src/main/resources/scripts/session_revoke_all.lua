@@ -0,0 +1,15 @@
+-- Remove every refresh session of a user.
+-- KEYS[1] user index key, KEYS[2..] keys of the sessions the index listed when the caller read it
+-- ARGV[1..] token hashes of KEYS[2..]
+-- A session indexed after the read is kept, as if it had been created just after.
+-- Returns the ids of the removed sessions.
+local removed = {}
+for i = 2, #KEYS do
+    local sid = redis.call('HGET', KEYS[i], 'sid')
+    if sid then
+        redis.call('DEL', KEYS[i])
+        removed[#removed + 1] = sid
+    end
+    redis.call('HDEL', KEYS[1], ARGV[i - 1])
+end
+return removed
@@ -0,0 +1,15 @@
+-- Remove a refresh session and return its fields, so a token can be used once.
+-- KEYS[1] session key, KEYS[2] index key of the user the caller read from the session
+-- ARGV[1] token hash, ARGV[2] that user's id
+-- Returns the session hash as a flat field/value list, empty if there is none.
+local fields = redis.call('HGETALL', KEYS[1])
+if #fields == 0 then
+    return fields
+end
+redis.call('DEL', KEYS[1])
+for i = 1, #fields, 2 do
+    if fields[i] == 'uid' and fields[i + 1] == ARGV[2] then
+        redis.call('HDEL', KEYS[2], ARGV[1])
+    end
+end
+return fields
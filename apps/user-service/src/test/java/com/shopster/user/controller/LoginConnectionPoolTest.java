@@ -0,0 +1,106 @@
+package com.shopster.user.controller;
+
+import com.shopster.user.entity.Role;
+import com.shopster.user.entity.User;
+import com.shopster.user.repository.RoleRepository;
+import com.shopster.user.repository.UserRepository;
+import com.shopster.user.service.PasswordHashingService;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Asserts that a login holds no pooled connection while it waits on password
+ * verification.
+ */
+@SpringBootTest(properties = "user.session.audit.enabled=false")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class LoginConnectionPoolTest {
+
+    private static final String EMAIL = "pool@test.com";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private PasswordHashingService passwordHashing;
+
+    @BeforeEach
+    void setUp() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            User user = new User(EMAIL, "encoded-password", "Pool", "Test");
+            user.addRole(roleRepository.findByName(Role.CUSTOMER).orElseThrow());
+            userRepository.save(user);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> userRepository.deleteAll());
+    }
+
+    @Test
+    void login_holdsNoConnectionWhileVerifyingPassword() throws Exception {
+        CountDownLatch hashing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(passwordHashing.matches(anyString(), anyString())).thenAnswer(invocation -> {
+            hashing.countDown();
+            return release.await(10, TimeUnit.SECONDS);
+        });
+
+        CompletableFuture<Integer> login = CompletableFuture.supplyAsync(() -> {
+            try {
+                return mockMvc.perform(post("/api/v1/auth/login")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"email\":\"" + EMAIL + "\",\"password\":\"secret\"}"))
+                        .andReturn().getResponse().getStatus();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        try {
+            assertTrue(hashing.await(10, TimeUnit.SECONDS), "Login never reached password verification");
+            int active = ((HikariDataSource) dataSource).getHikariPoolMXBean().getActiveConnections();
+            assertEquals(0, active, "Connections checked out while the password is verified");
+        } finally {
+            release.countDown();
+        }
+        assertEquals(200, login.get(10, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,97 @@
+package com.shopster.user.controller;
+
+import com.shopster.user.entity.Address;
+import com.shopster.user.entity.Role;
+import com.shopster.user.entity.User;
+import com.shopster.user.repository.RoleRepository;
+import com.shopster.user.repository.UserRepository;
+import com.shopster.user.support.QueryCountInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Asserts that user endpoints issue a bounded number of SQL statements,
+ * independent of page size.
+ */
+@SpringBootTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.shopster.user.support.QueryCountInspector")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser
+public class UserQueryCountTest {
+
+    private static final int USERS = 20;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Long firstUserId;
+
+    @BeforeEach
+    void setUp() {
+        firstUserId = new TransactionTemplate(transactionManager).execute(status -> {
+            Role customerRole = roleRepository.findByName(Role.CUSTOMER).orElseThrow();
+            Long id = null;
+            for (int i = 0; i < USERS; i++) {
+                User user = new User("user" + i + "@test.com", "encoded-password", "First" + i, "Last" + i);
+                user.addRole(customerRole);
+                user.addAddress(new Address(Address.AddressType.SHIPPING, i + " Main St", "Springfield", "IL", "62701", "US"));
+                user.addAddress(new Address(Address.AddressType.BILLING, i + " Side St", "Springfield", "IL", "62701", "US"));
+                user = userRepository.save(user);
+                if (id == null) {
+                    id = user.getId();
+                }
+            }
+            return id;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> userRepository.deleteAll());
+    }
+
+    @Test
+    void getAllUsers_batchFetchesCollections() throws Exception {
+        assertStatementsAtMost(4, "/api/v1/users?size=" + USERS);
+    }
+
+    @Test
+    void getUserSummaries_usesProjection() throws Exception {
+        assertStatementsAtMost(2, "/api/v1/users/summaries?size=" + USERS);
+    }
+
+    @Test
+    void getUserProfile_usesEntityGraph() throws Exception {
+        assertStatementsAtMost(1, "/api/v1/users/" + firstUserId);
+    }
+
+    private void assertStatementsAtMost(int expected, String url) throws Exception {
+        QueryCountInspector.reset();
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+        int actual = QueryCountInspector.count();
+        assertTrue(actual <= expected, "Expected at most " + expected + " statements for " + url + " but got " + actual);
+    }
+}
@@ -0,0 +1,70 @@
+package com.shopster.user.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InMemoryRefreshSessionStoreTest {
+
+    private InMemoryRefreshSessionStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryRefreshSessionStore();
+    }
+
+    private static RefreshSession session(String sessionId, Long userId, String device) {
+        Instant now = Instant.now();
+        return new RefreshSession(sessionId, userId, device, now, now.plusSeconds(3600));
+    }
+
+    @Test
+    void take_consumesSessionOnce() {
+        store.create("hash-1", session("s1", 1L, "web"));
+
+        assertTrue(store.find("hash-1").isPresent());
+        assertEquals("s1", store.take("hash-1").orElseThrow().getSessionId());
+        assertTrue(store.take("hash-1").isEmpty());
+        assertTrue(store.find("hash-1").isEmpty());
+    }
+
+    @Test
+    void create_replacesSessionOnSameDevice() {
+        store.create("hash-1", session("s1", 1L, "web"));
+        store.create("hash-2", session("s2", 1L, "mobile"));
+
+        List<String> replaced = store.create("hash-3", session("s3", 1L, "web"));
+
+        assertEquals(List.of("s1"), replaced);
+        assertTrue(store.find("hash-1").isEmpty());
+        assertTrue(store.find("hash-2").isPresent());
+        assertTrue(store.find("hash-3").isPresent());
+    }
+
+    @Test
+    void removeAllForUser_leavesOtherUsersAlone() {
+        store.create("hash-1", session("s1", 1L, "web"));
+        store.create("hash-2", session("s2", 1L, "mobile"));
+        store.create("hash-3", session("s3", 2L, "web"));
+
+        List<String> removed = store.removeAllForUser(1L);
+
+        assertEquals(2, removed.size());
+        assertTrue(store.find("hash-1").isEmpty());
+        assertTrue(store.find("hash-2").isEmpty());
+        assertTrue(store.find("hash-3").isPresent());
+    }
+
+    @Test
+    void find_ignoresExpiredSession() {
+        Instant past = Instant.now().minusSeconds(60);
+        store.create("hash-1", new RefreshSession("s1", 1L, "web", past.minusSeconds(60), past));
+
+        assertTrue(store.find("hash-1").isEmpty());
+        assertTrue(store.take("hash-1").isEmpty());
+    }
+}
@@ -0,0 +1,151 @@
+package com.shopster.user.repository;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the session scripts against a real Redis
+ */
+@Testcontainers
+public class RedisRefreshSessionStoreTest {
+
+    @Container
+    private static final GenericContainer<?> redis =
+            new GenericContainer<>(DockerImageName.parse("redis:7-alpine")).withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+
+    private StringRedisTemplate redisTemplate;
+    private RedisRefreshSessionStore store;
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new LettuceConnectionFactory(redis.getHost(), redis.getMappedPort(6379));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        store = new RedisRefreshSessionStore(redisTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        redisTemplate.execute(connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        }, true);
+    }
+
+    private static RefreshSession session(String sessionId, Long userId, String device) {
+        Instant now = Instant.now();
+        return new RefreshSession(sessionId, userId, device, now, now.plusSeconds(3600));
+    }
+
+    private Set<Object> indexed(Long userId) {
+        return redisTemplate.opsForHash().keys("session:user:" + userId);
+    }
+
+    @Test
+    void take_consumesSessionOnceAndDropsItFromTheIndex() {
+        store.create("hash-1", session("s1", 1L, "web"));
+
+        assertTrue(store.find("hash-1").isPresent());
+        assertEquals("s1", store.take("hash-1").orElseThrow().getSessionId());
+        assertTrue(store.take("hash-1").isEmpty());
+        assertTrue(store.find("hash-1").isEmpty());
+        assertFalse(indexed(1L).contains("hash-1"));
+    }
+
+    @Test
+    void take_unknownTokenReturnsEmpty() {
+        assertTrue(store.take("missing").isEmpty());
+    }
+
+    @Test
+    void create_replacesSessionOnSameDevice() {
+        store.create("hash-1", session("s1", 1L, "web"));
+        store.create("hash-2", session("s2", 1L, "mobile"));
+
+        List<String> replaced = store.create("hash-3", session("s3", 1L, "web"));
+
+        assertEquals(List.of("s1"), replaced);
+        assertTrue(store.find("hash-1").isEmpty());
+        assertTrue(store.find("hash-2").isPresent());
+        assertTrue(store.find("hash-3").isPresent());
+        assertEquals(Set.of("hash-2", "hash-3"), indexed(1L));
+    }
+
+    @Test
+    void create_prunesIndexEntriesOfExpiredSessions() {
+        store.create("hash-1", session("s1", 1L, "web"));
+        redisTemplate.delete("session:hash-1");
+
+        List<String> replaced = store.create("hash-2", session("s2", 1L, "mobile"));
+
+        assertTrue(replaced.isEmpty());
+        assertEquals(Set.of("hash-2"), indexed(1L));
+    }
+
+    @Test
+    void create_keepsSessionsWithoutDeviceType() {
+        store.create("hash-1", session("s1", 1L, null));
+
+        List<String> replaced = store.create("hash-2", session("s2", 1L, null));
+
+        assertTrue(replaced.isEmpty());
+        assertNull(store.find("hash-1").orElseThrow().getDeviceType());
+        assertTrue(store.find("hash-2").isPresent());
+    }
+
+    @Test
+    void removeAllForUser_leavesOtherUsersAlone() {
+        store.create("hash-1", session("s1", 1L, "web"));
+        store.create("hash-2", session("s2", 1L, "mobile"));
+        store.create("hash-3", session("s3", 2L, "web"));
+
+        List<String> removed = store.removeAllForUser(1L);
+
+        assertEquals(Set.of("s1", "s2"), Set.copyOf(removed));
+        assertTrue(store.find("hash-1").isEmpty());
+        assertTrue(store.find("hash-2").isEmpty());
+        assertTrue(store.find("hash-3").isPresent());
+        assertTrue(indexed(1L).isEmpty());
+    }
+
+    @Test
+    void removeAllForUser_withNoSessionsReturnsEmpty() {
+        assertTrue(store.removeAllForUser(7L).isEmpty());
+    }
+
+    @Test
+    void find_ignoresExpiredSession() {
+        Instant past = Instant.now().minusSeconds(60);
+        store.create("hash-1", new RefreshSession("s1", 1L, "web", past.minusSeconds(60), past));
+
+        assertTrue(store.find("hash-1").isEmpty());
+        assertTrue(store.take("hash-1").isEmpty());
+    }
+}
@@ -6,16 +6,16 @@ import com.shopster.user.entity.Role;
 import com.shopster.user.entity.User;
 import com.shopster.user.exception.EmailAlreadyExistsException;
 import com.shopster.user.exception.InvalidCredentialsException;
+import com.shopster.user.repository.RefreshSessionStore;
 import com.shopster.user.repository.RoleRepository;
 import com.shopster.user.repository.UserRepository;
-import com.shopster.user.repository.UserSessionRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.Optional;
 
@@ -33,10 +33,16 @@ public class UserServiceTest {
     private RoleRepository roleRepository;
 
     @Mock
-    private UserSessionRepository sessionRepository;
+    private RefreshSessionStore sessionStore;
 
     @Mock
-    private PasswordEncoder passwordEncoder;
+    private SessionAuditService sessionAudit;
+
+    @Mock
+    private PasswordHashingService passwordHashing;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
 
     @Mock
     private JwtService jwtService;
@@ -61,9 +67,10 @@ public class UserServiceTest {
         RegisterRequest request = new RegisterRequest("test@test.com", "password", "Test", "User");
 
         when(userRepository.existsByEmail(request.getEmail())).thenReturn(false);
-        when(passwordEncoder.encode(request.getPassword())).thenReturn("encodedPassword");
+        when(passwordHashing.hash(request.getPassword())).thenReturn("encodedPassword");
         when(roleRepository.findByName(Role.CUSTOMER)).thenReturn(Optional.of(customerRole));
         when(userRepository.save(any(User.class))).thenReturn(user);
+        when(jwtService.generateRefreshToken(any(), any())).thenReturn("refresh-token");
 
         assertDoesNotThrow(() -> userService.register(request));
     }
@@ -82,7 +89,8 @@ public class UserServiceTest {
         LoginRequest request = new LoginRequest("test@test.com", "password");
 
         when(userRepository.findByEmail(request.getEmail())).thenReturn(Optional.of(user));
-        when(passwordEncoder.matches(request.getPassword(), user.getPassword())).thenReturn(true);
+        when(passwordHashing.matches(request.getPassword(), user.getPassword())).thenReturn(true);
+        when(jwtService.generateRefreshToken(any(), any())).thenReturn("refresh-token");
 
         assertDoesNotThrow(() -> userService.login(request, "deviceInfo"));
     }
@@ -92,7 +100,7 @@ public class UserServiceTest {
         LoginRequest request = new LoginRequest("test@test.com", "password");
 
         when(userRepository.findByEmail(request.getEmail())).thenReturn(Optional.of(user));
-        when(passwordEncoder.matches(request.getPassword(), user.getPassword())).thenReturn(false);
+        when(passwordHashing.matches(request.getPassword(), user.getPassword())).thenReturn(false);
 
         assertThrows(InvalidCredentialsException.class, () -> userService.login(request, "deviceInfo"));
     }
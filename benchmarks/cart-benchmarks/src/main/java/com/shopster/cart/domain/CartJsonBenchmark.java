@@ -0,0 +1,57 @@
+package com.shopster.cart.domain;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the cart response, with the ObjectMapper configuration
+ * Spring MVC uses by default.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class CartJsonBenchmark {
+
+    @Param({"5", "50"})
+    private int items;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private Cart cart;
+
+    @Setup
+    public void setUp() {
+        List<CartItem> lines = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            lines.add(new CartItem("product-" + i, "Product " + i, 1 + i % 3, new BigDecimal("24.99"),
+                    "https://images.shopster.dev/" + i + "/front.jpg", "Brand " + (i % 7), true));
+        }
+        cart = new Cart("user-1");
+        cart.setItems(lines);
+    }
+
+    @Benchmark
+    public byte[] cart() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(cart);
+    }
+}
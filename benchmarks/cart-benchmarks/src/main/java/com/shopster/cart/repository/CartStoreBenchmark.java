@@ -0,0 +1,172 @@
+package com.shopster.cart.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shopster.cart.codec.BinaryCartItemCodec;
+import com.shopster.cart.codec.BrandDictionary;
+import com.shopster.cart.codec.CartItemCodec;
+import com.shopster.cart.codec.CartItemDetails;
+import com.shopster.cart.codec.JsonCartItemCodec;
+import com.shopster.cart.domain.Cart;
+import com.shopster.cart.dto.CartItemOperationRequest;
+import com.shopster.cart.service.CartService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The JVM side of cart reads and batch merges: encoding script arguments,
+ * decoding the returned hash fields and ordering the items. Redis is replaced by
+ * a template that returns a canned cart of {@code items} lines, so the merge
+ * itself (done by cart_mutate.lua) and the network round-trip are not measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class CartStoreBenchmark {
+
+    @Param({"binary", "json"})
+    private String codec;
+
+    @Param({"5", "50"})
+    private int items;
+
+    private CartService cartService;
+    private List<CartItemOperationRequest> batch;
+
+    @Setup
+    public void setUp() {
+        List<CartItemCodec> codecs = List.of(
+                new BinaryCartItemCodec(new LocalBrandDictionary()),
+                new JsonCartItemCodec(new ObjectMapper()));
+        CartItemCodec writeCodec = codecs.stream()
+                .filter(candidate -> candidate.getFormat().equals(codec))
+                .findFirst()
+                .orElseThrow();
+
+        List<Object> fields = new ArrayList<>();
+        long addedAt = System.currentTimeMillis();
+        for (int i = 0; i < items; i++) {
+            fields.add(utf8("product-" + i));
+            fields.add(utf8(Integer.toString(1 + i % 3)));
+            fields.add(utf8("product-" + i + ":info"));
+            fields.add(writeCodec.encode(new CartItemDetails("Product " + i, new BigDecimal("24.99"),
+                    "https://images.shopster.dev/" + i + "/front.jpg", "Brand " + (i % 7), true, addedAt + i)));
+        }
+
+        // Archive and legacy repository are only consulted for carts that come back empty
+        CartStore cartStore = new CartStore(new CannedRedisTemplate(fields), null, null, codecs,
+                new SimpleMeterRegistry(), codec, Duration.ofDays(30), false);
+        cartService = new CartService(cartStore);
+
+        batch = List.of(
+                operation(CartItemOperationRequest.Op.ADD, "product-0", 1),
+                operation(CartItemOperationRequest.Op.ADD, "product-new", 2),
+                operation(CartItemOperationRequest.Op.UPDATE, "product-1", 3),
+                operation(CartItemOperationRequest.Op.REMOVE, "product-2", 0));
+    }
+
+    @Benchmark
+    public Cart getCart() {
+        return cartService.getCart("user-1");
+    }
+
+    @Benchmark
+    public Cart applyBatch() {
+        return cartService.applyBatch("user-1", batch);
+    }
+
+    private static CartItemOperationRequest operation(CartItemOperationRequest.Op op, String productId, int quantity) {
+        CartItemOperationRequest request = new CartItemOperationRequest();
+        request.setOp(op);
+        request.setProductId(productId);
+        request.setQuantity(quantity);
+        if (op == CartItemOperationRequest.Op.ADD) {
+            request.setProductName("Product " + productId);
+            request.setPrice(24.99);
+            request.setImageUrl("https://images.shopster.dev/" + productId + "/front.jpg");
+            request.setBrand("Brand 1");
+            request.setInStock(true);
+        }
+        return request;
+    }
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Answers every script call with the same flat field/value list, as cart_mutate.lua returns it
+     */
+    private static final class CannedRedisTemplate extends RedisTemplate<String, byte[]> {
+
+        private final List<Object> fields;
+
+        CannedRedisTemplate(List<Object> fields) {
+            this.fields = fields;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T execute(RedisScript<T> script, List<String> keys, Object... args) {
+            return (T) fields;
+        }
+    }
+
+    /**
+     * Brand dictionary without Redis; ids are assigned on first use, as with the real one
+     */
+    private static final class LocalBrandDictionary extends BrandDictionary {
+
+        private final Map<String, Long> ids = new ConcurrentHashMap<>();
+        private final Map<Long, String> names = new ConcurrentHashMap<>();
+
+        LocalBrandDictionary() {
+            super(null);
+        }
+
+        @Override
+        public long idIfKnown(String brand) {
+            return idOf(brand);
+        }
+
+        @Override
+        public long idOf(String brand) {
+            if (brand == null || brand.isEmpty()) {
+                return 0;
+            }
+            return ids.computeIfAbsent(brand, name -> {
+                long id = ids.size() + 1;
+                names.put(id, name);
+                return id;
+            });
+        }
+
+        @Override
+        public String nameOf(long id) {
+            return names.getOrDefault(id, "");
+        }
+    }
+}
@@ -0,0 +1,20 @@
+#!/bin/bash
+# Compare two benchmark runs, e.g. ./compare.sh results/1a2b3c4 results/5d6e7f8
+# Prints each benchmark's baseline and current score and the change in percent.
+# For time-per-operation scores a positive change is a regression.
+set -euo pipefail
+
+if [ $# -ne 2 ]; then
+    echo "Usage: $0 <baseline-results-dir> <current-results-dir>" >&2
+    exit 1
+fi
+
+scores() {
+    jq -r '.[] | [(.benchmark + ((.params // {}) | to_entries | map("," + .key + "=" + .value) | join(""))),
+                  .primaryMetric.score, .primaryMetric.scoreError, .primaryMetric.scoreUnit] | @tsv' \
+        "$1"/*.json | sort
+}
+
+join -t $'\t' <(scores "$1") <(scores "$2") |
+    awk -F '\t' 'BEGIN { printf "%-90s %14s %14s %10s %9s\n", "Benchmark", "Baseline", "Current", "Unit", "Change" }
+        { printf "%-90s %14.3f %14.3f %10s %+8.1f%%\n", $1, $2, $5, $7, ($5 - $2) / $2 * 100 }'
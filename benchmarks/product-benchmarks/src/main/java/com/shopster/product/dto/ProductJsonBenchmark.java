@@ -0,0 +1,103 @@
+package com.shopster.product.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shopster.product.document.Product;
+import com.shopster.product.document.ProductImage;
+import com.shopster.product.service.ProductSummaryMapper;
+import com.shopster.product.service.ProductSummaryMapperBenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of product responses, with the ObjectMapper configuration
+ * Spring MVC uses by default.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ProductJsonBenchmark {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private ProductDto product;
+    private List<ProductSummaryDto> summaryPage;
+
+    @Setup
+    public void setUp() {
+        product = toDto(ProductSummaryMapperBenchmark.sampleProduct(0));
+
+        ProductSummaryMapper mapper = new ProductSummaryMapper();
+        summaryPage = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            summaryPage.add(mapper.toSummaryDto(ProductSummaryMapperBenchmark.sampleProduct(i)));
+        }
+    }
+
+    @Benchmark
+    public byte[] productDetail() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(product);
+    }
+
+    @Benchmark
+    public byte[] summaryPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(summaryPage);
+    }
+
+    private static ProductDto toDto(Product source) {
+        ProductDto dto = new ProductDto(source.getName(), source.getBrand(), source.getCategory(),
+                source.getSku(), source.getPrice());
+        dto.setId(source.getId());
+        dto.setDescription(source.getDescription());
+        dto.setSubcategory(source.getSubcategory());
+        dto.setTags(source.getTags());
+        dto.setSalePrice(source.getSalePrice());
+        dto.setSpecifications(source.getSpecifications());
+        dto.setStatus(source.getStatus().name());
+        dto.setVisibility(source.getVisibility().name());
+        dto.setFeatured(source.getFeatured());
+        dto.setCreatedAt(source.getCreatedAt());
+        dto.setUpdatedAt(source.getUpdatedAt());
+        dto.setVersion(source.getVersion());
+
+        List<ProductImageDto> images = new ArrayList<>();
+        for (ProductImage image : source.getImages()) {
+            ProductImageDto imageDto = new ProductImageDto();
+            imageDto.setUrl(image.getUrl());
+            imageDto.setAlt(image.getAlt());
+            imageDto.setPrimary(image.getIsPrimary());
+            images.add(imageDto);
+        }
+        dto.setImages(images);
+
+        RatingDto rating = new RatingDto();
+        rating.setAverage(source.getRating().getAverage());
+        rating.setCount(source.getRating().getCount());
+        rating.setDistribution(Map.of("5", 800, "4", 250, "3", 90, "2", 40, "1", 20));
+        dto.setRating(rating);
+
+        InventoryDto inventory = new InventoryDto();
+        inventory.setQuantity(source.getInventory().getQuantity());
+        inventory.setInStock(source.getInventory().getInStock());
+        inventory.setStockStatus(source.getInventory().getStockStatus());
+        dto.setInventory(inventory);
+        return dto;
+    }
+}
@@ -0,0 +1,99 @@
+package com.shopster.product.service;
+
+import com.shopster.product.document.Inventory;
+import com.shopster.product.document.Product;
+import com.shopster.product.document.ProductImage;
+import com.shopster.product.document.Rating;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping a listing page of products to summary DTOs. Scores are per product.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ProductSummaryMapperBenchmark {
+
+    static final int PAGE_SIZE = 20;
+
+    private final ProductSummaryMapper mapper = new ProductSummaryMapper();
+
+    private List<Product> page;
+
+    @Setup
+    public void setUp() {
+        page = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            page.add(sampleProduct(i));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAGE_SIZE)
+    public void toSummaryDto(Blackhole blackhole) {
+        for (Product product : page) {
+            blackhole.consume(mapper.toSummaryDto(product));
+        }
+    }
+
+    /**
+     * A fully populated product; every third one is on sale and every fifth is featured
+     */
+    public static Product sampleProduct(int i) {
+        Product product = new Product("Wireless Headphones " + i, "Brand " + (i % 7), "Electronics",
+                "SKU-" + i, new BigDecimal("199.99"));
+        product.setId("product-" + i);
+        product.setDescription("Over-ear noise cancelling headphones with 30 hours of battery life");
+        product.setSubcategory("Audio");
+        if (i % 3 == 0) {
+            product.setSalePrice(new BigDecimal("149.99"));
+        }
+        product.setFeatured(i % 5 == 0);
+
+        Set<String> tags = new LinkedHashSet<>(List.of("audio", "wireless", "bluetooth", "noise-cancelling"));
+        product.setTags(tags);
+
+        Map<String, String> specifications = new LinkedHashMap<>();
+        specifications.put("Battery", "30 hours");
+        specifications.put("Weight", "250 g");
+        specifications.put("Connectivity", "Bluetooth 5.3");
+        product.setSpecifications(specifications);
+
+        List<ProductImage> images = new ArrayList<>();
+        images.add(new ProductImage("https://images.shopster.dev/" + i + "/side.jpg", "Side view", false));
+        images.add(new ProductImage("https://images.shopster.dev/" + i + "/front.jpg", "Front view", true));
+        product.setImages(images);
+
+        product.setRating(new Rating(new BigDecimal("4.6"), 1200 + i));
+        product.setInventory(new Inventory(40 + i, true));
+
+        LocalDateTime now = LocalDateTime.of(2024, 1, 1, 12, 0);
+        product.setCreatedAt(now);
+        product.setUpdatedAt(now);
+        return product;
+    }
+}
@@ -0,0 +1,31 @@
+#!/bin/bash
+# Build the services and benchmarks, then run every benchmark module.
+# Results are written as JMH JSON to results/<commit>/<module>.json; compare two
+# runs with compare.sh. Extra arguments go to JMH, e.g. ./run.sh -f 1 'Jwt.*'
+set -euo pipefail
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+MODULES=(product cart user)
+
+COMMIT="$(git -C "$ROOT" rev-parse --short HEAD)"
+if [ -n "$(git -C "$ROOT" status --porcelain -- apps benchmarks)" ]; then
+    COMMIT="$COMMIT-dirty"
+fi
+OUT="$ROOT/benchmarks/results/$COMMIT"
+mkdir -p "$OUT"
+
+echo "Installing services..."
+for module in "${MODULES[@]}"; do
+    mvn -B -q -f "$ROOT/apps/$module-service/pom.xml" install -DskipTests
+done
+
+echo "Building benchmarks..."
+mvn -B -q -f "$ROOT/benchmarks/pom.xml" package
+
+for module in "${MODULES[@]}"; do
+    echo "Running $module benchmarks..."
+    java -jar "$ROOT/benchmarks/$module-benchmarks/target/benchmarks.jar" \
+        -rf json -rff "$OUT/$module.json" "$@"
+done
+
+echo "Results written to $OUT"
@@ -0,0 +1,74 @@
+package com.shopster.user.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Field;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Access token signing and verification. A verification cache size of 0 measures
+ * full signature verification on every call; 10000 is the service default.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class JwtServiceBenchmark {
+
+    private static final String SECRET = "vWFsRg7CERm9PhLVk2g1rhA1xZYXMtAOFahPTbqE0s0=";
+
+    @Param({"0", "10000"})
+    private long verificationCacheSize;
+
+    private JwtService jwtService;
+    private String token;
+    private String forgedToken;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        jwtService = new JwtService();
+        set(jwtService, "secretKey", SECRET);
+        set(jwtService, "accessTokenExpiration", 3600);
+        set(jwtService, "refreshTokenExpiration", 604800);
+        set(jwtService, "verificationCacheMaxSize", verificationCacheSize);
+        jwtService.init();
+
+        token = jwtService.generateAccessToken(42L, "user@example.com", "USER");
+        char last = token.charAt(token.length() - 1);
+        forgedToken = token.substring(0, token.length() - 1) + (last == 'A' ? 'B' : 'A');
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return jwtService.generateAccessToken(42L, "user@example.com", "USER");
+    }
+
+    @Benchmark
+    public Optional<VerifiedToken> verify() {
+        return jwtService.verify(token);
+    }
+
+    @Benchmark
+    public boolean rejectForged() {
+        return jwtService.isTokenValid(forgedToken);
+    }
+
+    private static void set(Object target, String name, Object value) throws ReflectiveOperationException {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
@@ -0,0 +1,68 @@
+package com.shopster.user.service;
+
+import com.shopster.user.dto.UserDto;
+import com.shopster.user.entity.Address;
+import com.shopster.user.entity.Role;
+import com.shopster.user.entity.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping a user with two roles and two addresses to the profile DTO
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class UserMappingServiceBenchmark {
+
+    private final UserMappingService mappingService = new UserMappingService();
+
+    private User user;
+
+    @Setup
+    public void setUp() {
+        user = new User("user@example.com", "{bcrypt}hash", "Jane", "Smith");
+        user.setId(42L);
+        user.setPhoneNumber("+15555550100");
+        user.setEmailVerified(true);
+        user.setPreferredLanguage("en");
+        user.setMarketingConsent(false);
+        LocalDateTime now = LocalDateTime.of(2024, 1, 1, 12, 0);
+        user.setCreatedAt(now);
+        user.setUpdatedAt(now);
+
+        Role customer = new Role("USER", "Customer");
+        customer.setId(1L);
+        Role admin = new Role("ADMIN", "Administrator");
+        admin.setId(2L);
+        user.getRoles().add(customer);
+        user.getRoles().add(admin);
+
+        Address shipping = new Address(Address.AddressType.SHIPPING, "1 Main St", "Seattle", "WA", "98101", "US");
+        shipping.setId(10L);
+        shipping.setIsDefault(true);
+        Address billing = new Address(Address.AddressType.BILLING, "2 Pine St", "Seattle", "WA", "98101", "US");
+        billing.setId(11L);
+        user.getAddresses().add(shipping);
+        user.getAddresses().add(billing);
+    }
+
+    @Benchmark
+    public UserDto toUserDto() {
+        return mappingService.toUserDto(user);
+    }
+}
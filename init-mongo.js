@@ -12,18 +12,28 @@ db.products.createIndex({
     "tags": "text"
 });
 
-// Create compound indexes for common queries
+// Create compound indexes for common queries (mirrored by @CompoundIndex on Product
+// and checked at startup by ProductIndexVerifier)
 db.products.createIndex({ "category": 1, "status": 1, "visibility": 1 });
 db.products.createIndex({ "brand": 1, "status": 1, "visibility": 1 });
 db.products.createIndex({ "sku": 1 }, { unique: true });
 db.products.createIndex({ "featured": 1, "status": 1, "visibility": 1 });
 db.products.createIndex({ "trending": 1, "status": 1, "visibility": 1 });
 db.products.createIndex({ "recommended": 1, "status": 1, "visibility": 1 });
+db.products.createIndex({ "tags": 1, "status": 1, "visibility": 1 });
+db.products.createIndex({ "inventory.inStock": 1, "status": 1, "visibility": 1, "inventory.quantity": 1 });
+db.products.createIndex({ "status": 1, "visibility": 1, "price": 1 });
 db.products.createIndex({ "price": 1 });
-db.products.createIndex({ "salePrice": 1 });
-db.products.createIndex({ "inventory.inStock": 1, "inventory.quantity": 1 });
-db.products.createIndex({ "tags": 1 });
-db.products.createIndex({ "createdAt": -1 });
-db.products.createIndex({ "updatedAt": -1 });
+db.products.createIndex({ "sale_price": 1 });
+db.products.createIndex({ "created_at": -1 });
+db.products.createIndex({ "updated_at": -1 });
+
+// Keyset pagination indexes (sort key + _id tiebreaker), mirrored on Product
+db.products.createIndex({ "name": 1, "_id": 1 }, { name: "name_id" });
+db.products.createIndex({ "price": 1, "_id": 1 }, { name: "price_id" });
+db.products.createIndex({ "category": 1, "status": 1, "visibility": 1, "name": 1, "_id": 1 },
+    { name: "category_status_visibility_name_id" });
+db.products.createIndex({ "category": 1, "status": 1, "visibility": 1, "price": 1, "_id": 1 },
+    { name: "category_status_visibility_price_id" });
 
 print('MongoDB indexes created successfully for shopster_products_dev database');
\ No newline at end of file
@@ -0,0 +1,82 @@
+#!/bin/bash
+# Boot product, user and cart services and the API gateway against local
+# stand-ins, generate the catalog, and run the load generator through the gateway.
+#
+#   CATALOG_SIZE=100000 ./loadtest/run.sh --rate=500 --duration=120s
+#
+# Environment:
+#   CATALOG_SIZE  products to generate (default 10000)
+#   CATALOG_SEED  catalog generator seed (default 42)
+#   STANDINS      docker (default): start throwaway MongoDB, Redis and Postgres
+#                 from loadtest/docker-compose.yml; external: use whatever is
+#                 already listening on the default ports
+# Arguments are passed to the load generator; see loadtest/README.md.
+set -euo pipefail
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+LOGS="$ROOT/loadtest/logs"
+STANDINS="${STANDINS:-docker}"
+export CATALOG_SIZE="${CATALOG_SIZE:-10000}"
+export CATALOG_SEED="${CATALOG_SEED:-42}"
+PIDS=()
+
+cleanup() {
+    echo "Stopping services..."
+    for pid in "${PIDS[@]}"; do
+        kill "$pid" 2>/dev/null || true
+    done
+    wait 2>/dev/null || true
+    if [ "$STANDINS" = "docker" ]; then
+        docker compose -f "$ROOT/loadtest/docker-compose.yml" down -v > /dev/null
+    fi
+}
+trap cleanup EXIT
+
+start() {
+    local name="$1" jar="$2"
+    shift 2
+    echo "Starting $name..."
+    java -jar "$jar" --spring.profiles.active=loadtest "$@" > "$LOGS/$name.log" 2>&1 &
+    PIDS+=("$!")
+}
+
+await_ready() {
+    local name="$1" port="$2"
+    for _ in $(seq 1 90); do
+        if curl -fs "http://localhost:$port/actuator/health/readiness" > /dev/null; then
+            echo "$name is ready"
+            return
+        fi
+        sleep 2
+    done
+    echo "$name did not become ready; see $LOGS/$name.log" >&2
+    exit 1
+}
+
+mkdir -p "$LOGS"
+
+if [ "$STANDINS" = "docker" ]; then
+    echo "Starting MongoDB, Redis and Postgres stand-ins..."
+    docker compose -f "$ROOT/loadtest/docker-compose.yml" up -d --wait
+fi
+
+echo "Building..."
+for module in apps/product-service apps/user-service apps/cart-service apps/api-gateway loadtest; do
+    mvn -B -q -f "$ROOT/$module/pom.xml" package -DskipTests
+done
+
+start product-service "$(ls "$ROOT"/apps/product-service/target/product-service-*-exec.jar)"
+start user-service "$(ls "$ROOT"/apps/user-service/target/user-service-*-exec.jar)"
+start cart-service "$(ls "$ROOT"/apps/cart-service/target/cart-service-*-exec.jar)" \
+    --cart.archive.path="$LOGS/cart-archive.log"
+start api-gateway "$(ls "$ROOT"/apps/api-gateway/target/api-gateway-*.jar | grep -v original)"
+
+# Readiness only flips once startup runners and ApplicationReadyEvent listeners have
+# finished, so product-service has generated the catalog and rebuilt its search index
+await_ready product-service 8082
+await_ready user-service 8081
+await_ready cart-service 8085
+
+COMMIT="$(git -C "$ROOT" rev-parse --short HEAD)"
+java -jar "$ROOT/loadtest/target/loadtest.jar" \
+    --label="$COMMIT catalog=$CATALOG_SIZE" --output="$ROOT/loadtest/results" "$@"
@@ -0,0 +1,82 @@
+package com.shopster.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Sample of the catalog the load is generated from: product ids for detail
+ * pages and carts, categories for listings, and words from product names and
+ * brands for searches.
+ */
+public class Catalog {
+
+    private static final int PAGE_SIZE = 100;
+
+    private final List<Product> products;
+    private final List<String> categories;
+    private final List<String> terms;
+
+    private Catalog(List<Product> products, List<String> categories, List<String> terms) {
+        this.products = products;
+        this.categories = categories;
+        this.terms = terms;
+    }
+
+    /**
+     * Walk the product listing by price with keyset pagination until {@code limit} products are
+     * collected. Price order mixes brands and categories, unlike name order.
+     */
+    public static Catalog discover(GatewayClient client, int limit) throws IOException, InterruptedException {
+        List<Product> products = new ArrayList<>();
+        Set<String> categories = new LinkedHashSet<>();
+        Set<String> terms = new LinkedHashSet<>();
+        String cursor = "";
+        while (products.size() < limit && cursor != null) {
+            GatewayClient.Response page = client.exchange(client.get(
+                    "/api/v1/products?cursor=" + GatewayClient.encode(cursor) + "&size=" + PAGE_SIZE + "&sortBy=price",
+                    null));
+            if (!page.isSuccess()) {
+                throw new IllegalStateException("Listing products failed with status " + page.status());
+            }
+            for (JsonNode node : page.body().path("content")) {
+                Product product = new Product(node.path("id").asText(), node.path("name").asText(),
+                        node.path("brand").asText(), node.path("price").asDouble(), node.path("imageUrl").asText());
+                products.add(product);
+                categories.add(node.path("category").asText());
+                terms.add(product.brand().toLowerCase(Locale.ROOT));
+                for (String word : product.name().toLowerCase(Locale.ROOT).split("\\s+")) {
+                    if (word.length() >= 3 && !word.chars().allMatch(Character::isDigit)) {
+                        terms.add(word);
+                    }
+                }
+            }
+            JsonNode next = page.body().path("next");
+            cursor = next.isNull() || next.isMissingNode() ? null : next.asText();
+        }
+        if (products.isEmpty()) {
+            throw new IllegalStateException("The catalog is empty; start product-service with the loadtest profile");
+        }
+        return new Catalog(products, new ArrayList<>(categories), new ArrayList<>(terms));
+    }
+
+    public List<Product> products() {
+        return products;
+    }
+
+    public List<String> categories() {
+        return categories;
+    }
+
+    public List<String> terms() {
+        return terms;
+    }
+
+    public record Product(String id, String name, String brand, double price, String imageUrl) {
+    }
+}
@@ -0,0 +1,82 @@
+package com.shopster.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram and error counts for one endpoint. Latency is measured from
+ * when the request was scheduled to be sent, not when it was actually sent, so
+ * time spent queued behind a slow service is included.
+ */
+public class EndpointStats {
+
+    private final String endpoint;
+
+    /**
+     * Microseconds, 3 significant digits, resized as needed
+     */
+    private final Histogram latencies = new ConcurrentHistogram(3);
+
+    private final LongAdder errors = new LongAdder();
+
+    /**
+     * Errors by HTTP status, or by exception for requests that got no response
+     */
+    private final ConcurrentMap<String, LongAdder> errorsByCause = new ConcurrentHashMap<>();
+
+    public EndpointStats(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * Record a response; any 4xx or 5xx status counts as an error
+     */
+    public void record(long latencyNanos, int status) {
+        latencies.recordValue(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+        if (status >= 400) {
+            error(Integer.toString(status));
+        }
+    }
+
+    /**
+     * Record a request that failed without a response, e.g. a timeout or refused connection
+     */
+    public void recordFailure(long latencyNanos, Throwable cause) {
+        latencies.recordValue(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+        error(cause.getClass().getSimpleName());
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public Histogram getLatencies() {
+        return latencies;
+    }
+
+    public long getRequests() {
+        return latencies.getTotalCount();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public Map<String, Long> getErrorsByCause() {
+        Map<String, Long> causes = new TreeMap<>();
+        errorsByCause.forEach((cause, count) -> causes.put(cause, count.sum()));
+        return causes;
+    }
+
+    private void error(String cause) {
+        errors.increment();
+        errorsByCause.computeIfAbsent(cause, key -> new LongAdder()).increment();
+    }
+}
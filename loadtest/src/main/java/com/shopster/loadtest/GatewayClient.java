@@ -0,0 +1,112 @@
+package com.shopster.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * HTTP client for the API gateway. One instance is shared by every request, so
+ * connections are pooled and kept alive.
+ */
+public class GatewayClient {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+
+    public GatewayClient(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public HttpRequest get(String path, String token) {
+        return builder(path, token).GET().build();
+    }
+
+    public HttpRequest post(String path, Object body, String token) {
+        return builder(path, token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(json(body)))
+                .build();
+    }
+
+    public HttpRequest delete(String path, String token) {
+        return builder(path, token).DELETE().build();
+    }
+
+    /**
+     * Send a request and return its status, discarding the body
+     */
+    public int send(HttpRequest request) throws IOException, InterruptedException {
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    /**
+     * Send a request and parse its JSON body; the body is null when the status is not 2xx
+     */
+    public Response exchange(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        JsonNode body = response.statusCode() / 100 == 2 && response.body().length > 0
+                ? objectMapper.readTree(response.body())
+                : null;
+        return new Response(response.statusCode(), body);
+    }
+
+    public ObjectMapper objectMapper() {
+        return objectMapper;
+    }
+
+    /**
+     * Encode a query parameter value
+     */
+    public static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Encode a path segment; unlike a query value, a space must be %20 rather than +
+     */
+    public static String encodePath(String segment) {
+        return encode(segment).replace("+", "%20");
+    }
+
+    private HttpRequest.Builder builder(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Accept", "application/json");
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private byte[] json(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public record Response(int status, JsonNode body) {
+
+        public boolean isSuccess() {
+            return status / 100 == 2;
+        }
+    }
+}
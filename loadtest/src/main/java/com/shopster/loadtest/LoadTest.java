@@ -0,0 +1,155 @@
+package com.shopster.loadtest;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives a mix of shopper traffic through the API gateway and reports
+ * throughput, latency percentiles and error rates per endpoint.
+ *
+ * The load is open-model: requests are scheduled at a fixed rate whether or not
+ * earlier ones have completed, as real shoppers don't wait for each other. Each
+ * request runs on its own virtual thread. Latency is measured from the scheduled
+ * send time, so a slow service shows up as latency rather than as a lower request
+ * rate. Request choices come from a seeded Random on the scheduling thread, so a
+ * run with the same options against the same catalog sends the same requests.
+ */
+public class LoadTest {
+
+    private static final Duration GATEWAY_TIMEOUT = Duration.ofMinutes(3);
+
+    /**
+     * Registrations hash passwords on a bounded pool in user-service, so sign up a few at a time
+     */
+    private static final int SIGN_UP_CONCURRENCY = 8;
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        GatewayClient client = new GatewayClient(options.gateway());
+
+        awaitGateway(client);
+        Catalog catalog = Catalog.discover(client, options.discover());
+        System.out.printf("Sampled %d products in %d categories%n",
+                catalog.products().size(), catalog.categories().size());
+        List<Shopper> shoppers = signUp(client, options.users());
+        System.out.printf("Signed up %d shoppers%n", shoppers.size());
+
+        Scenario scenario = new Scenario(client, catalog, shoppers, options.mix());
+        Instant startedAt = Instant.now();
+        Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+        Duration measured = run(client, scenario, options, stats);
+
+        Report report = new Report(options, startedAt, measured, catalog.products().size(), shoppers.size(),
+                stats.values());
+        report.print(System.out);
+        Path file = report.write(client.objectMapper());
+        System.out.println("Report written to " + file);
+    }
+
+    /**
+     * Send requests at the target rate through the warmup and the measured duration.
+     * Returns how long the measured part took, including draining requests still in flight.
+     */
+    private static Duration run(GatewayClient client, Scenario scenario, LoadTestOptions options,
+                                Map<String, EndpointStats> stats) {
+        System.out.printf("Running %d req/s for %ds warmup + %ds measured, mix %s%n", options.rate(),
+                options.warmup().toSeconds(), options.duration().toSeconds(), options.mix());
+        long interval = 1_000_000_000L / options.rate();
+        long start = System.nanoTime();
+        long measureFrom = start + options.warmup().toNanos();
+        long end = measureFrom + options.duration().toNanos();
+        Random random = new Random(options.seed());
+        Semaphore inFlight = new Semaphore(options.maxInFlight());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long n = 0; ; n++) {
+                long scheduled = start + n * interval;
+                if (scheduled >= end) {
+                    break;
+                }
+                for (long wait = scheduled - System.nanoTime(); wait > 0; wait = scheduled - System.nanoTime()) {
+                    LockSupport.parkNanos(wait);
+                }
+
+                Scenario.Action action = scenario.next(random);
+                HttpRequest request = action.request().apply(random);
+                EndpointStats endpoint = scheduled >= measureFrom
+                        ? stats.computeIfAbsent(action.endpoint(), EndpointStats::new)
+                        : null;
+
+                inFlight.acquireUninterruptibly();
+                executor.execute(() -> {
+                    try {
+                        int status = client.send(request);
+                        if (endpoint != null) {
+                            endpoint.record(System.nanoTime() - scheduled, status);
+                        }
+                    } catch (IOException e) {
+                        if (endpoint != null) {
+                            endpoint.recordFailure(System.nanoTime() - scheduled, e);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        return Duration.ofNanos(System.nanoTime() - measureFrom);
+    }
+
+    private static void awaitGateway(GatewayClient client) throws InterruptedException {
+        long deadline = System.nanoTime() + GATEWAY_TIMEOUT.toNanos();
+        HttpRequest probe = client.get("/api/v1/products/featured?limit=1", null);
+        while (true) {
+            try {
+                if (client.send(probe) == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not up yet
+            }
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("The gateway did not serve products within " + GATEWAY_TIMEOUT);
+            }
+            Thread.sleep(2000);
+        }
+    }
+
+    private static List<Shopper> signUp(GatewayClient client, int users) throws Exception {
+        Semaphore permits = new Semaphore(SIGN_UP_CONCURRENCY);
+        List<Future<Shopper>> pending = new ArrayList<>(users);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < users; i++) {
+                int index = i;
+                pending.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return Shopper.signUp(client, index);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+            List<Shopper> shoppers = new ArrayList<>(users);
+            for (Future<Shopper> shopper : pending) {
+                shoppers.add(shopper.get());
+            }
+            return shoppers;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.shopster.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Command line options, given as {@code --name=value}. Every option has a default.
+ *
+ * @param gateway     base URL of the API gateway
+ * @param rate        target requests per second, spread evenly over time
+ * @param warmup      load applied before measuring starts
+ * @param duration    measured load after the warmup
+ * @param users       shoppers registered (or logged in) before the run
+ * @param mix         relative weight of each traffic group: browse, search, cart, login
+ * @param maxInFlight requests allowed in flight at once; beyond this, sends wait and the wait counts as latency
+ * @param discover    products sampled from the catalog for browse and cart requests
+ * @param seed        seed for every random choice, so runs replay the same request sequence
+ * @param label       free text stored in the report, e.g. the commit
+ * @param output      directory the JSON report is written to
+ */
+public record LoadTestOptions(String gateway,
+                              int rate,
+                              Duration warmup,
+                              Duration duration,
+                              int users,
+                              Map<String, Integer> mix,
+                              int maxInFlight,
+                              int discover,
+                              long seed,
+                              String label,
+                              Path output) {
+
+    public static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new LinkedHashMap<>();
+        values.put("gateway", "http://localhost:8080");
+        values.put("rate", "200");
+        values.put("warmup", "15s");
+        values.put("duration", "60s");
+        values.put("users", "100");
+        values.put("mix", "browse=55,search=25,cart=15,login=5");
+        values.put("max-in-flight", "512");
+        values.put("discover", "2000");
+        values.put("seed", "42");
+        values.put("label", "");
+        values.put("output", "loadtest/results");
+
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            String name = arg.substring(2, eq);
+            if (!values.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown option --" + name + "; known options: " + values.keySet());
+            }
+            values.put(name, arg.substring(eq + 1));
+        }
+
+        return new LoadTestOptions(
+                values.get("gateway").replaceAll("/+$", ""),
+                Integer.parseInt(values.get("rate")),
+                duration(values.get("warmup")),
+                duration(values.get("duration")),
+                Integer.parseInt(values.get("users")),
+                mix(values.get("mix")),
+                Integer.parseInt(values.get("max-in-flight")),
+                Integer.parseInt(values.get("discover")),
+                Long.parseLong(values.get("seed")),
+                values.get("label"),
+                Path.of(values.get("output")));
+    }
+
+    /**
+     * Parse 90s, 5m or 1h
+     */
+    private static Duration duration(String value) {
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        switch (value.charAt(value.length() - 1)) {
+            case 's':
+                return Duration.ofSeconds(amount);
+            case 'm':
+                return Duration.ofMinutes(amount);
+            case 'h':
+                return Duration.ofHours(amount);
+            default:
+                throw new IllegalArgumentException("Durations look like 90s, 5m or 1h, got " + value);
+        }
+    }
+
+    private static Map<String, Integer> mix(String value) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String part : value.split(",")) {
+            String[] weight = part.trim().split("=");
+            if (weight.length != 2 || !Scenario.GROUPS.contains(weight[0])) {
+                throw new IllegalArgumentException("Mix entries look like browse=55 with a group from "
+                        + Scenario.GROUPS + ", got " + part);
+            }
+            weights.put(weight[0], Integer.parseInt(weight[1]));
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,142 @@
+package com.shopster.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-endpoint throughput, latency percentiles and error rates for the measured
+ * part of a run, printed as a table and written as JSON.
+ */
+public class Report {
+
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")
+            .withZone(ZoneOffset.UTC);
+
+    private final LoadTestOptions options;
+    private final Instant startedAt;
+    private final Duration measured;
+    private final int catalogSample;
+    private final int shoppers;
+    private final List<EndpointStats> endpoints;
+
+    public Report(LoadTestOptions options, Instant startedAt, Duration measured, int catalogSample, int shoppers,
+                  Iterable<EndpointStats> endpoints) {
+        this.options = options;
+        this.startedAt = startedAt;
+        this.measured = measured;
+        this.catalogSample = catalogSample;
+        this.shoppers = shoppers;
+        this.endpoints = new ArrayList<>();
+        endpoints.forEach(this.endpoints::add);
+        this.endpoints.sort(Comparator.comparing(EndpointStats::getEndpoint));
+    }
+
+    public void print(PrintStream out) {
+        String format = "%-42s %9s %9s %8s %9s %9s %9s %9s%n";
+        out.printf(format, "Endpoint", "Requests", "Req/s", "Error %", "p50 ms", "p99 ms", "p999 ms", "Max ms");
+        for (EndpointStats stats : endpoints) {
+            print(out, format, stats.getEndpoint(), stats.getLatencies(), stats.getErrors());
+        }
+        print(out, format, "TOTAL", total(), endpoints.stream().mapToLong(EndpointStats::getErrors).sum());
+        for (EndpointStats stats : endpoints) {
+            if (stats.getErrors() > 0) {
+                out.printf("  %s errors: %s%n", stats.getEndpoint(), stats.getErrorsByCause());
+            }
+        }
+    }
+
+    /**
+     * Write the report to {@code <output>/<start time>.json} and return the path
+     */
+    public Path write(ObjectMapper objectMapper) throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("label", options.label());
+        report.put("startedAt", startedAt.toString());
+        report.put("gateway", options.gateway());
+        report.put("targetRate", options.rate());
+        report.put("warmupSeconds", options.warmup().toSeconds());
+        report.put("measuredSeconds", measured.toMillis() / 1000.0);
+        report.put("mix", options.mix());
+        report.put("seed", options.seed());
+        report.put("catalogSample", catalogSample);
+        report.put("shoppers", shoppers);
+
+        long totalErrors = endpoints.stream().mapToLong(EndpointStats::getErrors).sum();
+        report.put("total", summary(total(), totalErrors, Map.of()));
+        Map<String, Object> byEndpoint = new LinkedHashMap<>();
+        for (EndpointStats stats : endpoints) {
+            byEndpoint.put(stats.getEndpoint(),
+                    summary(stats.getLatencies(), stats.getErrors(), stats.getErrorsByCause()));
+        }
+        report.put("endpoints", byEndpoint);
+
+        Files.createDirectories(options.output());
+        Path file = options.output().resolve(FILE_TIME.format(startedAt) + ".json");
+        objectMapper.copy().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+        return file;
+    }
+
+    private void print(PrintStream out, String format, String name, Histogram latencies, long errors) {
+        long requests = latencies.getTotalCount();
+        out.printf(format, name, requests, String.format("%.1f", throughput(requests)),
+                String.format("%.2f%%", errorRate(requests, errors)),
+                millis(latencies, 50), millis(latencies, 99), millis(latencies, 99.9),
+                String.format("%.1f", latencies.getMaxValue() / 1000.0));
+    }
+
+    private Map<String, Object> summary(Histogram latencies, long errors, Map<String, Long> errorsByCause) {
+        long requests = latencies.getTotalCount();
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", requests);
+        summary.put("throughput", round(throughput(requests)));
+        summary.put("errors", errors);
+        summary.put("errorPercent", round(errorRate(requests, errors)));
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("p50", round(latencies.getValueAtPercentile(50) / 1000.0));
+        latency.put("p99", round(latencies.getValueAtPercentile(99) / 1000.0));
+        latency.put("p999", round(latencies.getValueAtPercentile(99.9) / 1000.0));
+        latency.put("max", round(latencies.getMaxValue() / 1000.0));
+        summary.put("latencyMs", latency);
+        if (!errorsByCause.isEmpty()) {
+            summary.put("errorsByCause", errorsByCause);
+        }
+        return summary;
+    }
+
+    private Histogram total() {
+        Histogram total = new Histogram(3);
+        endpoints.forEach(stats -> total.add(stats.getLatencies()));
+        return total;
+    }
+
+    private double throughput(long requests) {
+        return requests / (measured.toMillis() / 1000.0);
+    }
+
+    private static double errorRate(long requests, long errors) {
+        return requests == 0 ? 0 : errors * 100.0 / requests;
+    }
+
+    private static String millis(Histogram latencies, double percentile) {
+        return String.format("%.1f", latencies.getValueAtPercentile(percentile) / 1000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+}
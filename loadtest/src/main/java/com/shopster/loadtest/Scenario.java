@@ -0,0 +1,165 @@
+package com.shopster.loadtest;
+
+import java.net.http.HttpRequest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * The traffic mix. Each request first picks a group by the mix weights, then an
+ * endpoint within the group by its own weight:
+ * <ul>
+ *   <li>browse: home page rails, category listings and product pages</li>
+ *   <li>search: ranked search, filtered search and suggestions</li>
+ *   <li>cart: cart reads, adds, batch changes and removals by a random shopper</li>
+ *   <li>login: a random shopper logging in again</li>
+ * </ul>
+ */
+public class Scenario {
+
+    public static final List<String> GROUPS = List.of("browse", "search", "cart", "login");
+
+    private final List<Group> groups = new ArrayList<>();
+    private final int totalWeight;
+
+    public Scenario(GatewayClient client, Catalog catalog, List<Shopper> shoppers, Map<String, Integer> mix) {
+        List<Catalog.Product> products = catalog.products();
+        List<String> categories = catalog.categories();
+        List<String> terms = catalog.terms();
+
+        add(mix, "browse", List.of(
+                new Action("GET /products/featured", 2,
+                        random -> client.get("/api/v1/products/featured?limit=10", null)),
+                new Action("GET /products/random", 2,
+                        random -> client.get("/api/v1/products/random?limit=15", null)),
+                new Action("GET /products/category/{category}", 3,
+                        random -> client.get("/api/v1/products/category/"
+                                + GatewayClient.encodePath(pick(random, categories)) + "?cursor=&size=20", null)),
+                new Action("GET /products/{id}", 5,
+                        random -> client.get("/api/v1/products/" + pick(random, products).id(), null))));
+
+        add(mix, "search", List.of(
+                new Action("GET /products/search", 5,
+                        random -> client.get("/api/v1/products/search?q="
+                                + GatewayClient.encode(query(random, terms)) + "&size=20", null)),
+                new Action("GET /products/search?category", 1,
+                        random -> client.get("/api/v1/products/search?q="
+                                + GatewayClient.encode(pick(random, terms))
+                                + "&category=" + GatewayClient.encode(pick(random, categories)) + "&size=20", null)),
+                new Action("GET /products/search/suggest", 2,
+                        random -> client.get("/api/v1/products/search/suggest?prefix="
+                                + GatewayClient.encode(prefix(pick(random, terms))) + "&limit=10", null))));
+
+        add(mix, "cart", List.of(
+                new Action("GET /cart/{userId}", 4, random -> {
+                    Shopper shopper = pick(random, shoppers);
+                    return client.get("/api/v1/cart/" + shopper.userId(), shopper.token());
+                }),
+                new Action("POST /cart/{userId}/items", 3, random -> {
+                    Shopper shopper = pick(random, shoppers);
+                    return client.post("/api/v1/cart/" + shopper.userId() + "/items",
+                            addItem(pick(random, products), 1 + random.nextInt(3)), shopper.token());
+                }),
+                new Action("POST /cart/{userId}/batch", 2, random -> {
+                    Shopper shopper = pick(random, shoppers);
+                    Map<String, Object> add = addItem(pick(random, products), 1);
+                    add.put("op", "ADD");
+                    List<Map<String, Object>> operations = List.of(
+                            add,
+                            Map.of("op", "UPDATE", "productId", pick(random, products).id(),
+                                    "quantity", 1 + random.nextInt(5)),
+                            Map.of("op", "REMOVE", "productId", pick(random, products).id()));
+                    return client.post("/api/v1/cart/" + shopper.userId() + "/batch",
+                            Map.of("operations", operations), shopper.token());
+                }),
+                new Action("DELETE /cart/{userId}/items/{productId}", 1, random -> {
+                    Shopper shopper = pick(random, shoppers);
+                    return client.delete("/api/v1/cart/" + shopper.userId() + "/items/"
+                            + pick(random, products).id(), shopper.token());
+                })));
+
+        add(mix, "login", List.of(
+                new Action("POST /auth/login", 1, random -> {
+                    Shopper shopper = pick(random, shoppers);
+                    return client.post("/api/v1/auth/login",
+                            Shopper.loginBody(shopper.email(), shopper.password()), null);
+                })));
+
+        totalWeight = groups.stream().mapToInt(Group::weight).sum();
+        if (totalWeight == 0) {
+            throw new IllegalArgumentException("The mix has no traffic: " + mix);
+        }
+    }
+
+    /**
+     * Pick the next endpoint to call
+     */
+    public Action next(Random random) {
+        int roll = random.nextInt(totalWeight);
+        for (Group group : groups) {
+            if (roll < group.weight()) {
+                return group.next(random);
+            }
+            roll -= group.weight();
+        }
+        throw new IllegalStateException("Weights changed during selection");
+    }
+
+    private void add(Map<String, Integer> mix, String name, List<Action> actions) {
+        int weight = mix.getOrDefault(name, 0);
+        if (weight > 0) {
+            groups.add(new Group(weight, actions));
+        }
+    }
+
+    private static Map<String, Object> addItem(Catalog.Product product, int quantity) {
+        Map<String, Object> item = new HashMap<>();
+        item.put("productId", product.id());
+        item.put("productName", product.name());
+        item.put("quantity", quantity);
+        item.put("price", product.price());
+        item.put("imageUrl", product.imageUrl());
+        item.put("brand", product.brand());
+        item.put("inStock", true);
+        return item;
+    }
+
+    /**
+     * One or two search terms; two-word queries are a third of searches
+     */
+    private static String query(Random random, List<String> terms) {
+        String first = pick(random, terms);
+        return random.nextInt(3) == 0 ? first + " " + pick(random, terms) : first;
+    }
+
+    private static String prefix(String term) {
+        return term.substring(0, Math.min(3, term.length()));
+    }
+
+    private static <T> T pick(Random random, List<T> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    /**
+     * One endpoint of the mix; {@code endpoint} names it in the report
+     */
+    public record Action(String endpoint, int weight, Function<Random, HttpRequest> request) {
+    }
+
+    private record Group(int weight, List<Action> actions) {
+
+        Action next(Random random) {
+            int roll = random.nextInt(actions.stream().mapToInt(Action::weight).sum());
+            for (Action action : actions) {
+                if (roll < action.weight()) {
+                    return action;
+                }
+                roll -= action.weight();
+            }
+            throw new IllegalStateException("Weights changed during selection");
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.shopster.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * A registered user the load acts as. Shopper {@code i} always has the same
+ * email and password, so reruns against the same database log in instead of
+ * registering again.
+ */
+public record Shopper(long userId, String email, String password, String token) {
+
+    private static final String PASSWORD = "LoadTest123";
+
+    /**
+     * Register shopper {@code index}, or log in if it already exists
+     */
+    public static Shopper signUp(GatewayClient client, int index) throws IOException, InterruptedException {
+        String email = "loadtest-" + index + "@shopster.dev";
+        GatewayClient.Response response = client.exchange(client.post("/api/v1/auth/register", Map.of(
+                "email", email,
+                "password", PASSWORD,
+                "firstName", "Load",
+                "lastName", "Tester " + index), null));
+        if (!response.isSuccess()) {
+            response = client.exchange(client.post("/api/v1/auth/login", loginBody(email, PASSWORD), null));
+        }
+        if (!response.isSuccess()) {
+            throw new IllegalStateException("Could not register or log in " + email + ": status " + response.status());
+        }
+        JsonNode auth = response.body().path("data");
+        return new Shopper(auth.path("user").path("id").asLong(), email, PASSWORD, auth.path("accessToken").asText());
+    }
+
+    public static Map<String, String> loginBody(String email, String password) {
+        return Map.of("email", email, "password", password);
+    }
+}
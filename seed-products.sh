@@ -44,7 +44,7 @@ fi
 
 # Run the application with dev profile to trigger data seeding
 echo "Starting Product Service with data seeding..."
-SPRING_PROFILES_ACTIVE=dev java -jar target/product-service-*.jar
+SPRING_PROFILES_ACTIVE=dev java -jar target/product-service-*-exec.jar
 
 echo "Product Service started! The database should now contain 50 mock products."
 echo "You can verify by checking: http://localhost:8082/actuator/health"
\ No newline at end of file